@@ -13,22 +13,58 @@
 
 package org.pentaho.hadoop.shim;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.plugins.KettleURLClassLoader;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loads classes for a Hadoop configuration by looking for resources in the configuration directory first before
  * checking its parent class loader.
+ * <p>
+ * Transformations starting against the same configuration only wait for each other while loading the same class.
+ * The registration as parallel capable fails as long as {@link KettleURLClassLoader} is not, so this class keeps a
+ * lock per class name itself then.
+ * </p>
  */
 public class HadoopConfigurationClassLoader extends KettleURLClassLoader {
 
-  private Set<String> loadClassesFromParent;
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
+
+  /**
+   * Number of classes not found in the URLs of this class loader that are remembered, they are probed again once
+   * more were not found.
+   */
+  @VisibleForTesting static final int MAX_NOT_FOUND_CLASSES = 10000;
+
+  /**
+   * Sorted prefixes of the classes to load from the parent, none of them a prefix of another one.
+   */
+  private String[] loadClassesFromParent;
+
+  /**
+   * Classes that were not found in the URLs of this class loader, they are loaded from the parent right away.
+   */
+  @VisibleForTesting final Set<String> notFoundClasses = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Locks of the classes loaded, only used when the class loader could not be registered as parallel capable.
+   */
+  private final ConcurrentHashMap<String, Object> classLoadingLocks = new ConcurrentHashMap<>();
+
+  private Set<String> indexedPackages;
+
+  private List<File> classDirectories;
 
   /**
    * Create a class loader capable of loading classes for a Hadoop configuration.
@@ -44,35 +80,114 @@ public class HadoopConfigurationClassLoader extends KettleURLClassLoader {
       throw new NullPointerException( "parent ClassLoader is required" );
     }
 
-    loadClassesFromParent = new HashSet<String>();
+    Set<String> prefixes = new TreeSet<String>();
     if ( ignoredClasses != null ) {
-      loadClassesFromParent.addAll( Arrays.asList( ignoredClasses ) );
+      prefixes.addAll( Arrays.asList( ignoredClasses ) );
     }
-    loadClassesFromParent.add( "org.apache.commons.log" );
-    loadClassesFromParent.add( "org.apache.logging.log4j" );
-    loadClassesFromParent.add( "org.slf4j" );
+    prefixes.add( "org.apache.commons.log" );
+    prefixes.add( "org.apache.logging.log4j" );
+    prefixes.add( "org.slf4j" );
+    loadClassesFromParent = withoutCoveredPrefixes( prefixes );
   }
 
   /**
-   * Determine if a class should be ignored by this class loader and loading of it should be delegated to its parent.
+   * @param prefixes sorted prefixes
+   * @return the prefixes that don't start with another one of them, in order
+   */
+  private static String[] withoutCoveredPrefixes( Set<String> prefixes ) {
+    List<String> result = new ArrayList<String>();
+    for ( String prefix : prefixes ) {
+      // A prefix starting with another one follows it, and those in between start with the other one too
+      if ( result.isEmpty() || !prefix.startsWith( result.get( result.size() - 1 ) ) ) {
+        result.add( prefix );
+      }
+    }
+    return result.toArray( new String[ 0 ] );
+  }
+
+  /**
+   * Create a class loader capable of loading classes for a Hadoop configuration, knowing which packages its jars
+   * hold. Classes of other packages are only looked for in the directories of the class path, instead of probing
+   * every jar before delegating to the parent class loader.
+   *
+   * @param urls           Paths to directories or jars to load resources from
+   * @param parent         Parent class loader to delegate loading of resources to if we cannot find them within the
+   *                       list of URLs
+   * @param index          Index of the jars in {@code urls}
+   * @param ignoredClasses Classes or package names to explicitly delegate loading to the parent class loader
+   */
+  public HadoopConfigurationClassLoader( URL[] urls, ClassLoader parent, ShimJarIndex index,
+                                         String... ignoredClasses ) {
+    this( urls, parent, ignoredClasses );
+    List<File> directories = new ArrayList<>();
+    for ( URL url : urls ) {
+      File file = ShimJarIndex.toFile( url );
+      if ( file == null ) {
+        // Nothing is known about what other protocols hold
+        return;
+      }
+      if ( file.isDirectory() ) {
+        directories.add( file );
+      }
+    }
+    directories.addAll( index.getDirectories() );
+    indexedPackages = index.getPackages();
+    classDirectories = directories;
+  }
+
+  /**
+   * Determine if a class can be found in the URLs of this class loader, which is only ruled out with a jar index.
    *
    * @param name Name of class
-   * @return {@code true} if the class should be ignored by this class loader
+   * @return {@code false} if none of the URLs holds the class
    */
-  protected boolean ignoreClass( String name ) {
-    if ( name == null || loadClassesFromParent.contains( name ) ) {
+  protected boolean mayContainClass( String name ) {
+    if ( indexedPackages == null ) {
+      return true;
+    }
+    int lastDot = name.lastIndexOf( '.' );
+    if ( indexedPackages.contains( lastDot < 0 ? "" : name.substring( 0, lastDot ) ) ) {
       return true;
     }
-    for ( String prefix : loadClassesFromParent ) {
-      if ( name.startsWith( prefix ) ) {
+    String classFile = name.replace( '.', '/' ) + ".class";
+    for ( File directory : classDirectories ) {
+      if ( new File( directory, classFile ).isFile() ) {
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * Determine if a class should be ignored by this class loader and loading of it should be delegated to its parent.
+   *
+   * @param name Name of class
+   * @return {@code true} if the class should be ignored by this class loader
+   */
+  protected boolean ignoreClass( String name ) {
+    if ( name == null ) {
+      return true;
+    }
+    // Only the greatest prefix not after the name can be a prefix of it, as the prefixes don't start with each other
+    int index = Arrays.binarySearch( loadClassesFromParent, name );
+    if ( index >= 0 ) {
+      return true;
+    }
+    int floor = -index - 2;
+    return floor >= 0 && name.startsWith( loadClassesFromParent[ floor ] );
+  }
+
   @Override
-  protected synchronized Class<?> loadClass( String name, boolean resolve ) throws ClassNotFoundException {
+  protected Object getClassLoadingLock( String className ) {
+    Object lock = super.getClassLoadingLock( className );
+    if ( lock != this ) {
+      return lock;
+    }
+    return classLoadingLocks.computeIfAbsent( className, name -> new Object() );
+  }
+
+  @Override
+  protected Class<?> loadClass( String name, boolean resolve ) throws ClassNotFoundException {
     if ( ignoreClass( name ) ) {
       Class<?> c = Class.forName( name, false, getParent() );
       if ( resolve ) {
@@ -80,26 +195,41 @@ public class HadoopConfigurationClassLoader extends KettleURLClassLoader {
       }
       return c;
     }
-    // Check for a previously loaded class
-    Class<?> c = findLoadedClass( name );
-    if ( c == null ) {
-      // Try to load it from ourself first
-      try {
-        c = findClass( name );
-      } catch ( ClassNotFoundException ex ) {
-        // If we can't find the class check the parent class loader
-        try {
-          c = Class.forName(name, false, getParent());
-        } catch ( ClassCircularityError e ) {
-          // Ignore circularity errors, they are expected in some cases
+    // Only loads of the same class wait for each other
+    synchronized ( getClassLoadingLock( name ) ) {
+      // Check for a previously loaded class
+      Class<?> c = findLoadedClass( name );
+      if ( c == null ) {
+        // Try to load it from ourself first
+        if ( !notFoundClasses.contains( name ) ) {
+          try {
+            if ( mayContainClass( name ) ) {
+              c = findClass( name );
+            }
+          } catch ( ClassNotFoundException ex ) {
+            // If we can't find the class check the parent class loader
+          }
+          if ( c == null ) {
+            if ( notFoundClasses.size() >= MAX_NOT_FOUND_CLASSES ) {
+              notFoundClasses.clear();
+            }
+            notFoundClasses.add( name );
+          }
+        }
+        if ( c == null ) {
+          try {
+            c = Class.forName(name, false, getParent());
+          } catch ( ClassCircularityError e ) {
+            // Ignore circularity errors, they are expected in some cases
+          }
         }
       }
+      // Resolve the class as needed
+      if ( resolve ) {
+        resolveClass( c );
+      }
+      return c;
     }
-    // Resolve the class as needed
-    if ( resolve ) {
-      resolveClass( c );
-    }
-    return c;
   }
 
   @Override
@@ -17,6 +17,7 @@
 
 package org.pentaho.hadoop.shim;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
@@ -31,6 +32,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -344,20 +346,41 @@ public class HadoopConfigurationLocator implements HadoopConfigurationProvider {
         throw new IllegalArgumentException( "root must be a folder: " + root );
       }
 
-      // Find all jar files in the configuration, at most 2 folders deep
-      List<URL> jars = findJarsIn( root, 0, configurationProperties.getConfigSet( SHIM_CLASSPATH_IGNORE ) );
+      Set<String> classpathIgnore = configurationProperties.getConfigSet( SHIM_CLASSPATH_IGNORE );
+      String excludeJars = configurationProperties.getProperty( CONFIG_PROPERTY_EXCLUDE_JARS );
+
+      // The class path is only scanned for again once a jar or the configuration folder changed
+      File indexFile = ShimJarIndex.getIndexFile( root.getName().getBaseName() );
+      String indexKey = ShimJarIndex.createKey( root.getURL(), classpathUrls, new TreeSet<>( classpathIgnore ),
+        excludeJars );
+      ShimJarIndex index = ShimJarIndex.load( indexFile, indexKey );
+      if ( index == null ) {
+        // Find all jar files in the configuration, at most 2 folders deep
+        List<URL> jars = findJarsIn( root, 0, classpathIgnore );
+
+        // Add the root of the configuration
+        jars.add( 0, new URL( root.getURL().toExternalForm() + "/" ) );
+        // Inject any overriding URLs before all other paths
+        if ( classpathUrls != null ) {
+          jars.addAll( 0, classpathUrls );
+        }
+        //Exclude jars contained in exclude.jars property in config.properties file from the list of jars
+        jars = filterJars( jars, excludeJars );
 
-      // Add the root of the configuration
-      jars.add( 0, new URL( root.getURL().toExternalForm() + "/" ) );
-      // Inject any overriding URLs before all other paths
-      if ( classpathUrls != null ) {
-        jars.addAll( 0, classpathUrls );
+        index = ShimJarIndex.build( indexKey, jars, ShimJarIndex.toFile( root.getURL() ) );
+        if ( index == null ) {
+          return new HadoopConfigurationClassLoader( jars.toArray( EMPTY_URL_ARRAY ), parent, ignoredClasses );
+        }
+        try {
+          index.store( indexFile );
+        } catch ( IOException e ) {
+          logger.warn( BaseMessages.getString( PKG, "Error.StoringJarIndex", root.getName().getBaseName(), indexFile ),
+            e );
+        }
       }
-      //Exclude jars contained in exclude.jars property in config.properties file from the list of jars
-      jars = filterJars( jars, configurationProperties.getProperty( CONFIG_PROPERTY_EXCLUDE_JARS ) );
 
-      ClassLoader cl = new HadoopConfigurationClassLoader( jars.toArray( EMPTY_URL_ARRAY ),
-        parent, ignoredClasses );
+      ClassLoader cl = new HadoopConfigurationClassLoader( index.getUrls().toArray( EMPTY_URL_ARRAY ),
+        parent, index, ignoredClasses );
       return cl;
     } catch ( Exception ex ) {
       throw new ConfigurationException( BaseMessages.getString( PKG, "Error.CreatingClassLoader" ), ex );
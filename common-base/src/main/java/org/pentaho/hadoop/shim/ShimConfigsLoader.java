@@ -33,13 +33,17 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -55,91 +59,162 @@ public class ShimConfigsLoader {
   public static final String CONFIGS_DIR_PREFIX =
     "metastore" + File.separator + "pentaho" + File.separator + "NamedCluster" + File.separator + "Configs";
 
+  /**
+   * Milliseconds resolved configuration files and directory listings are kept for.
+   */
+  public static final long RESOURCE_CACHE_TTL = Long.getLong( "pentaho.shim.configs.cache.ttl", 30000L );
+
+  private static final Map<String, ResolvedResource> RESOLVED_RESOURCES = new ConcurrentHashMap<>();
+  private static final Map<String, ResolvedDirectory> DIRECTORY_LISTINGS = new ConcurrentHashMap<>();
+  private static final Map<String, ConfigDirectories> CONFIG_DIRECTORIES = new ConcurrentHashMap<>();
+
   public static Properties loadConfigProperties( String additionalPath ) {
     return getConfigProperties(
       getURLToResourceFile( ClusterConfigNames.CONFIGS_PROP.toString(), additionalPath ) );
   }
 
-  // complexity rule suppressed because the level of nesting is not significant and moving logic to other methods
-  // would make it more difficult to trace
-  @SuppressWarnings( "squid:S3776" )
+  /**
+   * Find a cluster configuration file. Resolved locations, including the files which could not be found, are kept for
+   * {@link #RESOURCE_CACHE_TTL} milliseconds, and every candidate directory is listed once in that time instead of
+   * probing it for every file. Lookups that failed with an error are not kept.
+   */
   public static URL getURLToResourceFile( String siteFileName, String additionalPath ) {
+    String key = additionalPath + File.pathSeparator + siteFileName;
+    long now = System.currentTimeMillis();
+    ResolvedResource resolved = RESOLVED_RESOURCES.get( key );
+    if ( resolved != null && resolved.expires > now ) {
+      return resolved.url;
+    }
+    URL url;
     try {
-      FileObject currentPath = null;
-      if ( additionalPath != null && !additionalPath.equals( "" ) ) {
-        currentPath = KettleVFS.getFileObject(
-          Const.getKettleDirectory() + File.separator + CONFIGS_DIR_PREFIX + File.separator + additionalPath
-            + File.separator
-            + siteFileName );
-
-        if ( currentPath.exists() ) {
-          return currentPath.getURL();
-        }
+      url = resolveURLToResourceFile( siteFileName, additionalPath );
+    } catch ( KettleFileException | IOException ex ) {
+      log.logError( BaseMessages.getString( PKG, "ShimConfigsLoader.ExceptionReadingFile" ),
+        siteFileName, additionalPath, ex.getStackTrace() );
+      return null;
+    }
+    RESOLVED_RESOURCES.put( key, new ResolvedResource( url, now + RESOURCE_CACHE_TTL ) );
+    return url;
+  }
 
-        currentPath = KettleVFS.getFileObject(
-          Const.getUserHomeDirectory() + File.separator + ".pentaho" + File.separator + CONFIGS_DIR_PREFIX
-            + File.separator + additionalPath + File.separator
-            + siteFileName );
-        if ( currentPath.exists() ) {
-          return currentPath.getURL();
-        }
+  /**
+   * Forget the resolved configuration files and directory listings, so that the next lookups see added or removed
+   * files straight away.
+   */
+  public static void clearResourceCache() {
+    RESOLVED_RESOURCES.clear();
+    DIRECTORY_LISTINGS.clear();
+    CONFIG_DIRECTORIES.clear();
+  }
 
-        currentPath = KettleVFS.getFileObject(
-          Const.getUserHomeDirectory() + File.separator + CONFIGS_DIR_PREFIX + File.separator + additionalPath
-            + File.separator
-            + siteFileName );
-        if ( currentPath.exists() ) {
-          return currentPath.getURL();
-        }
+  /**
+   * Directories the configuration files of a cluster are looked for in, in the order they are searched. The legacy
+   * shim directory comes last. Like the resolved files, they are kept for {@link #RESOURCE_CACHE_TTL} milliseconds.
+   */
+  public static List<String> getConfigDirectories( String additionalPath ) {
+    return getConfigDirectoriesOf( additionalPath ).all;
+  }
 
-        // normal metastore locations failed, see if there's a metastore in the big-data-plugin folder
-        // this should only exist if this instance of pentaho were created to run on a yarn cluster
-        PluginInterface pluginInterface =
-          PluginRegistry.getInstance().findPluginWithId( LifecyclePluginType.class, "HadoopSpoonPlugin" );
-        currentPath = KettleVFS.getFileObject( pluginInterface.getPluginDirectory().getPath()
-          + File.separator + CONFIGS_DIR_PREFIX + File.separator + additionalPath + File.separator + siteFileName );
-        if ( currentPath.exists() ) {
-          return currentPath.getURL();
-        }
+  private static ConfigDirectories getConfigDirectoriesOf( String additionalPath ) {
+    String key = additionalPath == null ? "" : additionalPath;
+    long now = System.currentTimeMillis();
+    ConfigDirectories directories = CONFIG_DIRECTORIES.get( key );
+    if ( directories != null && directories.expires > now ) {
+      return directories;
+    }
+    List<String> clusterDirectories = new ArrayList<>();
+    if ( !key.isEmpty() ) {
+      clusterDirectories.add( Const.getKettleDirectory() + File.separator + CONFIGS_DIR_PREFIX + File.separator + key );
+      clusterDirectories.add( Const.getUserHomeDirectory() + File.separator + ".pentaho" + File.separator
+        + CONFIGS_DIR_PREFIX + File.separator + key );
+      clusterDirectories.add( Const.getUserHomeDirectory() + File.separator + CONFIGS_DIR_PREFIX + File.separator
+        + key );
+      // normal metastore locations failed, see if there's a metastore in the big-data-plugin folder
+      // this should only exist if this instance of pentaho were created to run on a yarn cluster
+      PluginInterface pluginInterface =
+        PluginRegistry.getInstance().findPluginWithId( LifecyclePluginType.class, "HadoopSpoonPlugin" );
+      if ( pluginInterface != null ) {
+        clusterDirectories.add( pluginInterface.getPluginDirectory().getPath() + File.separator + CONFIGS_DIR_PREFIX
+          + File.separator + key );
       }
-      // cluster name was missing or else config files were not found; try looking for a legacy configuration
+    }
+    // cluster name was missing or else config files were not found; try looking for a legacy configuration
+    String legacyDirectory = null;
+    try {
       String defaultShim = LegacyShimLocator.getLegacyDefaultShimName();
       List<ShimIdentifierInterface> shimIdentifers = LegacyShimLocator.getInstance().getRegisteredShims();
-      for ( ShimIdentifierInterface shim : shimIdentifers ) {
-        if ( shim.getId().equals( defaultShim ) ) {
-          // only return the legacy folder if the shim still exists
-          currentPath = KettleVFS.getFileObject(
-            LegacyShimLocator.getLegacyDefaultShimDir( defaultShim ) + File.separator + siteFileName );
-          if ( currentPath.exists() ) {
-            log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UsingLegacyConfig" ) );
-            return currentPath.getURL();
+      if ( shimIdentifers != null ) {
+        for ( ShimIdentifierInterface shim : shimIdentifers ) {
+          if ( shim.getId().equals( defaultShim ) ) {
+            // only use the legacy folder if the shim still exists
+            legacyDirectory = LegacyShimLocator.getLegacyDefaultShimDir( defaultShim );
           }
         }
       }
+    } catch ( IOException ex ) {
+      log.logDebug( BaseMessages.getString( PKG, "ShimConfigsLoader.NoLegacyConfig", ex.getMessage() ) );
+    }
+    directories = new ConfigDirectories( clusterDirectories, legacyDirectory, now + RESOURCE_CACHE_TTL );
+    CONFIG_DIRECTORIES.put( key, directories );
+    return directories;
+  }
 
-      // Work around to avoid multiple logging for VFS
-      // Don't report if the cluster had no name
-      if ( additionalPath != null && !"".equals( additionalPath ) ) {
-        if ( !CLUSTER_NAME_FOR_LOGGING.contains( additionalPath ) ) {
-          SITE_FILE_NAME.clear();
-          log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UnableToFindConfigs" ), siteFileName,
-            additionalPath );
-          CLUSTER_NAME_FOR_LOGGING.add( additionalPath );
-          SITE_FILE_NAME.add( siteFileName );
-        } else if ( !SITE_FILE_NAME.contains( siteFileName ) ) {
-          log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UnableToFindConfigs" ), siteFileName,
-            additionalPath );
-          SITE_FILE_NAME.add( siteFileName );
-        }
+  private static URL resolveURLToResourceFile( String siteFileName, String additionalPath )
+    throws KettleFileException, IOException {
+    ConfigDirectories directories = getConfigDirectoriesOf( additionalPath );
+    for ( String directory : directories.cluster ) {
+      URL url = listDirectory( directory ).get( siteFileName );
+      if ( url != null ) {
+        return url;
       }
+    }
+    URL url = listDirectory( directories.legacy ).get( siteFileName );
+    if ( url != null ) {
+      log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UsingLegacyConfig" ) );
+      return url;
+    }
 
-    } catch ( KettleFileException | IOException ex ) {
-      log.logError( BaseMessages.getString( PKG, "ShimConfigsLoader.ExceptionReadingFile" ),
-        siteFileName, additionalPath, ex.getStackTrace() );
+    // Work around to avoid multiple logging for VFS
+    // Don't report if the cluster had no name
+    if ( additionalPath != null && !"".equals( additionalPath ) ) {
+      if ( !CLUSTER_NAME_FOR_LOGGING.contains( additionalPath ) ) {
+        SITE_FILE_NAME.clear();
+        log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UnableToFindConfigs" ), siteFileName,
+          additionalPath );
+        CLUSTER_NAME_FOR_LOGGING.add( additionalPath );
+        SITE_FILE_NAME.add( siteFileName );
+      } else if ( !SITE_FILE_NAME.contains( siteFileName ) ) {
+        log.logBasic( BaseMessages.getString( PKG, "ShimConfigsLoader.UnableToFindConfigs" ), siteFileName,
+          additionalPath );
+        SITE_FILE_NAME.add( siteFileName );
+      }
     }
     return null;
   }
 
+  /**
+   * @return URLs of the files in the directory by file name, empty if the directory doesn't exist
+   */
+  private static Map<String, URL> listDirectory( String directory ) throws KettleFileException, IOException {
+    if ( directory == null ) {
+      return Collections.emptyMap();
+    }
+    long now = System.currentTimeMillis();
+    ResolvedDirectory listing = DIRECTORY_LISTINGS.get( directory );
+    if ( listing != null && listing.expires > now ) {
+      return listing.files;
+    }
+    Map<String, URL> files = new HashMap<>();
+    FileObject directoryObject = KettleVFS.getFileObject( directory );
+    if ( directoryObject.exists() && directoryObject.isFolder() ) {
+      for ( FileObject child : directoryObject.getChildren() ) {
+        files.put( child.getName().getBaseName(), child.getURL() );
+      }
+    }
+    DIRECTORY_LISTINGS.put( directory, new ResolvedDirectory( files, now + RESOURCE_CACHE_TTL ) );
+    return files;
+  }
+
   public static void addConfigsAsResources( NamedCluster namedCluster,
                                             BiConsumer<? super InputStream, ? super String> configurationConsumer ) {
 
@@ -243,6 +318,44 @@ public class ShimConfigsLoader {
     return null;
   }
 
+  private static class ResolvedResource {
+    private final URL url;
+    private final long expires;
+
+    ResolvedResource( URL url, long expires ) {
+      this.url = url;
+      this.expires = expires;
+    }
+  }
+
+  private static class ResolvedDirectory {
+    private final Map<String, URL> files;
+    private final long expires;
+
+    ResolvedDirectory( Map<String, URL> files, long expires ) {
+      this.files = files;
+      this.expires = expires;
+    }
+  }
+
+  private static class ConfigDirectories {
+    private final List<String> cluster;
+    private final String legacy;
+    private final List<String> all;
+    private final long expires;
+
+    ConfigDirectories( List<String> cluster, String legacy, long expires ) {
+      this.cluster = cluster;
+      this.legacy = legacy;
+      List<String> directories = new ArrayList<>( cluster );
+      if ( legacy != null ) {
+        directories.add( legacy );
+      }
+      this.all = Collections.unmodifiableList( directories );
+      this.expires = expires;
+    }
+  }
+
   public enum ClusterConfigNames {
     CONFIGS_PROP( "config.properties" ),
     HDFS_SITE( "hdfs-site.xml" ),
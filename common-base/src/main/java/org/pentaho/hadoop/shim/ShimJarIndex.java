@@ -0,0 +1,320 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.pentaho.di.core.Const;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * Class path of a Hadoop configuration, kept in a local file so that later starts don't scan and filter the
+ * configuration folder again. Besides the class path it records the size and modification time of every jar, the
+ * number of entries and modification time of the scanned folder, and the packages the jars hold. Jars and
+ * directories the manifest {@code Class-Path} of a jar refers to are part of the class path too, and are indexed
+ * along with it. An index is only used while none of these files changed.
+ */
+public class ShimJarIndex {
+
+  /**
+   * System property with the directory to keep index files in, the shim-jar-index folder of the kettle directory by
+   * default.
+   */
+  public static final String INDEX_DIR_PROPERTY = "pentaho.shim.jar.index.dir";
+
+  private static final String VERSION = "2";
+  private static final String CLASS_EXTENSION = ".class";
+  private static final String VERSIONED_ENTRY_PREFIX = "META-INF/versions/";
+
+  private static final Logger logger = LogManager.getLogger( ShimJarIndex.class );
+
+  private final String key;
+  private final List<URL> urls;
+  private final Map<String, long[]> files;
+  private final Set<String> packages;
+  private final List<File> directories;
+
+  private ShimJarIndex( String key, List<URL> urls, Map<String, long[]> files, Set<String> packages,
+                        List<File> directories ) {
+    this.key = key;
+    this.urls = urls;
+    this.files = files;
+    this.packages = packages;
+    this.directories = directories;
+  }
+
+  /**
+   * @param configurationId identifier of the Hadoop configuration
+   * @return file to keep the index of the configuration in
+   */
+  public static File getIndexFile( String configurationId ) {
+    String directory = System.getProperty( INDEX_DIR_PROPERTY,
+      Const.getKettleDirectory() + File.separator + "shim-jar-index" );
+    return new File( directory, configurationId + ".idx" );
+  }
+
+  /**
+   * @param inputs everything the class path was built from besides the contents of the scanned folder
+   * @return key an index is only used for if it was built with the same one
+   */
+  public static String createKey( Object... inputs ) {
+    StringBuilder key = new StringBuilder();
+    for ( Object input : inputs ) {
+      key.append( input ).append( ';' );
+    }
+    return key.toString().replace( '\n', ' ' ).replace( '\r', ' ' );
+  }
+
+  /**
+   * Index a class path, reading the packages of every jar and of the jars their manifest class path refers to.
+   *
+   * @param key             see {@link #createKey(Object...)}
+   * @param urls            class path
+   * @param scannedFolder   folder the jars of the class path were found in
+   * @return index, null if part of the class path is not on the local file system
+   */
+  public static ShimJarIndex build( String key, List<URL> urls, File scannedFolder ) throws IOException {
+    Map<String, long[]> files = new LinkedHashMap<>();
+    Set<String> packages = new HashSet<>();
+    List<File> directories = new ArrayList<>();
+    if ( scannedFolder == null ) {
+      return null;
+    }
+    addFile( files, scannedFolder );
+    for ( URL url : urls ) {
+      File file = toFile( url );
+      if ( file == null ) {
+        return null;
+      }
+      if ( file.isFile() && !addJar( file, files, packages, directories ) ) {
+        return null;
+      }
+    }
+    return new ShimJarIndex( key, new ArrayList<>( urls ), files, packages, directories );
+  }
+
+  /**
+   * Index a jar and, once, everything its manifest class path refers to. Missing entries are recorded as well, so
+   * that the index is out of date once they show up.
+   *
+   * @return false if the manifest class path refers to something not on the local file system
+   */
+  private static boolean addJar( File jar, Map<String, long[]> files, Set<String> packages, List<File> directories )
+    throws IOException {
+    if ( files.containsKey( jar.getAbsolutePath() ) ) {
+      return true;
+    }
+    addFile( files, jar );
+    for ( String entry : addPackages( jar, packages ) ) {
+      File file;
+      try {
+        file = toFile( new URL( jar.toURI().toURL(), entry ) );
+      } catch ( MalformedURLException e ) {
+        // The class loader skips what it can't resolve as well
+        continue;
+      }
+      if ( file == null ) {
+        return false;
+      }
+      if ( file.isDirectory() ) {
+        if ( !files.containsKey( file.getAbsolutePath() ) ) {
+          addFile( files, file );
+          directories.add( file );
+        }
+      } else if ( file.isFile() ) {
+        if ( !addJar( file, files, packages, directories ) ) {
+          return false;
+        }
+      } else {
+        addFile( files, file );
+      }
+    }
+    return true;
+  }
+
+  private static void addFile( Map<String, long[]> files, File file ) {
+    files.put( file.getAbsolutePath(), new long[] { sizeOf( file ), file.lastModified() } );
+  }
+
+  /**
+   * @return length of a file, number of entries of a directory
+   */
+  private static long sizeOf( File file ) {
+    if ( file.isDirectory() ) {
+      String[] entries = file.list();
+      return entries == null ? -1 : entries.length;
+    }
+    return file.length();
+  }
+
+  /**
+   * @return entries of the manifest class path of the jar
+   */
+  private static String[] addPackages( File jar, Set<String> packages ) throws IOException {
+    try ( JarFile jarFile = new JarFile( jar, false ) ) {
+      Enumeration<? extends ZipEntry> entries = jarFile.entries();
+      while ( entries.hasMoreElements() ) {
+        String name = entries.nextElement().getName();
+        if ( !name.endsWith( CLASS_EXTENSION ) ) {
+          continue;
+        }
+        if ( name.startsWith( VERSIONED_ENTRY_PREFIX ) ) {
+          // Multi-release jars keep the classes for a java version under META-INF/versions/<version>/
+          int versionEnd = name.indexOf( '/', VERSIONED_ENTRY_PREFIX.length() );
+          name = versionEnd < 0 ? name : name.substring( versionEnd + 1 );
+        }
+        int slash = name.lastIndexOf( '/' );
+        packages.add( slash < 0 ? "" : name.substring( 0, slash ).replace( '/', '.' ) );
+      }
+      Manifest manifest = jarFile.getManifest();
+      String classPath = manifest == null ? null : manifest.getMainAttributes().getValue( Attributes.Name.CLASS_PATH );
+      return classPath == null || classPath.trim().isEmpty() ? new String[ 0 ] : classPath.trim().split( "\\s+" );
+    }
+  }
+
+  /**
+   * @return the stored index, null if there is none, it was built from other inputs or one of its files changed
+   */
+  public static ShimJarIndex load( File indexFile, String key ) {
+    if ( !indexFile.isFile() ) {
+      return null;
+    }
+    List<URL> urls = new ArrayList<>();
+    Map<String, long[]> files = new LinkedHashMap<>();
+    Set<String> packages = new HashSet<>();
+    List<File> directories = new ArrayList<>();
+    try ( BufferedReader reader = Files.newBufferedReader( indexFile.toPath(), StandardCharsets.UTF_8 ) ) {
+      if ( !( "version\t" + VERSION ).equals( reader.readLine() ) || !( "key\t" + key ).equals( reader.readLine() ) ) {
+        return null;
+      }
+      String line;
+      while ( ( line = reader.readLine() ) != null ) {
+        String[] fields = line.split( "\t", 4 );
+        switch ( fields[ 0 ] ) {
+          case "file":
+            File file = new File( fields[ 3 ] );
+            long size = Long.parseLong( fields[ 1 ] );
+            long modified = Long.parseLong( fields[ 2 ] );
+            if ( sizeOf( file ) != size || file.lastModified() != modified ) {
+              logger.debug( "Jar index " + indexFile + " is out of date, " + file + " changed" );
+              return null;
+            }
+            files.put( fields[ 3 ], new long[] { size, modified } );
+            break;
+          case "url":
+            urls.add( new URL( fields[ 1 ] ) );
+            break;
+          case "package":
+            packages.add( fields.length > 1 ? fields[ 1 ] : "" );
+            break;
+          case "directory":
+            directories.add( new File( fields[ 1 ] ) );
+            break;
+          default:
+            return null;
+        }
+      }
+    } catch ( IOException | RuntimeException e ) {
+      logger.debug( "Unable to read jar index " + indexFile, e );
+      return null;
+    }
+    return new ShimJarIndex( key, urls, files, packages, directories );
+  }
+
+  /**
+   * Write the index, replacing the previous one at once so that concurrent starts never read half of it.
+   */
+  public void store( File indexFile ) throws IOException {
+    File directory = indexFile.getAbsoluteFile().getParentFile();
+    if ( !directory.isDirectory() && !directory.mkdirs() ) {
+      throw new IOException( "Unable to create " + directory );
+    }
+    File tempFile = File.createTempFile( indexFile.getName(), ".tmp", directory );
+    try {
+      try ( BufferedWriter writer = Files.newBufferedWriter( tempFile.toPath(), StandardCharsets.UTF_8 ) ) {
+        writer.write( "version\t" + VERSION + "\n" );
+        writer.write( "key\t" + key + "\n" );
+        for ( Map.Entry<String, long[]> file : files.entrySet() ) {
+          writer.write( "file\t" + file.getValue()[ 0 ] + "\t" + file.getValue()[ 1 ] + "\t" + file.getKey() + "\n" );
+        }
+        for ( URL url : urls ) {
+          writer.write( "url\t" + url.toExternalForm() + "\n" );
+        }
+        for ( String pkg : packages ) {
+          writer.write( "package\t" + pkg + "\n" );
+        }
+        for ( File directory : directories ) {
+          writer.write( "directory\t" + directory.getAbsolutePath() + "\n" );
+        }
+      }
+      Files.move( tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE );
+    } finally {
+      Files.deleteIfExists( tempFile.toPath() );
+    }
+  }
+
+  public List<URL> getUrls() {
+    return Collections.unmodifiableList( urls );
+  }
+
+  /**
+   * @return names of the packages the jars of the class path hold classes of, "" for the default package
+   */
+  public Set<String> getPackages() {
+    return Collections.unmodifiableSet( packages );
+  }
+
+  /**
+   * @return directories the manifest class path of the jars refers to, which hold classes of any package
+   */
+  public List<File> getDirectories() {
+    return Collections.unmodifiableList( directories );
+  }
+
+  /**
+   * @return the local file of the url, null if it is not a file url
+   */
+  static File toFile( URL url ) {
+    if ( !"file".equals( url.getProtocol() ) ) {
+      return null;
+    }
+    try {
+      return new File( url.toURI() );
+    } catch ( URISyntaxException | IllegalArgumentException e ) {
+      return null;
+    }
+  }
+}
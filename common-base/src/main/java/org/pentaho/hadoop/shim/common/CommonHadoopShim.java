@@ -239,7 +239,7 @@ public class CommonHadoopShim implements HadoopShim {
     try {
       //For the time being I'm using ConfigurationProxyV2 here until I see a reason to limit the site files as in
       // ConfigurationProxy
-      return new ConfigurationProxyV2( namedCluster );
+      return ConfigurationProxyV2.fromTemplate( namedCluster );
     } catch ( IOException e ) {
       throw new ShimRuntimeException( "Unable to create configuration for new mapreduce api: ", e );
     } finally {
@@ -43,6 +43,13 @@ public class ConfigurationProxy extends org.apache.hadoop.mapred.JobConf impleme
     addResource( "hdfs-site.xml" );
   }
 
+  /**
+   * Copy of a parsed configuration, which doesn't parse its resources again.
+   */
+  public ConfigurationProxy( org.apache.hadoop.conf.Configuration template ) {
+    super( template );
+  }
+
   public ConfigurationProxy( String namedCluster ) {
     super();
     addConfigsAsResources( namedCluster );
@@ -37,6 +37,8 @@ import java.util.List;
  */
 public class ConfigurationProxyV2 implements Configuration {
 
+  private static final String TEMPLATE_KIND = "mapreduce";
+
   protected Job job;
 
   public ConfigurationProxyV2() throws IOException {
@@ -59,32 +61,68 @@ public class ConfigurationProxyV2 implements Configuration {
     addConfigsFromNamedCluster( namedCluster );
   }
 
+  /**
+   * Copy of a parsed configuration of the cluster, which doesn't parse the site files again.
+   */
+  ConfigurationProxyV2( NamedCluster namedCluster, org.apache.hadoop.conf.Configuration template )
+    throws IOException {
+    job = Job.getInstance( template );
+    if ( !namedCluster.getSiteFiles().isEmpty() ) {
+      ShimConfigsLoader.setSystemProperties( namedCluster.getName() );
+    }
+  }
+
+  /**
+   * Create the configuration of the cluster from its {@link ConfigurationTemplateCache} template, which is only built
+   * when the site files changed.
+   */
+  public static ConfigurationProxyV2 fromTemplate( NamedCluster namedCluster ) throws IOException {
+    // The template's JobConf finds the site files on the classpath with the context class loader
+    return new ConfigurationProxyV2( namedCluster, ConfigurationTemplateCache.getInstance().getTemplate( TEMPLATE_KIND,
+      namedCluster, Thread.currentThread().getContextClassLoader(), ConfigurationProxyV2::createTemplate ) );
+  }
+
+  private static org.apache.hadoop.conf.Configuration createTemplate( NamedCluster namedCluster ) {
+    JobConf template = new JobConf();
+    addSiteFiles( template, namedCluster );
+    return template;
+  }
+
   private void addConfigsFromNamedCluster( NamedCluster nc ) {
+    addSiteFiles( job.getConfiguration(), nc );
+    if ( !nc.getSiteFiles().isEmpty() ) {
+      ShimConfigsLoader.setSystemProperties( nc.getName() );
+    }
+  }
+
+  private static void addSiteFiles( org.apache.hadoop.conf.Configuration conf, NamedCluster nc ) {
     if ( nc.getSiteFiles().isEmpty() ) {
-      addConfigsForJobConf();  //Backwards compatibility if there are no site files present
+      addDefaultSiteFiles( conf );  //Backwards compatibility if there are no site files present
     } else {
       List<String> siteFileNames = Arrays.asList(
         new String[] { "hdfs-site.xml", "core-site.xml", "mapred-site.xml", "yarn-site.xml", "hbase-site.xml",
           "hive-site.xml" } );
       for ( NamedClusterSiteFile namedClusterSiteFile : nc.getSiteFiles() ) {
         if ( siteFileNames.contains( namedClusterSiteFile.getSiteFileName() ) ) {
-          job.getConfiguration()
-            .addResource( new ByteArrayInputStream( namedClusterSiteFile.getSiteFileContents().getBytes() ),
-              namedClusterSiteFile.getSiteFileName() );
+          conf.addResource( new ByteArrayInputStream( namedClusterSiteFile.getSiteFileContents().getBytes() ),
+            namedClusterSiteFile.getSiteFileName() );
         }
       }
-      ShimConfigsLoader.setSystemProperties( nc.getName() );
     }
   }
 
   @VisibleForTesting
   void addConfigsForJobConf() {
-    job.getConfiguration().addResource( "hdfs-site.xml" );
-    job.getConfiguration().addResource( "core-site.xml" );
-    job.getConfiguration().addResource( "mapred-site.xml" );
-    job.getConfiguration().addResource( "yarn-site.xml" );
-    job.getConfiguration().addResource( "hbase-site.xml" );
-    job.getConfiguration().addResource( "hive-site.xml" );
+    addDefaultSiteFiles( job.getConfiguration() );
+  }
+
+  private static void addDefaultSiteFiles( org.apache.hadoop.conf.Configuration conf ) {
+    conf.addResource( "hdfs-site.xml" );
+    conf.addResource( "core-site.xml" );
+    conf.addResource( "mapred-site.xml" );
+    conf.addResource( "yarn-site.xml" );
+    conf.addResource( "hbase-site.xml" );
+    conf.addResource( "hive-site.xml" );
   }
 
   @VisibleForTesting
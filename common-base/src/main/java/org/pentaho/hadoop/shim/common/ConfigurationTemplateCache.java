@@ -0,0 +1,207 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common;
+
+import org.apache.hadoop.conf.Configuration;
+import org.pentaho.di.core.osgi.api.NamedClusterSiteFile;
+import org.pentaho.hadoop.shim.ShimConfigsLoader;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hadoop configurations of named clusters, with their site files already parsed.
+ * <p>
+ * Parsing the site files of a cluster takes far longer than copying the resulting properties, and configurations are
+ * created for every step, file and job. So the site files of a cluster are parsed once into a template, and callers
+ * build their configuration as a copy of it. A template is parsed again once the cluster is saved or a site file in
+ * one of the directories {@link ShimConfigsLoader} looks for its configs in changes.
+ * </p>
+ * Templates are shared and must not be modified.
+ */
+public class ConfigurationTemplateCache {
+
+  private static final ConfigurationTemplateCache INSTANCE = new ConfigurationTemplateCache();
+
+  private final Map<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public static ConfigurationTemplateCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param kind         what the template is for, templates of different kinds are built from different site files
+   * @param namedCluster cluster the site files belong to, null for the site files on the classpath only
+   * @param classLoader  class loader the builder finds site files on the classpath with
+   * @param builder      creates a template for the cluster, it is only called when there is no up to date one
+   * @return template to copy the configuration from
+   */
+  public Configuration getTemplate( String kind, NamedCluster namedCluster, ClassLoader classLoader,
+                                    Function<NamedCluster, ? extends Configuration> builder ) {
+    TemplateKey key = new TemplateKey( kind, namedCluster, classLoader );
+    List<Object> stamp = stamp( namedCluster );
+    return templates.compute( key, ( k, template ) -> {
+      if ( template != null && template.stamp.equals( stamp ) ) {
+        hits.incrementAndGet();
+        return template;
+      }
+      if ( template != null ) {
+        invalidations.incrementAndGet();
+      }
+      misses.incrementAndGet();
+      // The template is built because the cluster's files changed, don't resolve them from before the change
+      ShimConfigsLoader.clearResourceCache();
+      return new Template( snapshot( builder.apply( namedCluster ) ), stamp );
+    } ).configuration;
+  }
+
+  /**
+   * Parse the built configuration and copy it into a plain configuration, so that copies don't share the job
+   * credentials or anything else a subclass keeps besides the properties.
+   */
+  private static Configuration snapshot( Configuration built ) {
+    built.size();
+    Configuration snapshot = new Configuration( built );
+    snapshot.size();
+    return snapshot;
+  }
+
+  /**
+   * What the site files of the cluster were parsed from: the cluster's save time, its embedded site files and the
+   * modification times of the files in every directory its configs are looked for in.
+   */
+  private static List<Object> stamp( NamedCluster namedCluster ) {
+    if ( namedCluster == null ) {
+      return Collections.emptyList();
+    }
+    List<Object> stamp = new ArrayList<>();
+    stamp.add( namedCluster.getLastModifiedDate() );
+    List<NamedClusterSiteFile> siteFiles = namedCluster.getSiteFiles();
+    if ( siteFiles != null ) {
+      for ( NamedClusterSiteFile siteFile : siteFiles ) {
+        stamp.add( siteFile.getSiteFileName() );
+        stamp.add( siteFile.getSiteFileContents() );
+      }
+    }
+    for ( String directory : ShimConfigsLoader.getConfigDirectories( namedCluster.getName() ) ) {
+      stamp.add( directory );
+      File[] configFiles = new File( directory ).listFiles();
+      if ( configFiles != null ) {
+        Arrays.sort( configFiles, Comparator.comparing( File::getName ) );
+        for ( File configFile : configFiles ) {
+          stamp.add( configFile.getName() );
+          stamp.add( configFile.lastModified() );
+        }
+      }
+    }
+    return stamp;
+  }
+
+  /**
+   * Drop the template of every kind for the cluster, so that the next configuration parses its site files again.
+   */
+  public void invalidate( NamedCluster namedCluster ) {
+    templates.keySet().removeIf( key -> {
+      boolean matches = key.clusterName != null && key.clusterName.equals( namedCluster.getName() )
+        && Objects.equals( key.shimIdentifier, namedCluster.getShimIdentifier() );
+      if ( matches ) {
+        invalidations.incrementAndGet();
+      }
+      return matches;
+    } );
+  }
+
+  public void clear() {
+    templates.clear();
+  }
+
+  public int size() {
+    return templates.size();
+  }
+
+  /**
+   * @return number of configurations copied from an up to date template
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return number of templates built, each of them parsed the site files once
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return number of templates dropped or rebuilt because their cluster changed
+   */
+  public long getInvalidations() {
+    return invalidations.get();
+  }
+
+  private static class TemplateKey {
+    private final String kind;
+    private final String clusterName;
+    private final String shimIdentifier;
+    private final ClassLoader classLoader;
+
+    TemplateKey( String kind, NamedCluster namedCluster, ClassLoader classLoader ) {
+      this.kind = kind;
+      this.clusterName = namedCluster == null ? null : namedCluster.getName();
+      this.shimIdentifier = namedCluster == null ? null : namedCluster.getShimIdentifier();
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof TemplateKey ) ) {
+        return false;
+      }
+      TemplateKey other = (TemplateKey) o;
+      return kind.equals( other.kind ) && Objects.equals( clusterName, other.clusterName )
+        && Objects.equals( shimIdentifier, other.shimIdentifier ) && classLoader == other.classLoader;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( kind, clusterName, shimIdentifier, System.identityHashCode( classLoader ) );
+    }
+  }
+
+  private static class Template {
+    private final Configuration configuration;
+    private final List<Object> stamp;
+
+    Template( Configuration configuration, List<Object> stamp ) {
+      this.configuration = Objects.requireNonNull( configuration );
+      this.stamp = stamp;
+    }
+  }
+}
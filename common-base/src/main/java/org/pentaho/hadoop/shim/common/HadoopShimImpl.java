@@ -85,7 +85,7 @@ public class HadoopShimImpl extends CommonHadoopShim {
     ClassLoader cl = Thread.currentThread().getContextClassLoader();
     Thread.currentThread().setContextClassLoader( getClass().getClassLoader() );
     try {
-      return new ConfigurationProxyV2( namedCluster );
+      return ConfigurationProxyV2.fromTemplate( namedCluster );
     } catch ( IOException e ) {
       throw new ShimRuntimeException( UNABLE_TO_CREATE_MESSAGE, e );
     } finally {
@@ -16,6 +16,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.pentaho.hadoop.shim.ShimConfigsLoader;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.common.ConfigurationProxy;
+import org.pentaho.hadoop.shim.common.ConfigurationTemplateCache;
 import org.pentaho.hadoop.shim.common.fs.FileSystemRegistry;
 
 import java.io.InputStream;
@@ -28,6 +29,8 @@ import java.util.function.BiConsumer;
  */
 public class HadoopFormatBase {
 
+  private static final String TEMPLATE_KIND = "format";
+
   /**
    * Creates a Hadoop Configuration with proper classloader and FileSystem registry setup.
    * This method ensures that custom FileSystem implementations (like PvfsHadoopBridge) can be
@@ -35,22 +38,31 @@ public class HadoopFormatBase {
    *
    * @param namedCluster The named cluster configuration (can be null)
    * @param classLoader  The classloader to set on the Configuration
-   * @return A configured Configuration object
+   * @return A configured Configuration object, a copy of the cluster's cached {@link ConfigurationTemplateCache}
+   * template
    */
   protected static Configuration createConfigurationWithClassLoader( NamedCluster namedCluster, ClassLoader classLoader ) {
+    Configuration template = ConfigurationTemplateCache.getInstance().getTemplate( TEMPLATE_KIND, namedCluster,
+      classLoader, cluster -> createTemplate( cluster, classLoader ) );
+    Configuration confProxy = new ConfigurationProxy( template );
+
+    FileSystemRegistry.registerDefaults();
+    FileSystemRegistry.applyToConfiguration( confProxy );
+    // Set the classloader on the Configuration so Hadoop can load PvfsHadoopBridge and other shim classes
+    confProxy.setClassLoader( classLoader );
+
+    return confProxy;
+  }
+
+  private static Configuration createTemplate( NamedCluster namedCluster, ClassLoader classLoader ) {
     Configuration confProxy = new ConfigurationProxy();
+    confProxy.setClassLoader( classLoader );
     confProxy.addResource( "hive-site.xml" );
 
     if ( namedCluster != null ) {
       BiConsumer<InputStream, String> consumer = ( is, filename ) -> confProxy.addResource( is, filename );
       ShimConfigsLoader.addConfigsAsResources( namedCluster, consumer );
     }
-
-    FileSystemRegistry.registerDefaults();
-    FileSystemRegistry.applyToConfiguration( confProxy );
-    // Set the classloader on the Configuration so Hadoop can load PvfsHadoopBridge and other shim classes
-    confProxy.setClassLoader( classLoader );
-
     return confProxy;
   }
 
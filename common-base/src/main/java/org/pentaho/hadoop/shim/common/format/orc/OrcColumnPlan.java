@@ -0,0 +1,144 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.orc;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.pentaho.di.core.exception.KettlePluginException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+import org.pentaho.di.core.row.value.ValueMetaConversionException;
+import org.pentaho.di.core.row.value.ValueMetaConverter;
+import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.row.value.ValueMetaNone;
+import org.pentaho.hadoop.shim.api.format.IOrcInputField;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion of ORC row batches into Pentaho rows, compiled once per record reader.
+ * <p>
+ * Column indexes, source and target types, date formats and the output row meta are resolved when the plan is built, so
+ * converting a batch only walks its column vectors. All rows produced by a plan share {@link #getRowMeta()}. A plan
+ * keeps a date format per column and must not be shared between threads.
+ */
+public class OrcColumnPlan {
+  private static final Logger logger = LogManager.getLogger( OrcColumnPlan.class );
+
+  private final RowMetaInterface rowMeta;
+  private final Column[] columns;
+
+  /**
+   * @param dialogInputFields    Fields selected in the dialog, in output order
+   * @param orcInputFields       Fields of the ORC file
+   * @param schemaToOrcSubcripts Top level ORC column of every dialog field, by Pentaho field name
+   */
+  public OrcColumnPlan( List<? extends IOrcInputField> dialogInputFields,
+                        List<? extends IOrcInputField> orcInputFields, Map<String, Integer> schemaToOrcSubcripts ) {
+    Map<String, IOrcInputField> orcFieldsByName = new HashMap<>();
+    for ( IOrcInputField orcField : orcInputFields ) {
+      orcFieldsByName.putIfAbsent( orcField.getFormatFieldName(), orcField );
+    }
+
+    rowMeta = new RowMeta();
+    List<Column> columnList = new ArrayList<>();
+    for ( IOrcInputField inputField : dialogInputFields ) {
+      if ( inputField == null ) {
+        continue;
+      }
+      IOrcInputField orcField = orcFieldsByName.get( inputField.getFormatFieldName() );
+      Integer orcColumn = schemaToOrcSubcripts.get( inputField.getPentahoFieldName() );
+      if ( orcField == null || orcColumn == null ) {
+        throw new IllegalArgumentException( "Column " + inputField.getFormatFieldName()
+          + " does not exist in the ORC file.  Please use the getFields button" );
+      }
+      columnList.add( new Column( orcColumn, orcField.getPentahoType(), inputField ) );
+      rowMeta.addValueMeta( createValueMeta( inputField ) );
+    }
+    columns = columnList.toArray( new Column[ 0 ] );
+  }
+
+  private static ValueMetaInterface createValueMeta( IOrcInputField inputField ) {
+    ValueMetaInterface valueMeta;
+    try {
+      valueMeta = ValueMetaFactory.createValueMeta( inputField.getPentahoFieldName(), inputField.getPentahoType() );
+    } catch ( KettlePluginException e ) {
+      valueMeta = new ValueMetaNone( inputField.getPentahoFieldName() );
+    }
+    String stringFormat = inputField.getStringFormat();
+    if ( ( stringFormat != null ) && ( stringFormat.trim().length() > 0 ) ) {
+      valueMeta.setConversionMask( stringFormat );
+    }
+    return valueMeta;
+  }
+
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * Convert all rows of {@code batch}, column by column.
+   *
+   * @return one row per row of the batch, laid out as {@link #getRowMeta()}
+   */
+  public Object[][] convert( VectorizedRowBatch batch ) {
+    Object[][] rows = new Object[ batch.size ][];
+    for ( int row = 0; row < rows.length; row++ ) {
+      rows[ row ] = new Object[ columns.length ];
+    }
+    for ( int i = 0; i < columns.length; i++ ) {
+      Column column = columns[ i ];
+      ColumnVector columnVector = batch.cols[ column.orcColumn ];
+      for ( int row = 0; row < rows.length; row++ ) {
+        rows[ row ][ i ] = column.convert( columnVector, row );
+      }
+    }
+    return rows;
+  }
+
+  private static class Column {
+    private final int orcColumn;
+    private final int sourceType;
+    private final int targetType;
+    private final ValueMetaConverter valueMetaConverter = new ValueMetaConverter();
+
+    Column( int orcColumn, int sourceType, IOrcInputField inputField ) {
+      this.orcColumn = orcColumn;
+      this.sourceType = sourceType;
+      this.targetType = inputField.getPentahoType();
+      String dateFormatStr = inputField.getStringFormat();
+      if ( ( dateFormatStr == null ) || ( dateFormatStr.trim().length() == 0 ) ) {
+        dateFormatStr = ValueMetaBase.DEFAULT_DATE_FORMAT_MASK;
+      }
+      valueMetaConverter.setDatePattern( new SimpleDateFormat( dateFormatStr ) );
+    }
+
+    Object convert( ColumnVector columnVector, int row ) {
+      Object orcToPentahoValue = OrcConverter.convertFromSourceToTargetDataType( columnVector, row, sourceType );
+      try {
+        return valueMetaConverter.convertFromSourceToTargetDataType( sourceType, targetType, orcToPentahoValue );
+      } catch ( ValueMetaConversionException e ) {
+        logger.error( e );
+        return null;
+      }
+    }
+  }
+}
@@ -15,6 +15,7 @@ package org.pentaho.hadoop.shim.common.format.orc;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.orc.Writer;
+import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.hadoop.shim.api.format.IOrcMetaData;
 import org.pentaho.hadoop.shim.api.format.IOrcOutputField;
 
@@ -46,15 +47,27 @@ public class OrcMetaDataWriter implements IOrcMetaData.Writer {
   }
 
   private void setMetaData( IOrcOutputField field ) throws UnsupportedEncodingException {
-    addMetaData( field, IOrcMetaData.propertyType.TYPE, toByteBuffer( field.getPentahoFieldName() ) );
+    if ( isReadableType( field ) ) {
+      addMetaData( field, IOrcMetaData.propertyType.TYPE, toByteBuffer( field.getPentahoType() ) );
+    }
     addMetaData( field, IOrcMetaData.propertyType.NULLABLE, toByteBuffer( field.getAllowNull() ) );
     if ( field.getDefaultValue() != null ) {
       addMetaData( field, IOrcMetaData.propertyType.DEFAULT, toByteBuffer( field.getDefaultValue() ) );
     }
   }
 
+  /**
+   * Readers decode the column as the recorded type, so it is only recorded when the column holds it: the type the orc
+   * type maps to or an internet address kept as a string.
+   */
+  private boolean isReadableType( IOrcOutputField field ) {
+    int orcPdiType = field.getOrcType().getPdiType();
+    return field.getPentahoType() == orcPdiType
+      || ( field.getPentahoType() == ValueMetaInterface.TYPE_INET && orcPdiType == ValueMetaInterface.TYPE_STRING );
+  }
+
   private void addMetaData( IOrcOutputField field, IOrcMetaData.propertyType propertyType, ByteBuffer valueBuffer ) {
-    writer.addUserMetadata( IOrcMetaData.determinePropertyName( field.getPentahoFieldName(), propertyType.toString() ),
+    writer.addUserMetadata( IOrcMetaData.determinePropertyName( field.getFormatFieldName(), propertyType.toString() ),
       valueBuffer );
   }
 
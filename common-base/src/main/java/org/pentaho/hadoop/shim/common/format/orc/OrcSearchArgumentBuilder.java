@@ -0,0 +1,304 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.orc;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.orc.TypeDescription;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Translates an {@link IPentahoPredicate} into an ORC {@link SearchArgument} for the top level columns of a file
+ * schema.
+ * <p>
+ * Leaves on columns whose type has no statistics ORC can evaluate (binary and compound types), and leaves with a
+ * literal that has no closest column value, become a constant which never skips data. An equality with a literal the
+ * column can't hold becomes a constant which never matches.
+ */
+public class OrcSearchArgumentBuilder {
+
+  private final TypeDescription schema;
+
+  public OrcSearchArgumentBuilder( TypeDescription schema ) {
+    this.schema = schema;
+  }
+
+  public SearchArgument build( IPentahoPredicate predicate ) {
+    SearchArgument.Builder builder = SearchArgumentFactory.newBuilder();
+    add( builder, predicate );
+    return builder.build();
+  }
+
+  private void add( SearchArgument.Builder builder, IPentahoPredicate predicate ) {
+    switch ( predicate.getOperator() ) {
+      case NOT:
+        addChildren( builder.startNot(), predicate.getChildren() );
+        return;
+      case AND:
+        addChildren( builder.startAnd(), predicate.getChildren() );
+        return;
+      case OR:
+        addChildren( builder.startOr(), predicate.getChildren() );
+        return;
+      default:
+        addLeaf( builder, predicate );
+    }
+  }
+
+  private void addChildren( SearchArgument.Builder builder, List<IPentahoPredicate> children ) {
+    for ( IPentahoPredicate child : children ) {
+      add( builder, child );
+    }
+    builder.end();
+  }
+
+  private void addLeaf( SearchArgument.Builder builder, IPentahoPredicate predicate ) {
+    String column = predicate.getFieldName();
+    int columnIndex = schema.getFieldNames().indexOf( column );
+    if ( columnIndex < 0 ) {
+      throw new IllegalArgumentException( "Column " + column + " does not exist in the ORC file." );
+    }
+    PredicateLeaf.Type type = getLeafType( schema.getChildren().get( columnIndex ) );
+    if ( type == null ) {
+      builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+      return;
+    }
+    List<Object> values = predicate.getValues();
+    Literal literal = values == null || values.isEmpty() ? null : toLiteral( type, values.get( 0 ) );
+    switch ( predicate.getOperator() ) {
+      case EQUALS:
+        if ( literal == null ) {
+          builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        } else if ( !literal.isExact() ) {
+          // No column value equals a literal the column can't hold
+          builder.literal( SearchArgument.TruthValue.NO_NULL );
+        } else {
+          builder.equals( column, type, literal.floor );
+        }
+        break;
+      case LESS_THAN:
+        if ( literal == null ) {
+          builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        } else {
+          builder.lessThan( column, type, literal.ceiling );
+        }
+        break;
+      case LESS_THAN_EQUALS:
+        if ( literal == null ) {
+          builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        } else {
+          builder.lessThanEquals( column, type, literal.floor );
+        }
+        break;
+      case GREATER_THAN:
+        if ( literal == null ) {
+          builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        } else {
+          builder.startNot().lessThanEquals( column, type, literal.floor ).end();
+        }
+        break;
+      case GREATER_THAN_EQUALS:
+        if ( literal == null ) {
+          builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        } else {
+          builder.startNot().lessThan( column, type, literal.ceiling ).end();
+        }
+        break;
+      case IN:
+        addIn( builder, column, type, values );
+        break;
+      case IS_NULL:
+        builder.isNull( column, type );
+        break;
+      default:
+        throw new IllegalArgumentException( "Unsupported operator " + predicate.getOperator() );
+    }
+  }
+
+  private static void addIn( SearchArgument.Builder builder, String column, PredicateLeaf.Type type,
+                             List<Object> values ) {
+    List<Object> literals = new ArrayList<>();
+    for ( Object value : values ) {
+      Literal literal = toLiteral( type, value );
+      if ( literal == null ) {
+        builder.literal( SearchArgument.TruthValue.YES_NO_NULL );
+        return;
+      }
+      // No column value equals a literal the column can't hold
+      if ( literal.isExact() ) {
+        literals.add( literal.floor );
+      }
+    }
+    if ( literals.isEmpty() ) {
+      builder.literal( SearchArgument.TruthValue.NO_NULL );
+    } else {
+      builder.in( column, type, literals.toArray() );
+    }
+  }
+
+  static PredicateLeaf.Type getLeafType( TypeDescription columnType ) {
+    switch ( columnType.getCategory() ) {
+      case BOOLEAN:
+        return PredicateLeaf.Type.BOOLEAN;
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        return PredicateLeaf.Type.LONG;
+      case FLOAT:
+      case DOUBLE:
+        return PredicateLeaf.Type.FLOAT;
+      case STRING:
+      case CHAR:
+      case VARCHAR:
+        return PredicateLeaf.Type.STRING;
+      case DATE:
+        return PredicateLeaf.Type.DATE;
+      case TIMESTAMP:
+      case TIMESTAMP_INSTANT:
+        return PredicateLeaf.Type.TIMESTAMP;
+      case DECIMAL:
+        return PredicateLeaf.Type.DECIMAL;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Compares with the closest column values instead of a literal the column can't hold, {@code x < 2.5} becomes
+   * {@code x < 3} on an integer column and a date after midnight lies between its day and the next.
+   *
+   * @return the closest column values, {@code null} if the literal has none
+   */
+  static Literal toLiteral( PredicateLeaf.Type type, Object value ) {
+    switch ( type ) {
+      case BOOLEAN:
+        if ( value instanceof Boolean ) {
+          return Literal.exact( value );
+        }
+        break;
+      case LONG:
+        if ( value instanceof Number ) {
+          return toLong( toBigDecimal( (Number) value ) );
+        }
+        break;
+      case FLOAT:
+        if ( value instanceof Number ) {
+          double number = ( (Number) value ).doubleValue();
+          return Double.isNaN( number ) ? null : Literal.exact( number );
+        }
+        break;
+      case STRING:
+        return Literal.exact( value.toString() );
+      case DATE:
+        if ( value instanceof Date ) {
+          ZonedDateTime dateTime = Instant.ofEpochMilli( ( (Date) value ).getTime() ).atZone( ZoneId.systemDefault() );
+          LocalDate day = dateTime.toLocalDate();
+          boolean midnight = dateTime.toLocalTime().equals( LocalTime.MIDNIGHT );
+          return new Literal( java.sql.Date.valueOf( day ),
+            java.sql.Date.valueOf( midnight ? day : day.plusDays( 1 ) ) );
+        }
+        break;
+      case TIMESTAMP:
+        if ( value instanceof Timestamp ) {
+          return Literal.exact( value );
+        }
+        if ( value instanceof Date ) {
+          return Literal.exact( new Timestamp( ( (Date) value ).getTime() ) );
+        }
+        break;
+      case DECIMAL:
+        if ( value instanceof Number ) {
+          // Doubles are compared by their shortest decimal representation, 0.1 as 0.1
+          HiveDecimal hiveDecimal = toBigDecimal( (Number) value ) == null ? null
+            : HiveDecimal.create( new BigDecimal( value.toString() ) );
+          return hiveDecimal == null ? null : Literal.exact( new HiveDecimalWritable( hiveDecimal ) );
+        }
+        break;
+      default:
+        break;
+    }
+    throw new IllegalArgumentException(
+      "Unable to compare " + type + " column with " + value.getClass().getSimpleName() + " value " + value );
+  }
+
+  /**
+   * @return the number as a decimal, {@code null} for NaN and infinite values
+   */
+  private static BigDecimal toBigDecimal( Number value ) {
+    if ( value instanceof BigDecimal ) {
+      return (BigDecimal) value;
+    }
+    if ( value instanceof BigInteger ) {
+      return new BigDecimal( (BigInteger) value );
+    }
+    if ( value instanceof Double || value instanceof Float ) {
+      double number = value.doubleValue();
+      return Double.isNaN( number ) || Double.isInfinite( number ) ? null : new BigDecimal( number );
+    }
+    return BigDecimal.valueOf( value.longValue() );
+  }
+
+  /**
+   * @return the closest long values of the number, {@code null} if they are out of range
+   */
+  private static Literal toLong( BigDecimal decimal ) {
+    if ( decimal == null ) {
+      return null;
+    }
+    BigDecimal floor = decimal.setScale( 0, RoundingMode.FLOOR );
+    BigDecimal ceiling = decimal.setScale( 0, RoundingMode.CEILING );
+    if ( floor.compareTo( BigDecimal.valueOf( Long.MIN_VALUE ) ) < 0
+      || ceiling.compareTo( BigDecimal.valueOf( Long.MAX_VALUE ) ) > 0 ) {
+      return null;
+    }
+    return new Literal( floor.longValueExact(), ceiling.longValueExact() );
+  }
+
+  /**
+   * Closest column values not greater and not less than a literal, the same value if the column can hold it.
+   */
+  static final class Literal {
+    final Object floor;
+    final Object ceiling;
+
+    private Literal( Object floor, Object ceiling ) {
+      this.floor = floor;
+      this.ceiling = ceiling;
+    }
+
+    private static Literal exact( Object value ) {
+      return new Literal( value, value );
+    }
+
+    boolean isExact() {
+      return floor.equals( ceiling );
+    }
+  }
+}
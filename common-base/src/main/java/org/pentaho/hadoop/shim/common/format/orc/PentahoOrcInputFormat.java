@@ -13,15 +13,30 @@
 package org.pentaho.hadoop.shim.common.format.orc;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
+import org.apache.orc.StripeInformation;
 import org.apache.orc.TypeDescription;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
 import org.pentaho.hadoop.shim.api.format.IOrcMetaData;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcInputFormat;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
 import org.pentaho.hadoop.shim.common.format.HadoopFormatBase;
 import org.pentaho.hadoop.shim.common.format.S3NCredentialUtils;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.Objects.requireNonNull;
 
@@ -31,8 +46,16 @@ import static java.util.Objects.requireNonNull;
 public class PentahoOrcInputFormat extends HadoopFormatBase implements IPentahoOrcInputFormat {
 
   protected static final String NOT_NULL_MSG = "filename and inputfields must not be null";
+  /**
+   * Maximum number of threads reading file footers while planning splits
+   */
+  public static final String FOOTER_READER_THREADS_KEY = "pentaho.orc.split.footer.threads";
+  public static final int DEFAULT_FOOTER_READER_THREADS = 8;
+  public static final long DEFAULT_SPLIT_SIZE = 128L * 1024 * 1024;
   protected String fileName;
   protected List<? extends IOrcInputField> inputFields;
+  protected IPentahoPredicate filter;
+  protected long splitSize = DEFAULT_SPLIT_SIZE;
 
   protected Configuration conf;
 
@@ -40,11 +63,130 @@ public class PentahoOrcInputFormat extends HadoopFormatBase implements IPentahoO
     conf = inClassloader( () -> createConfigurationWithClassLoader( namedCluster, getClass().getClassLoader() ) );
   }
 
+  /**
+   * Split every ORC file below {@link #fileName} into ranges of consecutive stripes of about {@link #splitSize} bytes.
+   * Each split can be read by its own record reader.
+   */
+  @Override
+  public List<IPentahoInputSplit> getSplits() {
+    requireNonNull( fileName, NOT_NULL_MSG );
+    return inClassloader( () -> {
+      Path path = new Path( fileName );
+      FileSystem fs = getFileSystem( path );
+      if ( !fs.exists( path ) ) {
+        throw new NoSuchFileException( fileName );
+      }
+      return planSplits( fs, listOrcFiles( fs, path ) );
+    } );
+  }
+
   @Override
   public IPentahoRecordReader createRecordReader( IPentahoInputSplit split ) {
     requireNonNull( fileName, NOT_NULL_MSG );
     requireNonNull( inputFields, NOT_NULL_MSG );
-    return inClassloader( () -> new PentahoOrcRecordReader( fileName, conf, inputFields ) );
+    if ( split instanceof PentahoOrcInputSplit ) {
+      return inClassloader( () -> new PentahoOrcRecordReader( (PentahoOrcInputSplit) split, conf, inputFields,
+        filter ) );
+    }
+    return inClassloader( () -> new PentahoOrcRecordReader( fileName, conf, inputFields, filter ) );
+  }
+
+  protected FileSystem getFileSystem( Path path ) throws IOException {
+    new S3NCredentialUtils().applyS3CredentialsToHadoopConfigurationIfNecessary( fileName, conf );
+    return FileSystem.get( path.toUri(), conf );
+  }
+
+  /**
+   * @return {@code path} itself if it is a file, otherwise the ORC files below it, skipping hidden files and
+   * directories
+   */
+  protected static List<FileStatus> listOrcFiles( FileSystem fs, Path path ) throws IOException {
+    List<FileStatus> files = new ArrayList<>();
+    FileStatus status = fs.getFileStatus( path );
+    if ( status.isDirectory() ) {
+      addOrcFiles( fs, path, files );
+      files.sort( Comparator.comparing( FileStatus::getPath ) );
+    } else {
+      files.add( status );
+    }
+    return files;
+  }
+
+  private static void addOrcFiles( FileSystem fs, Path directory, List<FileStatus> files ) throws IOException {
+    for ( FileStatus child : fs.listStatus( directory, file -> !isHidden( file ) ) ) {
+      if ( child.isDirectory() ) {
+        addOrcFiles( fs, child.getPath(), files );
+      } else if ( child.getPath().getName().endsWith( ".orc" ) ) {
+        files.add( child );
+      }
+    }
+  }
+
+  private static boolean isHidden( Path path ) {
+    return path.getName().startsWith( "_" ) || path.getName().startsWith( "." );
+  }
+
+  /**
+   * Read the footers of {@code files} with a bounded number of threads and split them on stripe boundaries.
+   */
+  protected List<IPentahoInputSplit> planSplits( FileSystem fs, List<FileStatus> files )
+    throws IOException, InterruptedException {
+    List<IPentahoInputSplit> splits = new ArrayList<>();
+    if ( files.isEmpty() ) {
+      return splits;
+    }
+    int threads = Math.max( 1,
+      Math.min( files.size(), conf.getInt( FOOTER_READER_THREADS_KEY, DEFAULT_FOOTER_READER_THREADS ) ) );
+    ClassLoader classLoader = getClass().getClassLoader();
+    ExecutorService executor = Executors.newFixedThreadPool( threads, runnable -> {
+      Thread thread = new Thread( runnable, "orc-footer-reader" );
+      thread.setDaemon( true );
+      thread.setContextClassLoader( classLoader );
+      return thread;
+    } );
+    try {
+      List<Future<List<StripeInformation>>> stripes = new ArrayList<>( files.size() );
+      for ( FileStatus file : files ) {
+        stripes.add( executor.submit( () -> readStripes( fs, file ) ) );
+      }
+      for ( int i = 0; i < files.size(); i++ ) {
+        String file = files.get( i ).getPath().toString();
+        try {
+          addSplits( splits, file, stripes.get( i ).get(), splitSize );
+        } catch ( ExecutionException e ) {
+          throw new IllegalArgumentException( "Unable to read data from file " + file, e.getCause() );
+        }
+      }
+      return splits;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<StripeInformation> readStripes( FileSystem fs, FileStatus file ) throws IOException {
+    try ( Reader reader = OrcFile.createReader( file.getPath(),
+      OrcFile.readerOptions( conf ).filesystem( fs ).maxLength( file.getLen() ) ) ) {
+      return reader.getStripes();
+    }
+  }
+
+  static void addSplits( List<IPentahoInputSplit> splits, String file, List<StripeInformation> stripes,
+                         long splitSize ) {
+    long start = -1;
+    long end = 0;
+    for ( StripeInformation stripe : stripes ) {
+      if ( start >= 0 && end - start >= splitSize ) {
+        splits.add( new PentahoOrcInputSplit( file, start, end - start ) );
+        start = -1;
+      }
+      if ( start < 0 ) {
+        start = stripe.getOffset();
+      }
+      end = stripe.getOffset() + stripe.getLength();
+    }
+    if ( start >= 0 ) {
+      splits.add( new PentahoOrcInputSplit( file, start, end - start ) );
+    }
   }
 
   @Override
@@ -82,5 +224,15 @@ public class PentahoOrcInputFormat extends HadoopFormatBase implements IPentahoO
     this.fileName = S3NCredentialUtils.scrubFilePathIfNecessary( fileName );
   }
 
+  @Override
+  public void setFilter( IPentahoPredicate filter ) {
+    this.filter = filter;
+  }
+
+  @Override
+  public void setSplitSize( long splitSize ) {
+    this.splitSize = splitSize;
+  }
+
 
 }
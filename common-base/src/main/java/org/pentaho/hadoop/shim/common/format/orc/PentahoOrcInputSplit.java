@@ -0,0 +1,47 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.orc;
+
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoInputSplit;
+
+/**
+ * Consecutive stripes of a single ORC file. A stripe belongs to the split its first byte falls into.
+ */
+public class PentahoOrcInputSplit implements IPentahoInputSplit {
+  private final String fileName;
+  private final long offset;
+  private final long length;
+
+  public PentahoOrcInputSplit( String fileName, long offset, long length ) {
+    this.fileName = fileName;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  @Override
+  public String toString() {
+    return fileName + ":" + offset + "+" + length;
+  }
+}
@@ -15,6 +15,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
@@ -141,6 +142,49 @@ public class PentahoOrcOutputFormat extends HadoopFormatBase implements IPentaho
     }
   }
 
+  @Override
+  public void setBloomFilterColumns( List<String> columns ) {
+    if ( columns == null || columns.isEmpty() ) {
+      conf.unset( BLOOM_FILTER_COLUMNS_KEY );
+    } else {
+      conf.set( BLOOM_FILTER_COLUMNS_KEY, String.join( ",", columns ) );
+    }
+  }
+
+  @Override
+  public void setBloomFilterFpp( double fpp ) {
+    if ( !( fpp > 0 && fpp < 1 ) ) {
+      throw new IllegalArgumentException( "Bloom filter false positive probability must be between 0 and 1: " + fpp );
+    }
+    conf.setDouble( BLOOM_FILTER_FPP_KEY, fpp );
+  }
+
+  @Override
+  public void setEncodingStrategy( OrcFile.EncodingStrategy strategy ) {
+    conf.set( ENCODING_STRATEGY_KEY, strategy.toString() );
+  }
+
+  @Override
+  public void setDictionaryKeySizeThreshold( double threshold ) {
+    if ( !( threshold >= 0 && threshold <= 1 ) ) {
+      throw new IllegalArgumentException( "Dictionary key size threshold must be between 0 and 1: " + threshold );
+    }
+    conf.setDouble( DICTIONARY_KEY_SIZE_THRESHOLD_KEY, threshold );
+  }
+
+  @Override
+  public void setBlockPadding( boolean blockPadding ) {
+    conf.setBoolean( BLOCK_PADDING_KEY, blockPadding );
+  }
+
+  @Override
+  public void setPaddingTolerance( double tolerance ) {
+    if ( !( tolerance >= 0 && tolerance <= 1 ) ) {
+      throw new IllegalArgumentException( "Block padding tolerance must be between 0 and 1: " + tolerance );
+    }
+    conf.setDouble( BLOCK_PADDING_TOLERANCE_KEY, tolerance );
+  }
+
   public String generateAlias( String pvfsPath ) {
     return inClassloader( () -> {
         FileSystem fs = FileSystem.get( StringUtil.toUri( pvfsPath ), conf );
@@ -29,10 +29,13 @@ import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
 import org.pentaho.hadoop.shim.api.format.IOrcMetaData;
 import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
 import org.pentaho.hadoop.shim.common.format.S3NCredentialUtils;
 
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -51,26 +54,47 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
   protected TypeDescription typeDescription;
   protected Map<String, Integer> schemaToOrcSubcripts;
   protected OrcConverter orcConverter = new OrcConverter();
+  protected OrcColumnPlan columnPlan;
+  protected Object[][] batchRows;
 
   protected PentahoOrcRecordReader( String fileName, Configuration conf,
                           List<? extends IOrcInputField> dialogInputFields ) {
+    this( fileName, conf, dialogInputFields, null );
+  }
+
+  protected PentahoOrcRecordReader( String fileName, Configuration conf,
+                                    List<? extends IOrcInputField> dialogInputFields, IPentahoPredicate filter ) {
     this.dialogInputFields = dialogInputFields;
 
     Reader reader = getReader( fileName, conf );
-    readRows( fileName, reader );
+    readRows( fileName, reader, filter, 0, Long.MAX_VALUE );
+  }
+
+  protected PentahoOrcRecordReader( PentahoOrcInputSplit split, Configuration conf,
+                                    List<? extends IOrcInputField> dialogInputFields, IPentahoPredicate filter ) {
+    this.dialogInputFields = dialogInputFields;
+
+    Reader reader = getReader( split.getFileName(), conf );
+    readRows( split.getFileName(), reader, filter, split.getOffset(), split.getLength() );
   }
 
   protected PentahoOrcRecordReader( String fileName, List<? extends IOrcInputField> dialogInputFields, Reader reader ) {
+    this( fileName, dialogInputFields, reader, null );
+  }
+
+  protected PentahoOrcRecordReader( String fileName, List<? extends IOrcInputField> dialogInputFields, Reader reader,
+                                    IPentahoPredicate filter ) {
     this.dialogInputFields = dialogInputFields;
-    readRows( fileName, reader );
+    readRows( fileName, reader, filter, 0, Long.MAX_VALUE );
   }
 
-  private void readRows( String fileName, Reader reader ) {
-    try {
-      recordReader = reader.rows();
-    } catch ( IOException e ) {
-      throw new IllegalArgumentException( "Unable to get record reader for file " + fileName, e );
-    }
+  protected PentahoOrcRecordReader( PentahoOrcInputSplit split, List<? extends IOrcInputField> dialogInputFields,
+                                    Reader reader, IPentahoPredicate filter ) {
+    this.dialogInputFields = dialogInputFields;
+    readRows( split.getFileName(), reader, filter, split.getOffset(), split.getLength() );
+  }
+
+  private void readRows( String fileName, Reader reader, IPentahoPredicate filter, long offset, long length ) {
     typeDescription = reader.getSchema();
     OrcSchemaConverter orcSchemaConverter = new OrcSchemaConverter();
     orcInputFields = orcSchemaConverter.buildInputFields( typeDescription );
@@ -100,6 +124,22 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
       }
     }
 
+    columnPlan = new OrcColumnPlan( dialogInputFields, orcInputFields, schemaToOrcSubcripts );
+
+    //Only decode the columns selected in the dialog and skip the stripes and row groups the filter rules out
+    Reader.Options options = reader.options()
+      .include( getIncludedColumns( typeDescription, schemaToOrcSubcripts.values() ) )
+      .range( offset, length );
+    if ( filter != null ) {
+      options.searchArgument( new OrcSearchArgumentBuilder( typeDescription ).build( filter ),
+        typeDescription.getFieldNames().toArray( new String[ 0 ] ) );
+    }
+    try {
+      recordReader = reader.rows( options );
+    } catch ( IOException e ) {
+      throw new IllegalArgumentException( "Unable to get record reader for file " + fileName, e );
+    }
+
     try {
       setNextBatch();
     } catch ( IOException e ) {
@@ -107,6 +147,25 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
     }
   }
 
+  /**
+   * Build the ORC include array for a set of top level columns. Columns which are not included are neither read nor
+   * decoded, their vectors in the row batch only hold nulls.
+   *
+   * @param schema        File schema
+   * @param columnNumbers Indexes of the top level columns to read
+   * @return include flags indexed by ORC column id
+   */
+  static boolean[] getIncludedColumns( TypeDescription schema, Collection<Integer> columnNumbers ) {
+    boolean[] include = new boolean[ schema.getMaximumId() + 1 ];
+    include[ schema.getId() ] = true;
+    List<TypeDescription> children = schema.getChildren();
+    for ( Integer columnNumber : columnNumbers ) {
+      TypeDescription column = children.get( columnNumber );
+      Arrays.fill( include, column.getId(), column.getMaximumId() + 1, true );
+    }
+    return include;
+  }
+
   static Reader getReader( String fileName, Configuration conf ) {
 
     try {
@@ -125,6 +184,7 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
           throw new NoSuchFileException( fileName );
         }
         filePath = fileStatuses[ 0 ].getPath();
+        warnIfNotAllFilesAreRead( fileName, fileStatuses, filePath );
       }
       return OrcFile.createReader( filePath,
         OrcFile.readerOptions( conf ).filesystem( fs ) );
@@ -134,9 +194,18 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
   }
 
 
+  protected static void warnIfNotAllFilesAreRead( String directory, FileStatus[] fileStatuses, Path filePath ) {
+    if ( fileStatuses.length > 1 ) {
+      logger.warn( "Directory " + directory + " contains " + fileStatuses.length + " ORC files, only " + filePath
+        + " is read. Use the input splits to read all of them." );
+    }
+  }
+
   protected boolean setNextBatch() throws IOException {
     currentBatchRow = 0;
-    return recordReader.nextBatch( batch );
+    boolean hasBatch = recordReader.nextBatch( batch );
+    batchRows = hasBatch ? columnPlan.convert( batch ) : null;
+    return hasBatch;
   }
 
   @Override public void close() throws IOException {
@@ -152,7 +221,12 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
           return true;
         }
         try {
-          return setNextBatch();
+          while ( setNextBatch() ) {
+            if ( batch.size > 0 ) {
+              return true;
+            }
+          }
+          return false;
         } catch ( IOException e ) {
           logger.error( e.getMessage(), e );
           return false;
@@ -160,9 +234,7 @@ public class PentahoOrcRecordReader implements IPentahoInputFormat.IPentahoRecor
       }
 
       @Override public RowMetaAndData next() {
-        RowMetaAndData rowMeta =
-          orcConverter.convertFromOrc( batch, currentBatchRow, dialogInputFields, typeDescription, schemaToOrcSubcripts,
-            orcInputFields );
+        RowMetaAndData rowMeta = new RowMetaAndData( columnPlan.getRowMeta(), batchRows[ currentBatchRow ] );
         currentBatchRow++;
         return rowMeta;
       }
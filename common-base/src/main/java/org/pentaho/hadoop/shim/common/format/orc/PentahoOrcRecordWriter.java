@@ -21,7 +21,6 @@ import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
-import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.orc.OrcFile;
@@ -30,15 +29,13 @@ import org.apache.orc.Writer;
 import org.pentaho.di.core.RowMetaAndData;
 import org.apache.hadoop.conf.Configuration;
 import org.pentaho.di.core.exception.KettleValueException;
-import org.pentaho.di.core.plugins.IValueMetaConverter;
 import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.row.value.ValueMetaBigNumber;
 import org.pentaho.di.core.row.value.ValueMetaBinary;
 import org.pentaho.di.core.row.value.ValueMetaBoolean;
-import org.pentaho.di.core.row.value.ValueMetaConversionException;
-import org.pentaho.di.core.row.value.ValueMetaConverter;
 import org.pentaho.di.core.row.value.ValueMetaDate;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaInternetAddress;
@@ -55,7 +52,6 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.sql.Timestamp;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
@@ -73,13 +69,11 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
   protected VectorizedRowBatch batch;
   protected int batchRowNumber;
   protected Writer writer;
-  protected final IValueMetaConverter valueMetaConverter = new ValueMetaConverter();
-  private final String dateFormatString = ValueMetaBase.DEFAULT_DATE_FORMAT_MASK; //TODO: Get this from UI
-  private SimpleDateFormat datePattern = new SimpleDateFormat( dateFormatString );
   protected RowMeta outputRowMeta = new RowMeta();
-  protected RowMetaAndData outputRowMetaAndData;
   protected static final Logger logger = LogManager.getLogger( PentahoOrcRecordWriter.class );
   protected List<? extends IOrcOutputField> fields;
+  protected FieldWriter[] fieldWriters;
+  private RowMetaInterface boundRowMeta;
 
   public PentahoOrcRecordWriter( List<? extends IOrcOutputField> fields, TypeDescription schema, String filePath,
                                  Configuration conf ) {
@@ -87,7 +81,6 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
     this.schema = schema;
     final AtomicInteger fieldNumber = new AtomicInteger();  //Mutable field count
     fields.forEach( field -> setOutputMeta( fieldNumber, field ) );
-    outputRowMetaAndData = new RowMetaAndData( outputRowMeta, new Object[ fieldNumber.get() ] );
 
     try {
       S3NCredentialUtils util = new S3NCredentialUtils();
@@ -101,9 +94,6 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
       SensitiveLoggingUtils.logSanitizedInitializationError( "Error creating ORC writer", filePath, e );
       throw SensitiveLoggingUtils.sanitizedIllegalStateException( "Unable to create ORC writer.", e );
     }
-
-    //Write the addition metadata for the fields
-    // new OrcMetaDataWriter( writer ).write( fields );
   }
 
   protected void setOutputMeta( AtomicInteger fieldNumber, IOrcOutputField field ) {
@@ -112,143 +102,297 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
   }
 
   @Override public void write( RowMetaAndData row ) throws Exception {
-    final AtomicInteger fieldNumber = new AtomicInteger();  //Mutable field count
-    batchRowNumber = batch.size++;
+    bindFieldWriters( row.getRowMeta() );
+    writeRow( row.getData() );
+  }
 
-    fields.forEach( field -> setFieldValue( fieldNumber, field, row ) );
-    if ( batch.size == batch.getMaxSize() - 1 ) {
-      writer.addRowBatch( batch );
-      batch.reset();
+  @Override public void writeBatch( List<RowMetaAndData> rows ) throws Exception {
+    for ( RowMetaAndData row : rows ) {
+      bindFieldWriters( row.getRowMeta() );
+      writeRow( row.getData() );
     }
   }
 
-  private void setFieldValue( AtomicInteger fieldNumber, IOrcOutputField field,
-                              RowMetaAndData rowMetaAndData ) {
-    int fieldNo = fieldNumber.getAndIncrement();
-    ColumnVector columnVector = batch.cols[ fieldNo ];
-    int rowMetaIndex = rowMetaAndData.getRowMeta().indexOfValue( field.getPentahoFieldName() );
-
-    if ( rowMetaAndData.getData()[ rowMetaIndex ] == null ) {
-      if ( field.getAllowNull() ) {
-        columnVector.isNull[ batchRowNumber ] = true;
-        columnVector.noNulls = false;
-        return;
+  /**
+   * Resolve the row index, value meta and default value of every field against {@code rowMeta}. Rows usually share
+   * their row meta, so this only happens again when a row with a different one is written.
+   */
+  protected void bindFieldWriters( RowMetaInterface rowMeta ) {
+    if ( rowMeta == boundRowMeta ) {
+      return;
+    }
+    if ( fieldWriters == null ) {
+      fieldWriters = new FieldWriter[ fields.size() ];
+      for ( int i = 0; i < fieldWriters.length; i++ ) {
+        fieldWriters[ i ] = createFieldWriter( i, fields.get( i ) );
       }
     }
+    for ( FieldWriter fieldWriter : fieldWriters ) {
+      fieldWriter.bind( rowMeta );
+    }
+    boundRowMeta = rowMeta;
+  }
 
-    columnVector.isNull[ batchRowNumber ] = false;
-    int inlineType = rowMetaAndData.getRowMeta().getValueMeta( rowMetaIndex ).getType();
-    Object inlineValue = rowMetaAndData.getData()[ rowMetaIndex ];
-    Object setValue = null;
-
-    try {
-      setValue = valueMetaConverter
-        .convertFromSourceToTargetDataType( inlineType, field.getOrcType().getPdiType(), inlineValue );
-    } catch ( ValueMetaConversionException e ) {
-      logger.error( e );
+  private void writeRow( Object[] data ) throws IOException {
+    batchRowNumber = batch.size++;
+    for ( FieldWriter fieldWriter : fieldWriters ) {
+      fieldWriter.write( batch.cols[ fieldWriter.column ], data );
     }
-    //Set the final converted value
-    outputRowMetaAndData.getData()[ rowMetaIndex ] = setValue;
+    if ( batch.size == batch.getMaxSize() - 1 ) {
+      writer.addRowBatch( batch );
+      batch.reset();
+    }
+  }
 
+  protected FieldWriter createFieldWriter( int column, IOrcOutputField field ) {
     switch ( field.getOrcType() ) {
       case BOOLEAN:
-        try {
-          ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] =
-            rowMetaAndData.getBoolean( field.getPentahoFieldName(),
-              field.getDefaultValue() != null ? Boolean.valueOf( field.getDefaultValue() ) : false ) ? 1L : 0L;
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new BooleanFieldWriter( column, field );
       case TINYINT:
       case SMALLINT:
       case INTEGER:
       case BIGINT:
-        try {
-          ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] =
-            rowMetaAndData.getInteger( field.getPentahoFieldName(),
-              field.getDefaultValue() != null ? Long.valueOf( field.getDefaultValue() ) : 0 );
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new LongFieldWriter( column, field );
       case BINARY:
-        try {
-          setBytesColumnVector( ( (BytesColumnVector) columnVector ),
-            rowMetaAndData.getBinary( field.getPentahoFieldName(),
-              field.getDefaultValue() != null ? field.getDefaultValue().getBytes() : new byte[ 0 ] ) );
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new BinaryFieldWriter( column, field );
       case FLOAT:
       case DOUBLE:
-        try {
-          double number = rowMetaAndData.getNumber( field.getPentahoFieldName(),
-            field.getDefaultValue() != null ? new Double( field.getDefaultValue() ) : new Double( 0 ) );
-          number = applyScale( number, field );
-          ( (DoubleColumnVector) columnVector ).vector[ batchRowNumber ] = number;
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new DoubleFieldWriter( column, field );
       case DECIMAL:
-        try {
-          ( (DecimalColumnVector) columnVector ).vector[ batchRowNumber ] = new HiveDecimalWritable( HiveDecimal.create(
-            rowMetaAndData.getBigNumber( field.getPentahoFieldName(),
-              field.getDefaultValue() != null ? new BigDecimal( field.getDefaultValue() ) : new BigDecimal( 0 ) ) ) );
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new DecimalFieldWriter( column, field );
       case CHAR:
       case VARCHAR:
       case STRING:
-        try {
-          setBytesColumnVector( ( (BytesColumnVector) columnVector ),
-            rowMetaAndData.getString( field.getPentahoFieldName(),
-              field.getDefaultValue() != null ? field.getDefaultValue() : "" ) );
-        } catch ( KettleValueException e ) {
-          logger.error( e );
-        }
-        break;
+        return new StringFieldWriter( column, field );
       case DATE:
-        try {
-          String conversionMask = rowMetaAndData.getValueMeta( rowMetaIndex ).getConversionMask();
-          if ( conversionMask == null ) {
-            conversionMask = ValueMetaBase.DEFAULT_DATE_PARSE_MASK;
-          }
-          DateFormat dateFormat = new SimpleDateFormat( conversionMask );
-          Date defaultDate =
-            field.getDefaultValue() != null ? dateFormat.parse( field.getDefaultValue() ) : new Date( 0 );
-          Date date = rowMetaAndData.getDate( field.getPentahoFieldName(), defaultDate );
-          ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] =
-            getOrcDate( date, rowMetaAndData.getValueMeta( rowMetaIndex ).getDateFormatTimeZone() );
-        } catch ( KettleValueException | ParseException e ) {
-          logger.error( e );
-        }
-        break;
+        return new DateFieldWriter( column, field );
       case TIMESTAMP:
-        try {
-          String conversionMask = rowMetaAndData.getValueMeta( rowMetaIndex ).getConversionMask();
-          if ( conversionMask == null ) {
-            conversionMask = ValueMetaBase.DEFAULT_DATE_PARSE_MASK;
-          }
-          DateFormat dateFormat = new SimpleDateFormat( conversionMask );
-          ( (TimestampColumnVector) columnVector ).set( batchRowNumber,
-            new Timestamp( rowMetaAndData.getDate( field.getPentahoFieldName(),
-                field.getDefaultValue() != null ? ( dateFormat.parse( field.getDefaultValue() ) ) : new Date( 0 ) )
-              .getTime() ) );
-        } catch ( KettleValueException | ParseException e ) {
-          logger.error( e );
-        }
-        break;
+        return new TimestampFieldWriter( column, field );
       default:
         throw new RuntimeException(
           "Field: " + field.getDefaultValue() + "  Undefined type: " + field.getOrcType().getName() );
     }
   }
 
+  /**
+   * Writes one output field into its column vector.
+   */
+  protected abstract class FieldWriter {
+    protected final int column;
+    protected final IOrcOutputField field;
+    protected int rowIndex;
+    protected ValueMetaInterface valueMeta;
+
+    protected FieldWriter( int column, IOrcOutputField field ) {
+      this.column = column;
+      this.field = field;
+    }
+
+    protected void bind( RowMetaInterface rowMeta ) {
+      rowIndex = rowMeta.indexOfValue( field.getPentahoFieldName() );
+      if ( rowIndex < 0 ) {
+        throw new IllegalArgumentException( "Field " + field.getPentahoFieldName() + " is not in the row" );
+      }
+      valueMeta = rowMeta.getValueMeta( rowIndex );
+      bindDefaultValue( field.getDefaultValue() );
+    }
+
+    /**
+     * Parse the default value, which is written instead of null values if the field does not allow nulls.
+     */
+    protected abstract void bindDefaultValue( String defaultValue );
+
+    protected void write( ColumnVector columnVector, Object[] data ) {
+      Object value = data[ rowIndex ];
+      if ( value == null && field.getAllowNull() ) {
+        columnVector.isNull[ batchRowNumber ] = true;
+        columnVector.noNulls = false;
+        return;
+      }
+      columnVector.isNull[ batchRowNumber ] = false;
+      try {
+        setValue( columnVector, value );
+      } catch ( KettleValueException | ParseException e ) {
+        logger.error( e );
+      }
+    }
+
+    protected abstract void setValue( ColumnVector columnVector, Object value )
+      throws KettleValueException, ParseException;
+  }
+
+  private class BooleanFieldWriter extends FieldWriter {
+    private boolean defaultValue;
+
+    BooleanFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? Boolean.valueOf( defaultValue ) : false;
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      Boolean b = valueMeta.getBoolean( value );
+      ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] = ( b == null ? defaultValue : b ) ? 1L : 0L;
+    }
+  }
+
+  private class LongFieldWriter extends FieldWriter {
+    private long defaultValue;
+
+    LongFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? Long.valueOf( defaultValue ) : 0;
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      Long l = valueMeta.getInteger( value );
+      ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] = l == null ? defaultValue : l;
+    }
+  }
+
+  private class BinaryFieldWriter extends FieldWriter {
+    private byte[] defaultValue;
+
+    BinaryFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? defaultValue.getBytes() : new byte[ 0 ];
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      byte[] bytes = valueMeta.getBinary( value );
+      setBytesColumnVector( (BytesColumnVector) columnVector, bytes == null ? defaultValue : bytes );
+    }
+  }
+
+  private class DoubleFieldWriter extends FieldWriter {
+    private double defaultValue;
+
+    DoubleFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? Double.valueOf( defaultValue ) : 0d;
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      Double d = valueMeta.getNumber( value );
+      ( (DoubleColumnVector) columnVector ).vector[ batchRowNumber ] =
+        applyScale( d == null ? defaultValue : d, field );
+    }
+  }
+
+  private class DecimalFieldWriter extends FieldWriter {
+    private BigDecimal defaultValue;
+
+    DecimalFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? new BigDecimal( defaultValue ) : BigDecimal.ZERO;
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      BigDecimal bd = valueMeta.getBigNumber( value );
+      ( (DecimalColumnVector) columnVector ).vector[ batchRowNumber ]
+        .set( HiveDecimal.create( bd == null ? defaultValue : bd ) );
+    }
+  }
+
+  private class StringFieldWriter extends FieldWriter {
+    private byte[] defaultValue;
+
+    StringFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = defaultValue != null ? defaultValue.getBytes() : new byte[ 0 ];
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value ) throws KettleValueException {
+      String string = valueMeta.getString( value );
+      setBytesColumnVector( (BytesColumnVector) columnVector, string == null ? defaultValue : string.getBytes() );
+    }
+  }
+
+  /**
+   * Base for DATE and TIMESTAMP fields, whose default value is parsed with the conversion mask of the row.
+   */
+  private abstract class DateValueFieldWriter extends FieldWriter {
+    protected Date defaultValue;
+    private ParseException defaultValueError;
+
+    DateValueFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = new Date( 0 );
+      this.defaultValueError = null;
+      if ( defaultValue != null ) {
+        String conversionMask = valueMeta.getConversionMask();
+        if ( conversionMask == null ) {
+          conversionMask = ValueMetaBase.DEFAULT_DATE_PARSE_MASK;
+        }
+        try {
+          this.defaultValue = new SimpleDateFormat( conversionMask ).parse( defaultValue );
+        } catch ( ParseException e ) {
+          this.defaultValueError = e;
+        }
+      }
+    }
+
+    protected Date getDate( Object value ) throws KettleValueException, ParseException {
+      Date date = valueMeta.getDate( value );
+      if ( date == null ) {
+        if ( defaultValueError != null ) {
+          throw defaultValueError;
+        }
+        return defaultValue;
+      }
+      return date;
+    }
+  }
+
+  private class DateFieldWriter extends DateValueFieldWriter {
+    private TimeZone timeZone;
+
+    DateFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      super.bindDefaultValue( defaultValue );
+      timeZone = valueMeta.getDateFormatTimeZone();
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value )
+      throws KettleValueException, ParseException {
+      ( (LongColumnVector) columnVector ).vector[ batchRowNumber ] = getOrcDate( getDate( value ), timeZone );
+    }
+  }
+
+  private class TimestampFieldWriter extends DateValueFieldWriter {
+    TimestampFieldWriter( int column, IOrcOutputField field ) {
+      super( column, field );
+    }
+
+    @Override protected void setValue( ColumnVector columnVector, Object value )
+      throws KettleValueException, ParseException {
+      ( (TimestampColumnVector) columnVector ).set( batchRowNumber, new Timestamp( getDate( value ).getTime() ) );
+    }
+  }
+
   private double applyScale( double number, IOrcOutputField outputField ) {
     if ( outputField.getScale() > 0 ) {
       BigDecimal bd = new BigDecimal( number );
@@ -267,14 +411,6 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
     return Math.toIntExact( ChronoUnit.DAYS.between( LocalDate.ofEpochDay( 0 ), rowDate ) );
   }
 
-  private void setBytesColumnVector( BytesColumnVector bytesColumnVector, String value ) {
-    if ( value == null ) {
-      setBytesColumnVector( bytesColumnVector, new byte[ 0 ] );
-    } else {
-      setBytesColumnVector( bytesColumnVector, value.getBytes() );
-    }
-  }
-
   protected void setBytesColumnVector( BytesColumnVector bytesColumnVector, byte[] value ) {
     bytesColumnVector.vector[ batchRowNumber ] = value;
     bytesColumnVector.start[ batchRowNumber ] = 0;
@@ -285,6 +421,8 @@ public class PentahoOrcRecordWriter implements IPentahoOutputFormat.IPentahoReco
     if ( batch.size > 0 ) {
       writer.addRowBatch( batch );
     }
+    //User metadata goes into the file footer, so the field metadata is added along with it when the writer closes
+    new OrcMetaDataWriter( writer ).write( fields );
     writer.close();
   }
 
@@ -0,0 +1,314 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
+import org.pentaho.hadoop.shim.api.format.ParquetSpec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Translates an {@link IPentahoPredicate} into a Parquet {@link FilterPredicate} over the top level columns of the
+ * input fields.
+ * <p>
+ * Leaves on columns Parquet can't compare with a Kettle value (binary, decimal, INT96, time and unsigned 32/64 bit
+ * columns) never skip data: they drop out of an AND, make an OR and a NOT unknown, and a predicate which is unknown as
+ * a whole translates to {@code null}. A NOT over an AND that lost operands is unknown too. DATE columns are compared
+ * by day in the default time zone.
+ */
+public class ParquetFilterPredicateBuilder {
+
+  private final Map<String, IParquetInputField> fields = new HashMap<>();
+
+  public ParquetFilterPredicateBuilder( List<? extends IParquetInputField> inputFields ) {
+    for ( IParquetInputField field : inputFields ) {
+      fields.put( field.getFormatFieldName(), field );
+    }
+  }
+
+  /**
+   * @return the predicate to push down, {@code null} if no part of {@code predicate} can skip data
+   */
+  public FilterPredicate build( IPentahoPredicate predicate ) {
+    return translate( predicate ).predicate;
+  }
+
+  /**
+   * An AND missing some of its operands still never skips matching data, but its negation would, so a NOT is only
+   * pushed down when its operand was translated exactly.
+   */
+  private Translation translate( IPentahoPredicate predicate ) {
+    switch ( predicate.getOperator() ) {
+      case NOT:
+        Translation child = translate( predicate.getChildren().get( 0 ) );
+        return child.predicate == null || !child.exact ? Translation.UNKNOWN
+          : new Translation( FilterApi.not( child.predicate ), true );
+      case AND:
+        FilterPredicate and = null;
+        boolean andExact = true;
+        for ( IPentahoPredicate operand : predicate.getChildren() ) {
+          Translation translated = translate( operand );
+          andExact &= translated.exact;
+          if ( translated.predicate != null ) {
+            and = and == null ? translated.predicate : FilterApi.and( and, translated.predicate );
+          }
+        }
+        return and == null ? Translation.UNKNOWN : new Translation( and, andExact );
+      case OR:
+        FilterPredicate or = null;
+        boolean orExact = true;
+        for ( IPentahoPredicate operand : predicate.getChildren() ) {
+          Translation translated = translate( operand );
+          if ( translated.predicate == null ) {
+            return Translation.UNKNOWN;
+          }
+          orExact &= translated.exact;
+          or = or == null ? translated.predicate : FilterApi.or( or, translated.predicate );
+        }
+        return new Translation( or, orExact );
+      default:
+        FilterPredicate leaf = buildLeaf( predicate );
+        return leaf == null ? Translation.UNKNOWN : new Translation( leaf, true );
+    }
+  }
+
+  private FilterPredicate buildLeaf( IPentahoPredicate predicate ) {
+    IParquetInputField field = fields.get( predicate.getFieldName() );
+    if ( field == null ) {
+      throw new IllegalArgumentException( "Field " + predicate.getFieldName() + " is not part of the parquet schema." );
+    }
+    String column = field.getFormatFieldName();
+    ParquetSpec.DataType type = field.getParquetType();
+    switch ( type ) {
+      case BOOLEAN:
+        return buildBooleanLeaf( FilterApi.booleanColumn( column ), predicate );
+      case INT_8:
+      case INT_16:
+      case INT_32:
+      case UINT_8:
+      case UINT_16:
+        return buildLeaf( FilterApi.intColumn( column ), predicate,
+          value -> toIntegral( type, value, Integer.MIN_VALUE, Integer.MAX_VALUE, BigDecimal::intValueExact ) );
+      case DATE:
+        return buildLeaf( FilterApi.intColumn( column ), predicate, value -> toEpochDay( type, value ) );
+      case INT_64:
+        return buildLeaf( FilterApi.longColumn( column ), predicate,
+          value -> toIntegral( type, value, Long.MIN_VALUE, Long.MAX_VALUE, BigDecimal::longValueExact ) );
+      case TIMESTAMP_MILLIS:
+        return buildLeaf( FilterApi.longColumn( column ), predicate,
+          value -> Literal.exact( toDate( type, value ).getTime() ) );
+      case FLOAT:
+        return buildLeaf( FilterApi.floatColumn( column ), predicate, value -> {
+          BigDecimal decimal = toBigDecimal( type, value );
+          float literal = decimal == null ? Float.NaN : decimal.floatValue();
+          return Float.isInfinite( literal ) || Float.isNaN( literal )
+            || new BigDecimal( literal ).compareTo( decimal ) != 0 ? null : Literal.exact( literal );
+        } );
+      case DOUBLE:
+        return buildLeaf( FilterApi.doubleColumn( column ), predicate, value -> {
+          BigDecimal decimal = toBigDecimal( type, value );
+          double literal = decimal == null ? Double.NaN : decimal.doubleValue();
+          return Double.isInfinite( literal ) || Double.isNaN( literal )
+            || new BigDecimal( literal ).compareTo( decimal ) != 0 ? null : Literal.exact( literal );
+        } );
+      case UTF8:
+      case ENUM:
+        return buildLeaf( FilterApi.binaryColumn( column ), predicate,
+          value -> Literal.exact( Binary.fromString( value.toString() ) ) );
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Compares with the closest column values instead of a literal the column can't hold, {@code x < 2.5} becomes
+   * {@code x < 3} on an integer column. Leaves with a literal that has no closest column values, or that can only be
+   * compared for equality with it, are not pushed down.
+   */
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate
+    buildLeaf( C column, IPentahoPredicate predicate, Function<Object, Literal<T>> toLiteral ) {
+    List<Object> values = predicate.getValues();
+    Literal<T> literal = values == null || values.isEmpty() ? null : toLiteral.apply( values.get( 0 ) );
+    switch ( predicate.getOperator() ) {
+      case EQUALS:
+        return literal == null || !literal.isExact() ? null : FilterApi.eq( column, literal.floor );
+      case LESS_THAN:
+        return literal == null ? null : FilterApi.lt( column, literal.ceiling );
+      case LESS_THAN_EQUALS:
+        return literal == null ? null : FilterApi.ltEq( column, literal.floor );
+      case GREATER_THAN:
+        return literal == null ? null : FilterApi.gt( column, literal.floor );
+      case GREATER_THAN_EQUALS:
+        return literal == null ? null : FilterApi.gtEq( column, literal.ceiling );
+      case IN:
+        Set<T> literals = new HashSet<>();
+        for ( Object value : values ) {
+          Literal<T> element = toLiteral.apply( value );
+          if ( element == null ) {
+            return null;
+          }
+          // No column value equals a literal the column can't hold
+          if ( element.isExact() ) {
+            literals.add( element.floor );
+          }
+        }
+        return literals.isEmpty() ? null : FilterApi.in( column, literals );
+      case IS_NULL:
+        return FilterApi.eq( column, (T) null );
+      default:
+        throw new IllegalArgumentException( "Unsupported operator " + predicate.getOperator() );
+    }
+  }
+
+  private static FilterPredicate buildBooleanLeaf( Operators.BooleanColumn column, IPentahoPredicate predicate ) {
+    Function<Object, Boolean> toLiteral = value -> {
+      if ( value instanceof Boolean ) {
+        return (Boolean) value;
+      }
+      throw incompatible( ParquetSpec.DataType.BOOLEAN, value );
+    };
+    List<Object> values = predicate.getValues();
+    switch ( predicate.getOperator() ) {
+      case EQUALS:
+        return FilterApi.eq( column, toLiteral.apply( values.get( 0 ) ) );
+      case IN:
+        return FilterApi.in( column, toLiterals( values, toLiteral ) );
+      case IS_NULL:
+        return FilterApi.eq( column, null );
+      default:
+        throw new IllegalArgumentException( "Unable to apply " + predicate.getOperator() + " to boolean column "
+          + predicate.getFieldName() );
+    }
+  }
+
+  private static <T> Set<T> toLiterals( List<Object> values, Function<Object, T> toLiteral ) {
+    Set<T> literals = new HashSet<>();
+    for ( Object value : values ) {
+      literals.add( toLiteral.apply( value ) );
+    }
+    return literals;
+  }
+
+  /**
+   * @return the number as a decimal, {@code null} for NaN and infinite values
+   */
+  private static BigDecimal toBigDecimal( ParquetSpec.DataType type, Object value ) {
+    if ( value instanceof BigDecimal ) {
+      return (BigDecimal) value;
+    }
+    if ( value instanceof BigInteger ) {
+      return new BigDecimal( (BigInteger) value );
+    }
+    if ( value instanceof Double || value instanceof Float ) {
+      double number = ( (Number) value ).doubleValue();
+      return Double.isNaN( number ) || Double.isInfinite( number ) ? null : new BigDecimal( number );
+    }
+    if ( value instanceof Number ) {
+      return BigDecimal.valueOf( ( (Number) value ).longValue() );
+    }
+    throw incompatible( type, value );
+  }
+
+  /**
+   * @return the closest integral values of the number, {@code null} if they are out of range
+   */
+  private static <T extends Comparable<T>> Literal<T> toIntegral( ParquetSpec.DataType type, Object value, long min,
+                                                                  long max, Function<BigDecimal, T> convert ) {
+    BigDecimal decimal = toBigDecimal( type, value );
+    if ( decimal == null ) {
+      return null;
+    }
+    BigDecimal floor = decimal.setScale( 0, RoundingMode.FLOOR );
+    BigDecimal ceiling = decimal.setScale( 0, RoundingMode.CEILING );
+    if ( floor.compareTo( BigDecimal.valueOf( min ) ) < 0 || ceiling.compareTo( BigDecimal.valueOf( max ) ) > 0 ) {
+      return null;
+    }
+    return new Literal<>( convert.apply( floor ), convert.apply( ceiling ) );
+  }
+
+  private static Date toDate( ParquetSpec.DataType type, Object value ) {
+    if ( value instanceof Date ) {
+      return (Date) value;
+    }
+    throw incompatible( type, value );
+  }
+
+  /**
+   * @return the day of the date and, unless it is at midnight, the next day
+   */
+  private static Literal<Integer> toEpochDay( ParquetSpec.DataType type, Object value ) {
+    ZonedDateTime dateTime = Instant.ofEpochMilli( toDate( type, value ).getTime() ).atZone( ZoneId.systemDefault() );
+    int day = (int) dateTime.toLocalDate().toEpochDay();
+    boolean midnight = dateTime.toLocalTime().equals( LocalTime.MIDNIGHT );
+    return new Literal<>( day, midnight ? day : day + 1 );
+  }
+
+  /**
+   * Closest column values not greater and not less than a literal, the same value if the column can hold it.
+   */
+  private static final class Literal<T> {
+    private final T floor;
+    private final T ceiling;
+
+    private Literal( T floor, T ceiling ) {
+      this.floor = floor;
+      this.ceiling = ceiling;
+    }
+
+    private static <T> Literal<T> exact( T value ) {
+      return new Literal<>( value, value );
+    }
+
+    private boolean isExact() {
+      return floor.equals( ceiling );
+    }
+  }
+
+  /**
+   * Translated predicate, which is exact unless operands that could not be translated were left out.
+   */
+  private static final class Translation {
+    private static final Translation UNKNOWN = new Translation( null, false );
+
+    private final FilterPredicate predicate;
+    private final boolean exact;
+
+    private Translation( FilterPredicate predicate, boolean exact ) {
+      this.predicate = predicate;
+      this.exact = exact;
+    }
+  }
+
+  private static IllegalArgumentException incompatible( ParquetSpec.DataType type, Object value ) {
+    return new IllegalArgumentException(
+      "Unable to compare " + type + " column with " + value.getClass().getSimpleName() + " value " + value );
+  }
+}
@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.parquet.hadoop.Footer;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.hadoop.util.HiddenFileFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide cache of parquet footers, shared by schema discovery and split planning so that a file's footer is
+ * read once rather than once per call. Footers are keyed by path, length and modification time, so a rewritten file
+ * is read again.
+ * <p>
+ * The cache is bounded by the number of column chunks of the cached footers, which is what their size grows with.
+ * The least recently used footers are evicted first. The bound is read from the {@value #MAX_COLUMN_CHUNKS_PROPERTY}
+ * system property.
+ */
+public class ParquetFooterCache {
+  public static final String MAX_COLUMN_CHUNKS_PROPERTY = "pentaho.parquet.footer.cache.columnChunks";
+  public static final long DEFAULT_MAX_COLUMN_CHUNKS = 100000;
+
+  private static final ParquetFooterCache INSTANCE =
+    new ParquetFooterCache( Long.getLong( MAX_COLUMN_CHUNKS_PROPERTY, DEFAULT_MAX_COLUMN_CHUNKS ) );
+
+  private final long maxColumnChunks;
+  private final LinkedHashMap<Key, ParquetMetadata> footers = new LinkedHashMap<>( 16, 0.75f, true );
+  private long columnChunks;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  public ParquetFooterCache( long maxColumnChunks ) {
+    this.maxColumnChunks = maxColumnChunks;
+  }
+
+  public static ParquetFooterCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Footer of the file, with all its row groups.
+   */
+  public ParquetMetadata getFooter( Configuration conf, FileStatus status ) throws IOException {
+    Key key = new Key( status );
+    ParquetMetadata footer = get( key );
+    if ( footer == null ) {
+      try ( ParquetFileReader reader = ParquetFileReader.open( HadoopInputFile.fromStatus( status, conf ) ) ) {
+        footer = reader.getFooter();
+      }
+      put( key, footer );
+    }
+    return footer;
+  }
+
+  /**
+   * Footer of the file, or of the first data file of a directory. Like {@link ParquetFileReader#readFooters}, files
+   * whose name starts with '_' or '.' are not data files.
+   *
+   * @return the footer, null for a directory without data files
+   */
+  public ParquetMetadata getFirstFooter( Configuration conf, FileStatus status ) throws IOException {
+    FileStatus dataFile = getFirstDataFile( status.getPath().getFileSystem( conf ), status );
+    return dataFile == null ? null : getFooter( conf, dataFile );
+  }
+
+  private static FileStatus getFirstDataFile( FileSystem fs, FileStatus status ) throws IOException {
+    if ( !status.isDirectory() ) {
+      return status;
+    }
+    FileStatus[] children = fs.listStatus( status.getPath(), HiddenFileFilter.INSTANCE );
+    Arrays.sort( children );
+    for ( FileStatus child : children ) {
+      FileStatus dataFile = getFirstDataFile( fs, child );
+      if ( dataFile != null ) {
+        return dataFile;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Footers of the files, in the order of {@code statuses}. The footers which are not cached are read in parallel.
+   */
+  @SuppressWarnings( "squid:CallToDeprecatedMethod" )
+  public List<Footer> getFooters( Configuration conf, Collection<FileStatus> statuses ) throws IOException {
+    Map<FileStatus, ParquetMetadata> found = new LinkedHashMap<>();
+    List<FileStatus> missing = new ArrayList<>();
+    for ( FileStatus status : statuses ) {
+      ParquetMetadata footer = get( new Key( status ) );
+      found.put( status, footer );
+      if ( footer == null ) {
+        missing.add( status );
+      }
+    }
+    if ( !missing.isEmpty() ) {
+      List<Footer> read = ParquetFileReader.readAllFootersInParallel( conf, missing, false );
+      for ( int i = 0; i < read.size(); i++ ) {
+        put( new Key( missing.get( i ) ), read.get( i ).getParquetMetadata() );
+        found.put( missing.get( i ), read.get( i ).getParquetMetadata() );
+      }
+    }
+    List<Footer> result = new ArrayList<>( found.size() );
+    found.forEach( ( status, footer ) -> result.add( new Footer( status.getPath(), footer ) ) );
+    return result;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public synchronized int size() {
+    return footers.size();
+  }
+
+  public synchronized void clear() {
+    footers.clear();
+    columnChunks = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ParquetFooterCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+      + ", evictions=" + getEvictionCount() + "}";
+  }
+
+  private synchronized ParquetMetadata get( Key key ) {
+    ParquetMetadata footer = footers.get( key );
+    ( footer == null ? missCount : hitCount ).incrementAndGet();
+    return footer;
+  }
+
+  private synchronized void put( Key key, ParquetMetadata footer ) {
+    ParquetMetadata previous = footers.put( key, footer );
+    if ( previous != null ) {
+      columnChunks -= getColumnChunks( previous );
+    }
+    columnChunks += getColumnChunks( footer );
+    Iterator<ParquetMetadata> eldest = footers.values().iterator();
+    while ( columnChunks > maxColumnChunks && eldest.hasNext() ) {
+      columnChunks -= getColumnChunks( eldest.next() );
+      eldest.remove();
+      evictionCount.incrementAndGet();
+    }
+  }
+
+  private static long getColumnChunks( ParquetMetadata footer ) {
+    long count = 1;
+    for ( BlockMetaData block : footer.getBlocks() ) {
+      count += block.getColumns().size();
+    }
+    return count;
+  }
+
+  private static class Key {
+    private final String path;
+    private final long length;
+    private final long modificationTime;
+
+    Key( FileStatus status ) {
+      path = status.getPath().toString();
+      length = status.getLen();
+      modificationTime = status.getModificationTime();
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof Key ) ) {
+        return false;
+      }
+      Key key = (Key) o;
+      return length == key.length && modificationTime == key.modificationTime && path.equals( key.path );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( path, length, modificationTime );
+    }
+  }
+
+  /**
+   * Parquet input format which plans its splits from the cached footers.
+   */
+  public static class CachingParquetInputFormat<T> extends ParquetInputFormat<T> {
+    @Override
+    public List<Footer> getFooters( Configuration configuration, Collection<FileStatus> statuses )
+      throws IOException {
+      return getInstance().getFooters( configuration, statuses );
+    }
+  }
+}
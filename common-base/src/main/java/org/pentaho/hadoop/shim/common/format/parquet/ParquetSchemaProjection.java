@@ -0,0 +1,227 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The part of a file schema holding the columns of the input fields, so that Parquet only reads and decodes their
+ * column chunks.
+ * <p>
+ * A format field name is a top level column name or a dot separated path to a primitive column nested in
+ * non-repeated groups, e.g. {@code address.city}. Fields sharing a column read it once.
+ */
+public class ParquetSchemaProjection {
+
+  private final Node root = new Node( null );
+  private final MessageType requestedSchema;
+  private final List<String[]> fieldPaths = new ArrayList<>();
+
+  public ParquetSchemaProjection( MessageType fileSchema, List<? extends IParquetInputField> fields ) {
+    int fieldIndex = 0;
+    for ( IParquetInputField field : fields ) {
+      if ( field.getFormatFieldName() == null ) {
+        continue;
+      }
+      Node node = root;
+      GroupType group = fileSchema;
+      String[] path = getPath( fileSchema, field.getFormatFieldName() );
+      for ( int i = 0; i < path.length; i++ ) {
+        Type type = group.getType( path[ i ] );
+        if ( i < path.length - 1 ) {
+          if ( type.isRepetition( Type.Repetition.REPEATED ) ) {
+            throw new IllegalArgumentException( "Field " + field.getFormatFieldName() + " is inside repeated group "
+              + type.getName() + ", only fields of non-repeated groups can be read." );
+          }
+          group = type.asGroupType();
+        } else if ( !type.isPrimitive() ) {
+          throw new IllegalArgumentException( "Field " + field.getFormatFieldName()
+            + " is a group, only its primitive fields can be read." );
+        }
+        node = node.getChild( type );
+      }
+      node.fieldIndexes.add( fieldIndex++ );
+      fieldPaths.add( path );
+    }
+    if ( root.children.isEmpty() ) {
+      throw new IllegalArgumentException( "Fields should be declared" );
+    }
+    requestedSchema = new MessageType( fileSchema.getName(), prune( root ) );
+  }
+
+  private static String[] getPath( MessageType fileSchema, String formatFieldName ) {
+    if ( fileSchema.containsField( formatFieldName ) ) {
+      return new String[] { formatFieldName };
+    }
+    String[] path = formatFieldName.split( "\\." );
+    if ( path.length > 1 && fileSchema.containsPath( path ) ) {
+      return path;
+    }
+    throw new IllegalArgumentException( "Field " + formatFieldName + " does not exist in the parquet file." );
+  }
+
+  private static List<Type> prune( Node group ) {
+    List<Type> types = new ArrayList<>( group.children.size() );
+    for ( Node child : group.children.values() ) {
+      types.add( child.children.isEmpty() ? child.type : child.type.asGroupType().withNewFields( prune( child ) ) );
+    }
+    return types;
+  }
+
+  /**
+   * Schema to pass to Parquet as the requested projection.
+   */
+  public MessageType getRequestedSchema() {
+    return requestedSchema;
+  }
+
+  /**
+   * Column path of every field with a format field name, in field order.
+   */
+  public List<String[]> getFieldPaths() {
+    return fieldPaths;
+  }
+
+  /**
+   * Arrange the converters of the fields into the converters of the top level columns of the requested schema.
+   *
+   * @param fieldConverters one primitive converter per field with a format field name, in field order
+   */
+  public Converter[] getRootConverters( Converter[] fieldConverters ) {
+    return getConverters( root, fieldConverters );
+  }
+
+  private static Converter[] getConverters( Node group, Converter[] fieldConverters ) {
+    Converter[] converters = new Converter[ group.children.size() ];
+    int i = 0;
+    for ( Node child : group.children.values() ) {
+      if ( !child.children.isEmpty() ) {
+        converters[ i++ ] = new NestedGroupConverter( getConverters( child, fieldConverters ) );
+      } else if ( child.fieldIndexes.size() == 1 ) {
+        converters[ i++ ] = fieldConverters[ child.fieldIndexes.get( 0 ) ];
+      } else {
+        PrimitiveConverter[] targets = new PrimitiveConverter[ child.fieldIndexes.size() ];
+        for ( int t = 0; t < targets.length; t++ ) {
+          targets[ t ] = fieldConverters[ child.fieldIndexes.get( t ) ].asPrimitiveConverter();
+        }
+        converters[ i++ ] = new SharedColumnConverter( targets );
+      }
+    }
+    return converters;
+  }
+
+  private static class Node {
+    private final Type type;
+    private final Map<String, Node> children = new LinkedHashMap<>();
+    private final List<Integer> fieldIndexes = new ArrayList<>( 1 );
+
+    Node( Type type ) {
+      this.type = type;
+    }
+
+    Node getChild( Type childType ) {
+      return children.computeIfAbsent( childType.getName(), name -> new Node( childType ) );
+    }
+  }
+
+  /**
+   * Passes the values of a nested group on to the converters of its fields, which write into the same row.
+   */
+  private static class NestedGroupConverter extends GroupConverter {
+    private final Converter[] converters;
+
+    NestedGroupConverter( Converter[] converters ) {
+      this.converters = converters;
+    }
+
+    @Override
+    public Converter getConverter( int fieldIndex ) {
+      return converters[ fieldIndex ];
+    }
+
+    @Override
+    public void start() {
+      // values are written into the row of the root converter
+    }
+
+    @Override
+    public void end() {
+      // values are written into the row of the root converter
+    }
+  }
+
+  /**
+   * Passes the values of a column on to every field reading it.
+   */
+  private static class SharedColumnConverter extends PrimitiveConverter {
+    private final PrimitiveConverter[] targets;
+
+    SharedColumnConverter( PrimitiveConverter[] targets ) {
+      this.targets = targets;
+    }
+
+    @Override
+    public void addBinary( Binary value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addBinary( value );
+      }
+    }
+
+    @Override
+    public void addBoolean( boolean value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addBoolean( value );
+      }
+    }
+
+    @Override
+    public void addDouble( double value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addDouble( value );
+      }
+    }
+
+    @Override
+    public void addFloat( float value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addFloat( value );
+      }
+    }
+
+    @Override
+    public void addInt( int value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addInt( value );
+      }
+    }
+
+    @Override
+    public void addLong( long value ) {
+      for ( PrimitiveConverter target : targets ) {
+        target.addLong( value );
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.parquet.CorruptDeltaByteArrays;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.ParquetInputSplit;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+/**
+ * Consecutive row groups of a single Parquet file. A file that is not safe to split is read whole by one split, which
+ * carries the reason.
+ */
+public class PentahoParquetInputSplit extends PentahoInputSplitImpl {
+  private final int rowGroupCount;
+  private final String sequentialReadReason;
+
+  public PentahoParquetInputSplit( ParquetInputSplit inputSplit, int rowGroupCount, String sequentialReadReason ) {
+    super( inputSplit );
+    this.rowGroupCount = rowGroupCount;
+    this.sequentialReadReason = sequentialReadReason;
+  }
+
+  @Override
+  public ParquetInputSplit getInputSplit() {
+    return (ParquetInputSplit) inputSplit;
+  }
+
+  public int getRowGroupCount() {
+    return rowGroupCount;
+  }
+
+  /**
+   * @return why the file of this split is read whole, {@code null} if it was split on row group boundaries
+   */
+  public String getSequentialReadReason() {
+    return sequentialReadReason;
+  }
+
+  public boolean isSequentialRead() {
+    return sequentialReadReason != null;
+  }
+
+  /**
+   * Files written by parquet-mr versions affected by PARQUET-246 can only be read from their first row group when
+   * they use an affected encoding. Parquet only reports it at read time.
+   *
+   * @return why the file described by {@code footer} can't be split, {@code null} if it can
+   */
+  public static String getSequentialReadReason( ParquetMetadata footer ) {
+    String createdBy = footer.getFileMetaData().getCreatedBy();
+    for ( BlockMetaData block : footer.getBlocks() ) {
+      for ( ColumnChunkMetaData column : block.getColumns() ) {
+        for ( Encoding encoding : column.getEncodings() ) {
+          if ( CorruptDeltaByteArrays.requiresSequentialReads( createdBy, encoding ) ) {
+            return "written by " + createdBy + " with " + encoding + " encoding (PARQUET-246)";
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    ParquetInputSplit split = getInputSplit();
+    return split.getPath() + ":" + split.getStart() + "+" + split.getLength() + " (" + rowGroupCount + " row groups"
+      + ( isSequentialRead() ? ", whole file: " + sequentialReadReason : "" ) + ")";
+  }
+}
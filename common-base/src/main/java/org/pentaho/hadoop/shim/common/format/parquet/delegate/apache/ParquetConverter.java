@@ -42,6 +42,7 @@ import org.pentaho.di.core.row.value.ValueMetaTimestamp;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
 import org.pentaho.hadoop.shim.api.format.ParquetSpec;
 import org.pentaho.hadoop.shim.common.format.parquet.ParquetInputField;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetSchemaProjection;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -53,7 +54,9 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static java.lang.Math.pow;
 
@@ -69,9 +72,18 @@ public class ParquetConverter {
   public static final int PARQUET_JOB_ID = Integer.MAX_VALUE;
   public static final String PARQUET_SCHEMA_CONF_KEY = "PentahoParquetSchema";
   private final List<? extends IParquetInputField> inputFields;
+  private final ParquetSchemaProjection projection;
 
   public ParquetConverter( List<? extends IParquetInputField> inputFields ) {
+    this( inputFields, null );
+  }
+
+  /**
+   * @param projection requested schema the rows are read with, {@code null} if it has one top level column per field
+   */
+  public ParquetConverter( List<? extends IParquetInputField> inputFields, ParquetSchemaProjection projection ) {
     this.inputFields = inputFields;
+    this.projection = projection;
   }
 
   public static List<IParquetInputField> buildInputFields( MessageType schema ) {
@@ -238,8 +250,10 @@ public class ParquetConverter {
     private final RowMeta fields = new RowMeta();
     protected RowMetaAndData current;
     private final Converter[] converters;
+    private final Converter[] rootConverters;
     private int count;
     private final IValueMetaConverter valueMetaConverter = new ValueMetaConverter();
+    private final Map<String, SimpleDateFormat> dateFormats = new HashMap<>();
     private static final Logger logger = LogManager.getLogger( MyGroupConverter.class );
 
     private Object convertFromSourceToTargetType( IValueMetaConverter valueMetaConverter, Object stagingValue,
@@ -249,7 +263,7 @@ public class ParquetConverter {
         if ( ( dateFormatStr == null ) || ( dateFormatStr.trim().length() == 0 ) ) {
           dateFormatStr = ValueMetaBase.DEFAULT_DATE_FORMAT_MASK;
         }
-        valueMetaConverter.setDatePattern( new SimpleDateFormat( dateFormatStr ) );
+        valueMetaConverter.setDatePattern( dateFormats.computeIfAbsent( dateFormatStr, SimpleDateFormat::new ) );
 
         return valueMetaConverter.convertFromSourceToTargetDataType(
           f.getParquetType().getPdiType(), f.getPentahoType(), stagingValue );
@@ -503,7 +517,8 @@ public class ParquetConverter {
         }
         i++;
       }
-
+      rootConverters = converter.projection == null
+        ? converters : converter.projection.getRootConverters( converters );
     }
 
     private void updateValueMeta( int index, IParquetInputField inputField ) {
@@ -540,7 +555,14 @@ public class ParquetConverter {
 
     @Override
     public Converter getConverter( int fieldIndex ) {
-      return converters[ fieldIndex ];
+      return rootConverters[ fieldIndex ];
+    }
+
+    /**
+     * Converter of a field with a format field name, by its position among those fields.
+     */
+    public PrimitiveConverter getFieldConverter( int index ) {
+      return converters[ index ].asPrimitiveConverter();
     }
 
     @Override
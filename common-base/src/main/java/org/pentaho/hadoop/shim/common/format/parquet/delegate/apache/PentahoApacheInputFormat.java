@@ -18,12 +18,17 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.hadoop.Footer;
-import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.hadoop.ParquetInputSplit;
 import org.apache.parquet.hadoop.ParquetRecordReader;
 import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.schema.MessageType;
 import org.pentaho.di.core.RowMetaAndData;
@@ -33,13 +38,17 @@ import org.pentaho.hadoop.shim.ShimConfigsLoader;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
 import org.pentaho.hadoop.shim.common.ConfigurationProxy;
 import org.pentaho.hadoop.shim.common.format.HadoopFormatBase;
 import org.pentaho.hadoop.shim.common.format.ReadFileFilter;
 import org.pentaho.hadoop.shim.common.format.ReadFilesFilter;
 import org.pentaho.hadoop.shim.common.format.S3NCredentialUtils;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetFilterPredicateBuilder;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetFooterCache;
 import org.pentaho.hadoop.shim.common.format.parquet.ParquetInputFieldList;
 import org.pentaho.hadoop.shim.common.format.parquet.PentahoInputSplitImpl;
+import org.pentaho.hadoop.shim.common.format.parquet.PentahoParquetInputSplit;
 
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
@@ -56,8 +65,16 @@ public class PentahoApacheInputFormat extends HadoopFormatBase implements IPenta
 
   protected static final LogChannelInterface logger = LogChannel.GENERAL;
 
+  public static final long DEFAULT_SPLIT_SIZE = 128L * 1024 * 1024;
+
   private ParquetInputFormat<RowMetaAndData> nativeParquetInputFormat;
   protected Job job;
+  protected boolean splitFiles;
+  protected boolean columnarRead;
+  protected List<IParquetInputField> inputFields;
+  protected IPentahoPredicate filter;
+  private boolean filterApplied;
+  protected long splitSize = DEFAULT_SPLIT_SIZE;
 
   public PentahoApacheInputFormat( NamedCluster namedCluster ) {
     logger.logBasic( "We are initializing parquet input format" );
@@ -66,7 +83,7 @@ public class PentahoApacheInputFormat extends HadoopFormatBase implements IPenta
       Configuration conf = createConfigurationWithClassLoader( namedCluster, getClass().getClassLoader() );
       job = Job.getInstance( conf );
 
-      nativeParquetInputFormat = new ParquetInputFormat<>();
+      nativeParquetInputFormat = new ParquetFooterCache.CachingParquetInputFormat<>();
 
       ParquetInputFormat.setReadSupportClass( job, PentahoParquetReadSupport.class );
       ParquetInputFormat.setTaskSideMetaData( job, false );
@@ -75,7 +92,31 @@ public class PentahoApacheInputFormat extends HadoopFormatBase implements IPenta
 
   @Override public void setSchema( List<IParquetInputField> inputFields ) throws Exception {
     ParquetInputFieldList fieldList = new ParquetInputFieldList( inputFields );
-    inClassloader( () -> job.getConfiguration().set( ParquetConverter.PARQUET_SCHEMA_CONF_KEY, fieldList.marshall() ) );
+    this.inputFields = inputFields;
+    inClassloader( () -> {
+      job.getConfiguration().set( ParquetConverter.PARQUET_SCHEMA_CONF_KEY, fieldList.marshall() );
+      applyFilter();
+    } );
+  }
+
+  @Override public void setFilter( IPentahoPredicate filter ) throws Exception {
+    this.filter = filter;
+    inClassloader( this::applyFilter );
+  }
+
+  /**
+   * Pass the filter to parquet once both the filter and the schema it refers to are known.
+   */
+  private void applyFilter() {
+    FilterPredicate predicate = filter == null || inputFields == null
+      ? null : new ParquetFilterPredicateBuilder( inputFields ).build( filter );
+    if ( predicate != null ) {
+      ParquetInputFormat.setFilterPredicate( job.getConfiguration(), predicate );
+      filterApplied = true;
+    } else if ( filterApplied ) {
+      job.getConfiguration().unset( ParquetInputFormat.FILTER_PREDICATE );
+      filterApplied = false;
+    }
   }
 
   @Override public void setInputFile( String file ) throws Exception {
@@ -136,43 +177,130 @@ public class PentahoApacheInputFormat extends HadoopFormatBase implements IPenta
     } );
   }
 
+  /**
+   * Target size of the splits returned by {@link #getSplits()} when files are split, bytes. A split holds at least
+   * one row group.
+   */
   @Override
-  @SuppressWarnings("squid:CommentedOutCodeLine")
   public void setSplitSize( long blockSize )
     throws Exception {
-    inClassloader( ()
-      -> /**
-     * TODO Files splitting is temporary disabled. We need some UI
-     * checkbox for allow it, because some parquet files can't be
-     * splitted by errors in previous implementation or other
-     * things. Parquet reports source of problem only to logs, not
-     * to exception. See
-     * CorruptDeltaByteArrays.requiresSequentialReads().
-     *
-     * mapr510 and mapr520 doesn't support SPLIT_FILES property
-     */
-      // ParquetInputFormat.setMaxInputSplitSize( job, blockSize );
-      job.getConfiguration().setBoolean( ParquetInputFormat.SPLIT_FILES, false ) );
+    this.splitSize = blockSize;
+    inClassloader( () -> job.getConfiguration().setBoolean( ParquetInputFormat.SPLIT_FILES, splitFiles ) );
+  }
+
+  /**
+   * Splitting is off by default: some parquet files can't be split because of errors in previous implementations,
+   * and Parquet reports the source of the problem only when the file is read. See
+   * CorruptDeltaByteArrays.requiresSequentialReads(). When it is on, {@link #getSplits()} checks every footer and
+   * reads the affected files whole.
+   */
+  @Override
+  public void setSplitFiles( boolean splitFiles ) throws Exception {
+    this.splitFiles = splitFiles;
+    inClassloader( () -> job.getConfiguration().setBoolean( ParquetInputFormat.SPLIT_FILES, splitFiles ) );
+  }
+
+  @Override
+  public void setColumnarRead( boolean columnarRead ) {
+    this.columnarRead = columnarRead;
   }
 
   @Override public List<IPentahoInputSplit> getSplits() {
     return inClassloader( () -> {
-      List<InputSplit> splits = nativeParquetInputFormat.getSplits( job );
-      return splits.stream().map( PentahoInputSplitImpl::new ).collect( Collectors.toList() );
+      if ( !splitFiles ) {
+        List<InputSplit> splits = nativeParquetInputFormat.getSplits( job );
+        return splits.stream().map( PentahoInputSplitImpl::new ).collect( Collectors.toList() );
+      }
+      List<Footer> footers = nativeParquetInputFormat.getFooters( job );
+      FilterCompat.Filter filter = ParquetInputFormat.getFilter( job.getConfiguration() );
+      List<IPentahoInputSplit> splits = new ArrayList<>();
+      for ( Footer footer : footers ) {
+        addSplits( splits, footer, filter, splitSize );
+      }
+      logger.logBasic( "Planned " + splits.size() + " parquet splits for " + footers.size() + " files" );
+      if ( logger.isDetailed() ) {
+        splits.forEach( split -> logger.logDetailed( "Parquet split " + split ) );
+      }
+      return splits;
     } );
   }
 
+  /**
+   * Cut the row groups of {@code footer}'s file into splits of about {@code splitSize} bytes, or into one split if
+   * the file is not safe to split. Row groups whose statistics don't match {@code filter} are left out of the splits.
+   */
+  protected static void addSplits( List<IPentahoInputSplit> splits, Footer footer, FilterCompat.Filter filter,
+                                   long splitSize ) {
+    ParquetMetadata metadata = footer.getParquetMetadata();
+    if ( metadata.getBlocks().isEmpty() ) {
+      return;
+    }
+    String reason = PentahoParquetInputSplit.getSequentialReadReason( metadata );
+    if ( reason != null ) {
+      logger.logBasic( "Parquet file " + footer.getFile() + " is read without splitting, it was " + reason );
+      splits.add( createSplit( footer.getFile(), metadata.getBlocks(), reason ) );
+      return;
+    }
+    List<BlockMetaData> blocks =
+      RowGroupFilter.filterRowGroups( filter, metadata.getBlocks(), metadata.getFileMetaData().getSchema() );
+    if ( blocks.size() < metadata.getBlocks().size() && logger.isDetailed() ) {
+      logger.logDetailed( "Filter skips " + ( metadata.getBlocks().size() - blocks.size() ) + " of "
+        + metadata.getBlocks().size() + " row groups of parquet file " + footer.getFile() );
+    }
+    if ( blocks.isEmpty() ) {
+      return;
+    }
+    List<BlockMetaData> group = new ArrayList<>();
+    long groupSize = 0;
+    for ( BlockMetaData block : blocks ) {
+      if ( !group.isEmpty() && groupSize >= splitSize ) {
+        splits.add( createSplit( footer.getFile(), group, null ) );
+        group = new ArrayList<>();
+        groupSize = 0;
+      }
+      group.add( block );
+      groupSize += block.getCompressedSize();
+    }
+    splits.add( createSplit( footer.getFile(), group, null ) );
+  }
+
+  @SuppressWarnings( "squid:CallToDeprecatedMethod" )
+  private static PentahoParquetInputSplit createSplit( Path file, List<BlockMetaData> blocks, String reason ) {
+    long[] rowGroupOffsets = new long[ blocks.size() ];
+    for ( int i = 0; i < rowGroupOffsets.length; i++ ) {
+      rowGroupOffsets[ i ] = blocks.get( i ).getStartingPos();
+    }
+    BlockMetaData last = blocks.get( blocks.size() - 1 );
+    long start = rowGroupOffsets[ 0 ];
+    long end = last.getStartingPos() + last.getCompressedSize();
+    return new PentahoParquetInputSplit(
+      new ParquetInputSplit( file, start, end, end - start, new String[ 0 ], rowGroupOffsets ), blocks.size(), reason );
+  }
+
   // for parquet not actual to point split
   @Override public IPentahoRecordReader createRecordReader( IPentahoInputSplit split ) throws Exception {
     return inClassloader( () -> {
       PentahoInputSplitImpl pentahoInputSplit = ( PentahoInputSplitImpl ) split;
       InputSplit inputSplit = pentahoInputSplit.getInputSplit();
 
+      if ( columnarRead && filter == null ) {
+        return new PentahoParquetColumnarRecordReader( job.getConfiguration(), (FileSplit) inputSplit, inputFields,
+          PentahoParquetColumnarRecordReader.DEFAULT_BATCH_SIZE );
+      } else if ( columnarRead ) {
+        logger.logDetailed( "Parquet rows are read one by one, the filter is applied to every row" );
+      }
+
       ReadSupport<RowMetaAndData> readSupport = new PentahoParquetReadSupport();
 
       ParquetRecordReader<RowMetaAndData> nativeRecordReader
         = new ParquetRecordReader<>( readSupport, ParquetInputFormat.getFilter( job.getConfiguration() ) );
-      TaskAttemptContextImpl task = new TaskAttemptContextImpl( job.getConfiguration(), new TaskAttemptID() );
+      Configuration conf = job.getConfiguration();
+      if ( split instanceof PentahoParquetInputSplit && ( (PentahoParquetInputSplit) split ).isSequentialRead() ) {
+        // the split holds the whole file, let parquet read it although splitting is on
+        conf = new Configuration( conf );
+        conf.setBoolean( ParquetInputFormat.SPLIT_FILES, false );
+      }
+      TaskAttemptContextImpl task = new TaskAttemptContextImpl( conf, new TaskAttemptID() );
       nativeRecordReader.initialize( inputSplit, task );
 
       return new PentahoParquetRecordReader( nativeRecordReader );
@@ -187,14 +315,12 @@ public class PentahoApacheInputFormat extends HadoopFormatBase implements IPenta
       Path filePath = new Path( S3NCredentialUtils.scrubFilePathIfNecessary( file ) );
       FileSystem fs = FileSystem.get( filePath.toUri(), conf );
       FileStatus fileStatus = fs.getFileStatus( filePath );
-      List<Footer> footers = ParquetFileReader.readFooters( conf, fileStatus, true );
-      if ( footers.isEmpty() ) {
+      ParquetMetadata meta = ParquetFooterCache.getInstance().getFirstFooter( conf, fileStatus );
+      if ( meta == null ) {
         return new ArrayList<>();
-      } else {
-        ParquetMetadata meta = footers.get( 0 ).getParquetMetadata();
-        MessageType schema = meta.getFileMetaData().getSchema();
-        return ParquetConverter.buildInputFields( schema );
       }
+      MessageType schema = meta.getFileMetaData().getSchema();
+      return ParquetConverter.buildInputFields( schema );
     } );
   }
 }
@@ -52,6 +52,11 @@ public class PentahoApacheOutputFormat extends HadoopFormatBase implements IPent
   protected Job job;
   protected Path outputFile;
   private List<? extends IParquetOutputField> outputFields;
+  private long maxFileSize;
+  private long maxRowCount;
+  private String partitionField;
+  private boolean parallelPartitions;
+  private int maxOpenPartitions = PentahoParquetRollingRecordWriter.DEFAULT_MAX_OPEN_PARTITIONS;
 
   public PentahoApacheOutputFormat() {
     this( null );
@@ -141,6 +146,59 @@ public class PentahoApacheOutputFormat extends HadoopFormatBase implements IPent
     inClassloader( () -> ParquetOutputFormat.setDictionaryPageSize( job, size ) );
   }
 
+  @Override
+  public void setColumnDictionary( String column, boolean useDictionary ) throws Exception {
+    inClassloader( () -> job.getConfiguration().setBoolean( ParquetOutputFormat.ENABLE_DICTIONARY + "#" + column,
+      useDictionary ) );
+  }
+
+  @Override
+  public void setBloomFilter( String column, long expectedDistinctValues ) throws Exception {
+    inClassloader( () -> {
+      job.getConfiguration().setBoolean( ParquetOutputFormat.BLOOM_FILTER_ENABLED + "#" + column, true );
+      if ( expectedDistinctValues > 0 ) {
+        job.getConfiguration()
+          .setLong( ParquetOutputFormat.BLOOM_FILTER_EXPECTED_NDV + "#" + column, expectedDistinctValues );
+      }
+    } );
+  }
+
+  @Override
+  public void setColumnIndexTruncateLength( int length ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setColumnIndexTruncateLength( job, length ) );
+  }
+
+  @Override
+  public void setStatisticsTruncateLength( int length ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setStatisticsTruncateLength( job, length ) );
+  }
+
+  @Override
+  public void setPageRowCountLimit( int rowCount ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setPageRowCountLimit( job, rowCount ) );
+  }
+
+  @Override
+  public void setRollover( long maxFileSize, long maxRowCount ) {
+    this.maxFileSize = maxFileSize;
+    this.maxRowCount = maxRowCount;
+  }
+
+  @Override
+  public void setPartitionField( String fieldName, boolean parallel ) {
+    this.partitionField = StringUtil.isEmpty( fieldName ) ? null : fieldName;
+    this.parallelPartitions = parallel;
+  }
+
+  @Override
+  public void setMaxOpenPartitions( int maxOpenPartitions ) {
+    if ( maxOpenPartitions < 0 ) {
+      throw new IllegalArgumentException( "Maximum number of open partitions must not be negative: "
+        + maxOpenPartitions );
+    }
+    this.maxOpenPartitions = maxOpenPartitions;
+  }
+
   @Override
   public IPentahoRecordWriter createRecordWriter() throws Exception {
     if ( outputFile == null ) {
@@ -150,9 +208,19 @@ public class PentahoApacheOutputFormat extends HadoopFormatBase implements IPent
       throw new IllegalStateException( "Schema is not defined" );
     }
 
+    if ( maxFileSize > 0 || maxRowCount > 0 || partitionField != null ) {
+      logger.info( "Writing parquet part files of up to " + maxFileSize + " bytes and " + maxRowCount
+        + " rows, partitioned by " + partitionField );
+      return new PentahoParquetRollingRecordWriter( outputFile, job.getConfiguration(), maxFileSize, maxRowCount,
+        partitionField, parallelPartitions, maxOpenPartitions, this::openRecordWriter );
+    }
+    return openRecordWriter( outputFile );
+  }
+
+  private PentahoParquetRecordWriter openRecordWriter( Path file ) {
     return inClassloader( () -> {
       FixedParquetOutputFormat nativeParquetOutputFormat
-        = new FixedParquetOutputFormat( new PentahoParquetWriteSupport( outputFields ) );
+        = new FixedParquetOutputFormat( new PentahoParquetWriteSupport( outputFields ), file );
 
       TaskAttemptID taskAttemptID = new TaskAttemptID( "qq", 111, TaskType.MAP, 11, 11 );
       TaskAttemptContextImpl task = new TaskAttemptContextImpl( job.getConfiguration(), taskAttemptID );
@@ -190,13 +258,20 @@ public class PentahoApacheOutputFormat extends HadoopFormatBase implements IPent
   }
 
   public class FixedParquetOutputFormat extends ParquetOutputFormat<RowMetaAndData> {
+    private final Path workFile;
+
     public FixedParquetOutputFormat( PentahoParquetWriteSupport writeSupport ) {
+      this( writeSupport, null );
+    }
+
+    public FixedParquetOutputFormat( PentahoParquetWriteSupport writeSupport, Path workFile ) {
       super( writeSupport );
+      this.workFile = workFile;
     }
 
     @Override
     public Path getDefaultWorkFile( TaskAttemptContext context, String extension ) throws IOException {
-      return outputFile;
+      return workFile != null ? workFile : outputFile;
     }
   }
 }
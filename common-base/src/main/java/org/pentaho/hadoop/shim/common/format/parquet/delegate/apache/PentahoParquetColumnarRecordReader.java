@@ -0,0 +1,345 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet.delegate.apache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetInputSplit;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.hadoop.shim.api.format.ColumnBatch;
+import org.pentaho.hadoop.shim.api.format.ColumnBatch.ColumnType;
+import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+import org.pentaho.hadoop.shim.api.format.IPentahoColumnarRecordReader;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetSchemaProjection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the row groups of a split column by column into {@link ColumnBatch}es, skipping the record assembly of
+ * {@link org.apache.parquet.hadoop.ParquetRecordReader}. A column read by several fields is decoded once.
+ * <p>
+ * The rows of the iterator are built from the batches with the converters of {@link ParquetConverter}, so they hold
+ * the same values as the rows of {@link PentahoParquetRecordReader}.
+ */
+public class PentahoParquetColumnarRecordReader implements IPentahoColumnarRecordReader {
+  public static final int DEFAULT_BATCH_SIZE = 4096;
+
+  private final ParquetFileReader reader;
+  private final MessageType requestedSchema;
+  private final String createdBy;
+  private final ColumnDescriptor[] descriptors;
+  private final ColumnReader[] columnReaders;
+  private final ColumnBatch batch;
+  private final List<? extends IParquetInputField> fields;
+  private final int[] fieldColumns;
+  private long rowsLeftInRowGroup;
+
+  public PentahoParquetColumnarRecordReader( Configuration conf, FileSplit split,
+                                             List<? extends IParquetInputField> inputFields, int batchSize )
+    throws IOException {
+    ParquetReadOptions.Builder options = HadoopReadOptions.builder( conf );
+    long[] rowGroupOffsets = split instanceof ParquetInputSplit
+      ? ( (ParquetInputSplit) split ).getRowGroupOffsets() : null;
+    if ( rowGroupOffsets != null ) {
+      options.withOffsets( rowGroupOffsets );
+    } else {
+      options.withRange( split.getStart(), split.getStart() + split.getLength() );
+    }
+    reader = ParquetFileReader.open( HadoopInputFile.fromPath( split.getPath(), conf ), options.build() );
+    try {
+      MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+      createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+      ParquetSchemaProjection projection = new ParquetSchemaProjection( fileSchema, inputFields );
+      requestedSchema = projection.getRequestedSchema();
+      reader.setRequestedSchema( requestedSchema );
+
+      fields = selectFields( inputFields );
+      fieldColumns = new int[ fields.size() ];
+      List<ColumnDescriptor> columns = new ArrayList<>();
+      List<String[]> paths = projection.getFieldPaths();
+      for ( int i = 0; i < fieldColumns.length; i++ ) {
+        ColumnDescriptor descriptor = requestedSchema.getColumnDescription( paths.get( i ) );
+        if ( descriptor.getMaxRepetitionLevel() > 0 ) {
+          throw new IllegalArgumentException( "Field " + fields.get( i ).getFormatFieldName()
+            + " is repeated, only non-repeated fields can be read by columns." );
+        }
+        int column = columns.indexOf( descriptor );
+        if ( column < 0 ) {
+          column = columns.size();
+          columns.add( descriptor );
+        }
+        fieldColumns[ i ] = column;
+      }
+      descriptors = columns.toArray( new ColumnDescriptor[ 0 ] );
+      columnReaders = new ColumnReader[ descriptors.length ];
+      String[] names = new String[ descriptors.length ];
+      ColumnType[] types = new ColumnType[ descriptors.length ];
+      for ( int c = 0; c < descriptors.length; c++ ) {
+        names[ c ] = String.join( ".", descriptors[ c ].getPath() );
+        types[ c ] = getColumnType( descriptors[ c ].getPrimitiveType().getPrimitiveTypeName() );
+      }
+      batch = new ColumnBatch( names, types, batchSize );
+    } catch ( RuntimeException e ) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  private static List<? extends IParquetInputField> selectFields( List<? extends IParquetInputField> inputFields ) {
+    List<IParquetInputField> selected = new ArrayList<>( inputFields.size() );
+    for ( IParquetInputField field : inputFields ) {
+      if ( field.getFormatFieldName() != null ) {
+        selected.add( field );
+      }
+    }
+    return selected;
+  }
+
+  static ColumnType getColumnType( PrimitiveTypeName type ) {
+    switch ( type ) {
+      case INT32:
+      case INT64:
+        return ColumnType.LONG;
+      case FLOAT:
+      case DOUBLE:
+        return ColumnType.DOUBLE;
+      case BOOLEAN:
+        return ColumnType.BOOLEAN;
+      default:
+        return ColumnType.BINARY;
+    }
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException {
+    while ( rowsLeftInRowGroup == 0 ) {
+      PageReadStore pages = reader.readNextRowGroup();
+      if ( pages == null ) {
+        return null;
+      }
+      rowsLeftInRowGroup = pages.getRowCount();
+      ColumnReadStoreImpl store =
+        new ColumnReadStoreImpl( pages, new NoOpGroupConverter( requestedSchema ), requestedSchema, createdBy );
+      for ( int c = 0; c < descriptors.length; c++ ) {
+        columnReaders[ c ] = store.getColumnReader( descriptors[ c ] );
+      }
+    }
+    int size = (int) Math.min( batch.capacity(), rowsLeftInRowGroup );
+    batch.reset( size );
+    for ( int c = 0; c < descriptors.length; c++ ) {
+      readColumn( columnReaders[ c ], descriptors[ c ], batch.getColumn( c ), size );
+    }
+    rowsLeftInRowGroup -= size;
+    return batch;
+  }
+
+  private static void readColumn( ColumnReader reader, ColumnDescriptor descriptor, ColumnBatch.Column column,
+                                  int size ) {
+    int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+    switch ( descriptor.getPrimitiveType().getPrimitiveTypeName() ) {
+      case INT32:
+        long[] ints = column.getLongs();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+          } else {
+            ints[ row ] = reader.getInteger();
+          }
+        }
+        break;
+      case INT64:
+        long[] longs = column.getLongs();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+          } else {
+            longs[ row ] = reader.getLong();
+          }
+        }
+        break;
+      case FLOAT:
+        double[] floats = column.getDoubles();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+          } else {
+            floats[ row ] = reader.getFloat();
+          }
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = column.getDoubles();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+          } else {
+            doubles[ row ] = reader.getDouble();
+          }
+        }
+        break;
+      case BOOLEAN:
+        boolean[] booleans = column.getBooleans();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+          } else {
+            booleans[ row ] = reader.getBoolean();
+          }
+        }
+        break;
+      default:
+        byte[][] binaries = column.getBinaries();
+        for ( int row = 0; row < size; row++, reader.consume() ) {
+          if ( reader.getCurrentDefinitionLevel() < maxDefinitionLevel ) {
+            column.setNull( row );
+            binaries[ row ] = null;
+          } else {
+            binaries[ row ] = reader.getBinary().getBytesUnsafe();
+          }
+        }
+        break;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  @Override
+  public Iterator<RowMetaAndData> iterator() {
+    ParquetConverter.MyGroupConverter converter = new ParquetConverter.MyGroupConverter( new ParquetConverter( fields ) );
+    PrimitiveConverter[] converters = new PrimitiveConverter[ fields.size() ];
+    for ( int i = 0; i < converters.length; i++ ) {
+      converters[ i ] = converter.getFieldConverter( i );
+    }
+    return new Iterator<RowMetaAndData>() {
+      private ColumnBatch current;
+      private int row;
+      private boolean done;
+
+      @Override
+      public boolean hasNext() {
+        while ( !done && ( current == null || row >= current.size() ) ) {
+          try {
+            current = nextBatch();
+          } catch ( IOException e ) {
+            throw new IllegalArgumentException( "some error while reading parquet file", e );
+          }
+          row = 0;
+          done = current == null;
+        }
+        return !done;
+      }
+
+      @Override
+      public RowMetaAndData next() {
+        if ( !hasNext() ) {
+          throw new NoSuchElementException();
+        }
+        converter.start();
+        for ( int i = 0; i < converters.length; i++ ) {
+          ColumnBatch.Column column = current.getColumn( fieldColumns[ i ] );
+          if ( !column.isNull( row ) ) {
+            addValue( converters[ i ], descriptors[ fieldColumns[ i ] ], column, row );
+          }
+        }
+        converter.end();
+        row++;
+        return converter.getCurrentRecord();
+      }
+    };
+  }
+
+  /**
+   * Pass a value to a converter the way Parquet's record assembly does, with its physical type.
+   */
+  private static void addValue( PrimitiveConverter converter, ColumnDescriptor descriptor, ColumnBatch.Column column,
+                                int row ) {
+    switch ( descriptor.getPrimitiveType().getPrimitiveTypeName() ) {
+      case INT32:
+        converter.addInt( (int) column.getLongs()[ row ] );
+        break;
+      case INT64:
+        converter.addLong( column.getLongs()[ row ] );
+        break;
+      case FLOAT:
+        converter.addFloat( (float) column.getDoubles()[ row ] );
+        break;
+      case DOUBLE:
+        converter.addDouble( column.getDoubles()[ row ] );
+        break;
+      case BOOLEAN:
+        converter.addBoolean( column.getBooleans()[ row ] );
+        break;
+      default:
+        converter.addBinary( Binary.fromConstantByteArray( column.getBinaries()[ row ] ) );
+        break;
+    }
+  }
+
+  /**
+   * Converter tree matching the requested schema, needed by {@link ColumnReadStoreImpl}; the values are taken from
+   * the column readers directly.
+   */
+  private static class NoOpGroupConverter extends GroupConverter {
+    private final Converter[] converters;
+
+    NoOpGroupConverter( GroupType type ) {
+      converters = new Converter[ type.getFieldCount() ];
+      for ( int i = 0; i < converters.length; i++ ) {
+        Type field = type.getType( i );
+        if ( field.isPrimitive() ) {
+          converters[ i ] = new PrimitiveConverter() { };
+        } else {
+          converters[ i ] = new NoOpGroupConverter( field.asGroupType() );
+        }
+      }
+    }
+
+    @Override
+    public Converter getConverter( int fieldIndex ) {
+      return converters[ fieldIndex ];
+    }
+
+    @Override
+    public void start() {
+      // values are read from the column readers
+    }
+
+    @Override
+    public void end() {
+      // values are read from the column readers
+    }
+  }
+}
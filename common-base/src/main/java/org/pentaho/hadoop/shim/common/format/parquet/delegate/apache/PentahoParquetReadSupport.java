@@ -12,7 +12,6 @@
 
 package org.pentaho.hadoop.shim.common.format.parquet.delegate.apache;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,10 +21,10 @@ import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.io.api.RecordMaterializer;
 import org.apache.parquet.schema.MessageType;
-import org.apache.parquet.schema.Type;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
 import org.pentaho.hadoop.shim.common.format.parquet.ParquetInputFieldList;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetSchemaProjection;
 
 public class PentahoParquetReadSupport extends ReadSupport<RowMetaAndData> {
   ParquetConverter converter;
@@ -39,20 +38,11 @@ public class PentahoParquetReadSupport extends ReadSupport<RowMetaAndData> {
     }
 
     ParquetInputFieldList schema = ParquetInputFieldList.unmarshall( schemaStr );
-    converter = new ParquetConverter( schema.getFields() );
 
-    // get all fields from file's schema
-    MessageType fileSchema = context.getFileSchema();
-    List<Type> newFields = new ArrayList<>();
-    // use only required fields
-    for ( IParquetInputField f : schema ) {
-      Type origField = fileSchema.getFields().get( fileSchema.getFieldIndex( f.getFormatFieldName() ) );
-      newFields.add( origField );
-    }
-    if ( newFields.isEmpty() ) {
-      throw new RuntimeException( "Fields should be declared" );
-    }
-    MessageType newSchema = new MessageType( fileSchema.getName(), newFields );
+    // read only the column chunks of the required fields
+    ParquetSchemaProjection projection = new ParquetSchemaProjection( context.getFileSchema(), schema.getFields() );
+    converter = new ParquetConverter( schema.getFields(), projection );
+    MessageType newSchema = projection.getRequestedSchema();
 
     return new ReadContext( newSchema, new HashMap<>() );
   }
@@ -0,0 +1,250 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet.delegate.apache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.hadoop.shim.api.format.AsyncRecordWriter;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the rows into a directory of part files, starting a new part once the current one reaches the maximum size
+ * or row count. With a partition field, the rows of every value go to their own {@code field=value} sub directory,
+ * which has its own sequence of parts. The produced files are listed in a {@value #MANIFEST_FILE} file on close.
+ * <p>
+ * At most {@code maxOpenPartitions} partitions have an open writer. Opening one more closes the part of the least
+ * recently written partition, whose next row starts a new part.
+ * <p>
+ * The size of a part is the number of bytes its writer has flushed to the file system, so a part overshoots the
+ * maximum size by at most one row group. File systems which don't report write statistics roll on the row count only.
+ */
+public class PentahoParquetRollingRecordWriter implements IPentahoRecordWriter {
+  public static final String MANIFEST_FILE = "_manifest";
+  public static final String NULL_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+  public static final int DEFAULT_MAX_OPEN_PARTITIONS = 32;
+
+  static final int PARTITION_QUEUE_DEPTH = 1024;
+
+  @FunctionalInterface
+  public interface PartWriterFactory {
+    IPentahoRecordWriter open( Path file ) throws Exception;
+  }
+
+  private final Path directory;
+  private final Configuration conf;
+  private final long maxFileSize;
+  private final long maxRowCount;
+  private final String partitionField;
+  private final boolean parallel;
+  private final int maxOpenPartitions;
+  private final PartWriterFactory factory;
+
+  // access ordered, the first open part is the least recently written one
+  private final Map<String, Part> parts = new LinkedHashMap<>( 16, 0.75f, true );
+  private final List<Path> outputFiles = new ArrayList<>();
+  private int openParts;
+
+  /**
+   * @param maxOpenPartitions maximum number of partitions written at the same time, 0 meaning no limit
+   */
+  public PentahoParquetRollingRecordWriter( Path directory, Configuration conf, long maxFileSize, long maxRowCount,
+                                            String partitionField, boolean parallel, int maxOpenPartitions,
+                                            PartWriterFactory factory ) {
+    this.directory = directory;
+    this.conf = conf;
+    this.maxFileSize = maxFileSize;
+    this.maxRowCount = maxRowCount;
+    this.partitionField = partitionField;
+    this.parallel = parallel && partitionField != null;
+    this.maxOpenPartitions = maxOpenPartitions;
+    this.factory = factory;
+  }
+
+  @Override
+  public void write( RowMetaAndData row ) throws Exception {
+    Part part = parts.computeIfAbsent( getPartitionDirectory( row ), Part::new );
+    if ( part.writer == null ) {
+      if ( maxOpenPartitions > 0 && openParts >= maxOpenPartitions ) {
+        closeLeastRecentlyWritten( part );
+      }
+      part.open();
+    }
+    part.writer.write( row );
+    part.rowCount++;
+    if ( ( maxRowCount > 0 && part.rowCount >= maxRowCount )
+      || ( maxFileSize > 0 && part.counter.bytesWritten >= maxFileSize ) ) {
+      // the next part is opened by the next row, so that no empty part is left behind
+      part.close();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for ( Part part : parts.values() ) {
+      try {
+        part.close();
+      } catch ( IOException e ) {
+        if ( failure == null ) {
+          failure = e;
+        } else {
+          failure.addSuppressed( e );
+        }
+      }
+    }
+    if ( failure != null ) {
+      throw failure;
+    }
+    writeManifest();
+  }
+
+  private void closeLeastRecentlyWritten( Part current ) throws IOException {
+    for ( Part part : parts.values() ) {
+      if ( part != current && part.writer != null ) {
+        part.close();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Part files completed so far, in the order they were finished.
+   */
+  public List<Path> getOutputFiles() {
+    return Collections.unmodifiableList( outputFiles );
+  }
+
+  private String getPartitionDirectory( RowMetaAndData row ) throws Exception {
+    if ( partitionField == null ) {
+      return "";
+    }
+    int index = row.getRowMeta().indexOfValue( partitionField );
+    if ( index < 0 ) {
+      throw new IllegalArgumentException( "Partition field " + partitionField + " is not in the row" );
+    }
+    ValueMetaInterface valueMeta = row.getRowMeta().getValueMeta( index );
+    Object value = row.getData()[ index ];
+    String string = valueMeta.isNull( value ) ? null : valueMeta.getString( value );
+    return escapePathName( partitionField ) + "=" + ( string == null ? NULL_PARTITION : escapePathName( string ) );
+  }
+
+  /**
+   * Escapes the characters which are not safe in a path name the way Hive does, as %XX.
+   */
+  static String escapePathName( String name ) {
+    StringBuilder sb = new StringBuilder( name.length() );
+    for ( int i = 0; i < name.length(); i++ ) {
+      char c = name.charAt( i );
+      if ( c < ' ' || c == 0x7F || "\"#%'*/:=?\\{[]^".indexOf( c ) >= 0 ) {
+        sb.append( '%' ).append( String.format( "%02X", (int) c ) );
+      } else {
+        sb.append( c );
+      }
+    }
+    return sb.toString();
+  }
+
+  private void writeManifest() throws IOException {
+    FileSystem fs = directory.getFileSystem( conf );
+    try ( FSDataOutputStream out = fs.create( new Path( directory, MANIFEST_FILE ), true ) ) {
+      String root = directory.toUri().getPath();
+      for ( Path file : outputFiles ) {
+        String path = file.toUri().getPath();
+        String relative = path.startsWith( root + "/" ) ? path.substring( root.length() + 1 ) : path;
+        out.write( ( relative + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+      }
+    }
+  }
+
+  private class Part {
+    private final Path partDirectory;
+    private int sequence;
+    private long rowCount;
+    private Path file;
+    private CountingRecordWriter counter;
+    private IPentahoRecordWriter writer;
+
+    Part( String name ) {
+      partDirectory = name.isEmpty() ? directory : new Path( directory, name );
+    }
+
+    void open() throws Exception {
+      file = new Path( partDirectory, String.format( "part-%05d.parquet", sequence++ ) );
+      rowCount = 0;
+      counter = new CountingRecordWriter( factory.open( file ), getStatistics( file ) );
+      writer = parallel ? new AsyncRecordWriter( counter, PARTITION_QUEUE_DEPTH ) : counter;
+      openParts++;
+    }
+
+    void close() throws IOException {
+      if ( writer != null ) {
+        IPentahoRecordWriter current = writer;
+        writer = null;
+        openParts--;
+        current.close();
+        outputFiles.add( file );
+      }
+    }
+
+    private FileSystem.Statistics getStatistics( Path file ) throws IOException {
+      FileSystem fs = file.getFileSystem( conf );
+      return FileSystem.getStatistics( fs.getUri().getScheme(), fs.getClass() );
+    }
+  }
+
+  /**
+   * Counts the bytes the wrapped writer flushes, from the file system statistics of the writing thread.
+   */
+  private static class CountingRecordWriter implements IPentahoRecordWriter {
+    private final IPentahoRecordWriter delegate;
+    private final FileSystem.Statistics statistics;
+    private volatile long bytesWritten;
+
+    CountingRecordWriter( IPentahoRecordWriter delegate, FileSystem.Statistics statistics ) {
+      this.delegate = delegate;
+      this.statistics = statistics;
+    }
+
+    @Override
+    public void write( RowMetaAndData row ) throws Exception {
+      long before = statistics.getThreadStatistics().getBytesWritten();
+      delegate.write( row );
+      bytesWritten += statistics.getThreadStatistics().getBytesWritten() - before;
+    }
+
+    @Override
+    public void writeBatch( List<RowMetaAndData> rows ) throws Exception {
+      long before = statistics.getThreadStatistics().getBytesWritten();
+      delegate.writeBatch( rows );
+      bytesWritten += statistics.getThreadStatistics().getBytesWritten() - before;
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+}
@@ -13,18 +13,15 @@
 package org.pentaho.hadoop.shim.common.format.parquet.delegate.apache;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.time.temporal.JulianFields;
 import java.util.ArrayList;
 import java.util.Date;
@@ -52,7 +49,8 @@ import org.pentaho.hadoop.shim.api.format.ParquetSpec;
 public class PentahoParquetWriteSupport extends WriteSupport<RowMetaAndData> {
   private RecordConsumer consumer;
   private List<? extends IParquetOutputField> outputFields;
-  byte[] timestampBuffer = new byte[ 12 ];
+  private FieldWriter[] fieldWriters;
+  private RowMetaInterface boundRowMeta;
 
   public PentahoParquetWriteSupport( List<? extends IParquetOutputField> outputFields ) {
     this.outputFields = outputFields;
@@ -70,6 +68,8 @@ public class PentahoParquetWriteSupport extends WriteSupport<RowMetaAndData> {
   @Override
   public void prepareForWrite( RecordConsumer recordConsumer ) {
     consumer = recordConsumer;
+    fieldWriters = createFieldWriters();
+    boundRowMeta = null;
   }
 
   @Override
@@ -92,15 +92,12 @@ public class PentahoParquetWriteSupport extends WriteSupport<RowMetaAndData> {
   }
 
   public void writeRow( RowMetaAndData row, RecordConsumer consumer ) {
+    bindFieldWriters( row.getRowMeta() );
+    Object[] data = row.getData();
     consumer.startMessage();
-    int index = 0;
-    for ( IParquetOutputField f : outputFields ) {
-      if ( f.getFormatFieldName() == null ) {
-        continue;
-      }
+    for ( FieldWriter fieldWriter : fieldWriters ) {
       try {
-        writeField( f, index, row, consumer );
-        index++;
+        fieldWriter.write( data, consumer );
       } catch ( KettleValueException ex ) {
         throw new RuntimeException( ex );
       }
@@ -108,231 +105,398 @@ public class PentahoParquetWriteSupport extends WriteSupport<RowMetaAndData> {
     consumer.endMessage();
   }
 
-  private void writeField( IParquetOutputField field, int index, RowMetaAndData row, RecordConsumer consumer )
-    throws KettleValueException {
-    RowMetaInterface rmi = row.getRowMeta();
-    int fieldIndex = row.getRowMeta().indexOfValue( field.getPentahoFieldName() );
-    ValueMetaInterface vmi = rmi.getValueMeta( fieldIndex );
-    String conversionMask = null;
-    String defaultValue = null;
-    DateFormat dateFormat = null;
-    TimeZone timeZone = null;
-    LocalDate localDate = null;
-
-    if ( fieldIndex < 0 ) {
-      if ( field.getAllowNull() ) {
-        return;
-      } else {
-        throw new KettleValueException( "Required field '" + field.getPentahoFieldName() + "' not found in rowset" );
-      }
+  /**
+   * Resolve the row index, value meta and default value of every field against {@code rowMeta}. Rows usually share
+   * their row meta, so this only happens again when a row with a different one is written.
+   */
+  private void bindFieldWriters( RowMetaInterface rowMeta ) {
+    if ( rowMeta == boundRowMeta ) {
+      return;
     }
-    if ( row.isEmptyValue( field.getPentahoFieldName() ) ) {
-      if ( field.getAllowNull() ) {
-        return;
-      } else {
-        if ( field.getDefaultValue() == null ) {
-          throw new KettleValueException(
-            "Required field '" + field.getPentahoFieldName() + "' contains no data and default values not defined" );
-        } else {
-          // put default value
-          BigDecimal bigDecimal;
-          consumer.startField( field.getFormatFieldName(), index );
-          switch ( field.getParquetType() ) {
-            case FLOAT:
-              consumer.addFloat( applyScale( Float.parseFloat( field.getDefaultValue() ), field ) );
-              break;
-            case DOUBLE:
-              consumer.addDouble( applyScale( Double.parseDouble( field.getDefaultValue() ), field ) );
-              break;
-            case BINARY:
-            case UTF8:
-              consumer.addBinary( Binary.fromString( field.getDefaultValue() ) );
-              break;
-            case BOOLEAN:
-              consumer.addBoolean( Boolean.parseBoolean( field.getDefaultValue() ) );
-              break;
-            case INT_32:
-              consumer.addInteger( Integer.parseInt( field.getDefaultValue() ) );
-              break;
-            case TIMESTAMP_MILLIS:
-            case INT_64:
-              consumer.addLong( Long.parseLong( field.getDefaultValue() ) );
-              break;
-            case INT_96:
-              Date date = null;
-              defaultValue = field.getDefaultValue();
-              conversionMask =
-                ( vmi.getConversionMask() == null ) ? ValueMetaBase.DEFAULT_DATE_PARSE_MASK : vmi.getConversionMask();
-              dateFormat = new SimpleDateFormat( conversionMask );
-              try {
-                date = dateFormat.parse( defaultValue );
-              } catch ( ParseException pe ) {
-                date = new Date( 0 );
-              }
-
-              timeZone = vmi.getDateFormatTimeZone();
-              if ( timeZone == null ) {
-                timeZone = TimeZone.getDefault();
-              }
-
-              localDate = date.toInstant().atZone( timeZone.toZoneId() ).toLocalDate();
-              long julianDay = JulianFields.JULIAN_DAY.getFrom( localDate );
-
-              LocalDateTime ldt = LocalDateTime.ofInstant( date.toInstant(), timeZone.toZoneId() );
-              ZonedDateTime zdt = ldt.atZone( timeZone.toZoneId() );
-              ZonedDateTime utc = zdt.withZoneSameInstant( ZoneId.of( "UTC" ) );
-
-              long timeOfDayNanos =
-                utc.toInstant().toEpochMilli() * 1000000L - ( ( julianDay - ParquetSpec.JULIAN_DAY_OF_EPOCH ) * 24L
-                  * 60L * 60L * 1000L * 1000000L );
-              ByteBuffer buf = ByteBuffer.wrap( timestampBuffer );
-
-              buf.order( ByteOrder.LITTLE_ENDIAN ).putLong( timeOfDayNanos ).putInt( (int) julianDay );
-              consumer.addBinary( Binary.fromReusedByteArray( timestampBuffer ) );
-              break;
-            case DECIMAL:
-              bigDecimal = new BigDecimal( field.getDefaultValue() );
-              if ( bigDecimal != null ) {
-                bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-                  .setScale( field.getScale(), RoundingMode.HALF_UP );
-              }
-              consumer.addBinary( Binary.fromConstantByteArray( bigDecimal.unscaledValue().toByteArray() ) );
-              break;
-            case DECIMAL_INT_32:
-              bigDecimal = new BigDecimal( field.getDefaultValue() );
-              if ( bigDecimal != null ) {
-                bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-                  .setScale( field.getScale(), RoundingMode.HALF_UP );
-              }
-              consumer.addInteger( bigDecimal.unscaledValue().intValue() );
-              break;
-            case DECIMAL_INT_64:
-              bigDecimal = new BigDecimal( field.getDefaultValue() );
-              if ( bigDecimal != null ) {
-                bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-                  .setScale( field.getScale(), RoundingMode.HALF_UP );
-              }
-              consumer.addLong( bigDecimal.unscaledValue().longValue() );
-              break;
-            case DATE:
-              Date defaultDate = null;
-              defaultValue = field.getDefaultValue();
-              conversionMask =
-                ( vmi.getConversionMask() == null ) ? ValueMetaBase.DEFAULT_DATE_PARSE_MASK : vmi.getConversionMask();
-              dateFormat = new SimpleDateFormat( conversionMask );
-              try {
-                defaultDate = dateFormat.parse( defaultValue );
-              } catch ( ParseException pe ) {
-                // Do nothing
-              }
-              timeZone = vmi.getDateFormatTimeZone();
-              if ( timeZone == null ) {
-                timeZone = TimeZone.getDefault();
-              }
-              localDate = defaultDate.toInstant().atZone( timeZone.toZoneId() ).toLocalDate();
-              Integer dateInDays = Math.toIntExact( ChronoUnit.DAYS.between( LocalDate.ofEpochDay( 0 ), localDate ) );
-              consumer.addInteger( dateInDays );
-              break;
-            default:
-              throw new RuntimeException( "Undefined type: " + field.getPentahoType() );
-          }
-          consumer.endField( field.getFormatFieldName(), index );
-          return;
-        }
+    if ( fieldWriters == null ) {
+      fieldWriters = createFieldWriters();
+    }
+    for ( FieldWriter fieldWriter : fieldWriters ) {
+      fieldWriter.bind( rowMeta );
+    }
+    boundRowMeta = rowMeta;
+  }
+
+  private FieldWriter[] createFieldWriters() {
+    List<FieldWriter> writers = new ArrayList<>( outputFields.size() );
+    for ( IParquetOutputField field : outputFields ) {
+      if ( field.getFormatFieldName() != null ) {
+        writers.add( createFieldWriter( writers.size(), field ) );
       }
     }
-    consumer.startField( field.getFormatFieldName(), index );
+    return writers.toArray( new FieldWriter[ 0 ] );
+  }
+
+  private FieldWriter createFieldWriter( int index, IParquetOutputField field ) {
     switch ( field.getParquetType() ) {
       case FLOAT:
-        consumer.addFloat( applyScale( (float) row.getNumber( fieldIndex, 0 ), field ) );
-        break;
+        return new FloatFieldWriter( index, field );
       case DOUBLE:
-        consumer.addDouble( applyScale( row.getNumber( fieldIndex, 0 ), field ) );
-        break;
+        return new DoubleFieldWriter( index, field );
       case BINARY:
-        byte[] bytes = row.getBinary( fieldIndex, null );
-        consumer.addBinary( Binary.fromConstantByteArray( bytes ) );
-        break;
+        return new BinaryFieldWriter( index, field );
       case UTF8:
-        consumer.addBinary( Binary.fromString( row.getString( fieldIndex, null ) ) );
-        break;
+        return new StringFieldWriter( index, field );
       case BOOLEAN:
-        consumer.addBoolean( row.getBoolean( fieldIndex, false ) );
-        break;
+        return new BooleanFieldWriter( index, field );
       case INT_32:
-        Long tmpLong = row.getInteger( fieldIndex, 0 );
-        consumer.addInteger( tmpLong.intValue() );
-        break;
-      case TIMESTAMP_MILLIS:
-        Date timeStamp = row.getDate( fieldIndex, null );
-        consumer.addLong( timeStamp.getTime() );
-        break;
+        return new IntFieldWriter( index, field );
       case INT_64:
-        consumer.addLong( row.getInteger( fieldIndex, 0 ) );
-        break;
+        return new LongFieldWriter( index, field );
+      case TIMESTAMP_MILLIS:
+        return new TimestampMillisFieldWriter( index, field );
       case INT_96:
-        Date date = row.getDate( fieldIndex, null );
-        timeZone = vmi.getDateFormatTimeZone();
-        if ( timeZone == null ) {
-          timeZone = TimeZone.getDefault();
-        }
+        return new Int96FieldWriter( index, field );
+      case DECIMAL:
+      case DECIMAL_INT_32:
+      case DECIMAL_INT_64:
+        return new DecimalFieldWriter( index, field );
+      case DATE:
+        return new DateFieldWriter( index, field );
+      default:
+        throw new RuntimeException( "Undefined type: " + field.getPentahoType() );
+    }
+  }
 
-        localDate = date.toInstant().atZone( timeZone.toZoneId() ).toLocalDate();
-        long julianDay = JulianFields.JULIAN_DAY.getFrom( localDate );
+  /**
+   * Writes one output field into its column of the record.
+   */
+  private abstract static class FieldWriter {
+    protected final int index;
+    protected final IParquetOutputField field;
+    private final String name;
+    protected int rowIndex;
+    protected ValueMetaInterface valueMeta;
+    private RuntimeException defaultValueError;
 
-        LocalDateTime ldt = LocalDateTime.ofInstant( date.toInstant(), timeZone.toZoneId() );
-        ZonedDateTime zdt = ldt.atZone( timeZone.toZoneId() );
-        ZonedDateTime utc = zdt.withZoneSameInstant( ZoneId.of( "UTC" ) );
+    FieldWriter( int index, IParquetOutputField field ) {
+      this.index = index;
+      this.field = field;
+      this.name = field.getFormatFieldName();
+    }
 
-        long timeOfDayNanos =
-          utc.toInstant().toEpochMilli() * 1000000L - ( ( julianDay - ParquetSpec.JULIAN_DAY_OF_EPOCH ) * 24L * 60L
-            * 60L * 1000L * 1000000L );
-        ByteBuffer buf = ByteBuffer.wrap( timestampBuffer );
-        buf.order( ByteOrder.LITTLE_ENDIAN ).putLong( timeOfDayNanos ).putInt( (int) julianDay );
-        consumer.addBinary( Binary.fromReusedByteArray( timestampBuffer ) );
-        break;
-      case DECIMAL:
-        BigDecimal bigDecimal = row.getBigNumber( fieldIndex, null );
-        if ( bigDecimal != null ) {
-          bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-            .setScale( field.getScale(), RoundingMode.HALF_UP );
+    void bind( RowMetaInterface rowMeta ) {
+      rowIndex = rowMeta.indexOfValue( field.getPentahoFieldName() );
+      valueMeta = rowIndex < 0 ? null : rowMeta.getValueMeta( rowIndex );
+      defaultValueError = null;
+      if ( valueMeta != null && !field.getAllowNull() && field.getDefaultValue() != null ) {
+        try {
+          bindDefaultValue( field.getDefaultValue() );
+        } catch ( RuntimeException e ) {
+          // only fails the rows which need the default value
+          defaultValueError = e;
         }
-        consumer.addBinary( Binary.fromConstantByteArray( bigDecimal.unscaledValue().toByteArray() ) );
-        break;
-      case DECIMAL_INT_32:
-        bigDecimal = row.getBigNumber( fieldIndex, null );
-        if ( bigDecimal != null ) {
-          bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-            .setScale( field.getScale(), RoundingMode.HALF_UP );
+      }
+    }
+
+    void write( Object[] data, RecordConsumer consumer ) throws KettleValueException {
+      if ( rowIndex < 0 ) {
+        if ( field.getAllowNull() ) {
+          return;
         }
-        consumer.addInteger( bigDecimal.unscaledValue().intValue() );
-        break;
-      case DECIMAL_INT_64:
-        bigDecimal = row.getBigNumber( fieldIndex, null );
-        if ( bigDecimal != null ) {
-          bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(), RoundingMode.HALF_UP ) )
-            .setScale( field.getScale(), RoundingMode.HALF_UP );
+        throw new KettleValueException( "Required field '" + field.getPentahoFieldName() + "' not found in rowset" );
+      }
+      Object value = data[ rowIndex ];
+      if ( valueMeta.isNull( value ) ) {
+        if ( field.getAllowNull() ) {
+          return;
         }
-        consumer.addLong( bigDecimal.unscaledValue().longValue() );
-        break;
-      case DATE:
-        Date dateFromRow = row.getDate( fieldIndex, null );
-        timeZone = vmi.getDateFormatTimeZone();
-        if ( timeZone == null ) {
-          timeZone = TimeZone.getDefault();
+        if ( field.getDefaultValue() == null ) {
+          throw new KettleValueException(
+            "Required field '" + field.getPentahoFieldName() + "' contains no data and default values not defined" );
         }
-        localDate = dateFromRow.toInstant().atZone( timeZone.toZoneId() ).toLocalDate();
-        Integer dateInDays = Math.toIntExact( ChronoUnit.DAYS.between( LocalDate.ofEpochDay( 0 ), localDate ) );
-        consumer.addInteger( dateInDays );
-        break;
-      default:
-        throw new RuntimeException( "Undefined type: " + field.getPentahoType() );
+        if ( defaultValueError != null ) {
+          throw defaultValueError;
+        }
+        consumer.startField( name, index );
+        addDefaultValue( consumer );
+        consumer.endField( name, index );
+        return;
+      }
+      consumer.startField( name, index );
+      addValue( consumer, value );
+      consumer.endField( name, index );
     }
 
-    consumer.endField( field.getFormatFieldName(), index );
+    /**
+     * Parse the default value, which is written instead of null values if the field does not allow nulls.
+     */
+    protected abstract void bindDefaultValue( String defaultValue );
+
+    protected abstract void addDefaultValue( RecordConsumer consumer );
+
+    protected abstract void addValue( RecordConsumer consumer, Object value ) throws KettleValueException;
+  }
+
+  private static class FloatFieldWriter extends FieldWriter {
+    private float defaultValue;
+
+    FloatFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = applyScale( Float.parseFloat( defaultValue ), field );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addFloat( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      Double number = valueMeta.getNumber( value );
+      consumer.addFloat( applyScale( number == null ? 0f : number.floatValue(), field ) );
+    }
+  }
+
+  private static class DoubleFieldWriter extends FieldWriter {
+    private double defaultValue;
+
+    DoubleFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = applyScale( Double.parseDouble( defaultValue ), field );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addDouble( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      Double number = valueMeta.getNumber( value );
+      consumer.addDouble( applyScale( number == null ? 0d : number, field ) );
+    }
+  }
+
+  private static class BinaryFieldWriter extends FieldWriter {
+    private Binary defaultValue;
+
+    BinaryFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = Binary.fromString( defaultValue );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addBinary( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      consumer.addBinary( Binary.fromConstantByteArray( valueMeta.getBinary( value ) ) );
+    }
+  }
+
+  private static class StringFieldWriter extends BinaryFieldWriter {
+    StringFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      consumer.addBinary( Binary.fromString( valueMeta.getString( value ) ) );
+    }
+  }
+
+  private static class BooleanFieldWriter extends FieldWriter {
+    private boolean defaultValue;
+
+    BooleanFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = Boolean.parseBoolean( defaultValue );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addBoolean( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      Boolean b = valueMeta.getBoolean( value );
+      consumer.addBoolean( b != null && b );
+    }
+  }
+
+  private static class IntFieldWriter extends FieldWriter {
+    private int defaultValue;
+
+    IntFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = Integer.parseInt( defaultValue );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addInteger( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      Long l = valueMeta.getInteger( value );
+      consumer.addInteger( l == null ? 0 : l.intValue() );
+    }
+  }
+
+  private static class LongFieldWriter extends FieldWriter {
+    private long defaultValue;
+
+    LongFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = Long.parseLong( defaultValue );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      consumer.addLong( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      Long l = valueMeta.getInteger( value );
+      consumer.addLong( l == null ? 0L : l );
+    }
+  }
+
+  private static class TimestampMillisFieldWriter extends LongFieldWriter {
+    TimestampMillisFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      consumer.addLong( valueMeta.getDate( value ).getTime() );
+    }
+  }
+
+  private static class DecimalFieldWriter extends FieldWriter {
+    private final MathContext mathContext;
+    private BigDecimal defaultValue;
+
+    DecimalFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+      mathContext = new MathContext( field.getPrecision(), RoundingMode.HALF_UP );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      this.defaultValue = new BigDecimal( defaultValue );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      addDecimal( consumer, defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      addDecimal( consumer, valueMeta.getBigNumber( value ) );
+    }
+
+    private void addDecimal( RecordConsumer consumer, BigDecimal bigDecimal ) {
+      BigInteger unscaled =
+        bigDecimal.round( mathContext ).setScale( field.getScale(), RoundingMode.HALF_UP ).unscaledValue();
+      switch ( field.getParquetType() ) {
+        case DECIMAL_INT_32:
+          consumer.addInteger( unscaled.intValue() );
+          break;
+        case DECIMAL_INT_64:
+          consumer.addLong( unscaled.longValue() );
+          break;
+        default:
+          consumer.addBinary( Binary.fromConstantByteArray( unscaled.toByteArray() ) );
+      }
+    }
+  }
+
+  /**
+   * Base for DATE and INT96 fields, whose default value is parsed with the conversion mask of the row and which are
+   * written in the date format time zone of the row.
+   */
+  private abstract static class DateValueFieldWriter extends FieldWriter {
+    protected ZoneId zoneId;
+    protected Date defaultValue;
+
+    DateValueFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override void bind( RowMetaInterface rowMeta ) {
+      super.bind( rowMeta );
+      TimeZone timeZone = valueMeta == null ? null : valueMeta.getDateFormatTimeZone();
+      zoneId = ( timeZone == null ? TimeZone.getDefault() : timeZone ).toZoneId();
+    }
+
+    protected Date parseDefaultValue( String defaultValue ) throws ParseException {
+      String conversionMask =
+        valueMeta.getConversionMask() == null ? ValueMetaBase.DEFAULT_DATE_PARSE_MASK : valueMeta.getConversionMask();
+      return new SimpleDateFormat( conversionMask ).parse( defaultValue );
+    }
+
+    @Override protected void addValue( RecordConsumer consumer, Object value ) throws KettleValueException {
+      addDate( consumer, valueMeta.getDate( value ) );
+    }
+
+    @Override protected void addDefaultValue( RecordConsumer consumer ) {
+      addDate( consumer, defaultValue );
+    }
+
+    protected abstract void addDate( RecordConsumer consumer, Date date );
+  }
+
+  private static class Int96FieldWriter extends DateValueFieldWriter {
+    private final byte[] timestampBuffer = new byte[ 12 ];
+    private final ByteBuffer buffer = ByteBuffer.wrap( timestampBuffer ).order( ByteOrder.LITTLE_ENDIAN );
+
+    Int96FieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      try {
+        this.defaultValue = parseDefaultValue( defaultValue );
+      } catch ( ParseException pe ) {
+        this.defaultValue = new Date( 0 );
+      }
+    }
+
+    @Override protected void addDate( RecordConsumer consumer, Date date ) {
+      LocalDateTime localDateTime = LocalDateTime.ofInstant( date.toInstant(), zoneId );
+      long julianDay = JulianFields.JULIAN_DAY.getFrom( localDateTime.toLocalDate() );
+      long timeOfDayNanos = localDateTime.atZone( zoneId ).toInstant().toEpochMilli() * 1000000L
+        - ( ( julianDay - ParquetSpec.JULIAN_DAY_OF_EPOCH ) * 24L * 60L * 60L * 1000L * 1000000L );
+      buffer.clear();
+      buffer.putLong( timeOfDayNanos ).putInt( (int) julianDay );
+      consumer.addBinary( Binary.fromReusedByteArray( timestampBuffer ) );
+    }
+  }
+
+  private static class DateFieldWriter extends DateValueFieldWriter {
+    DateFieldWriter( int index, IParquetOutputField field ) {
+      super( index, field );
+    }
+
+    @Override protected void bindDefaultValue( String defaultValue ) {
+      try {
+        this.defaultValue = parseDefaultValue( defaultValue );
+      } catch ( ParseException pe ) {
+        throw new IllegalArgumentException( "Unable to parse default value " + defaultValue + " of field "
+          + field.getPentahoFieldName(), pe );
+      }
+    }
+
+    @Override protected void addDate( RecordConsumer consumer, Date date ) {
+      consumer.addInteger( Math.toIntExact( date.toInstant().atZone( zoneId ).toLocalDate().toEpochDay() ) );
+    }
   }
 
-  private double applyScale( double number, IParquetOutputField outputField ) {
+  private static double applyScale( double number, IParquetOutputField outputField ) {
     if ( outputField.getScale() > 0 ) {
       BigDecimal bd = new BigDecimal( number );
       bd = bd.setScale( outputField.getScale(), BigDecimal.ROUND_HALF_UP );
@@ -341,7 +505,7 @@ public class PentahoParquetWriteSupport extends WriteSupport<RowMetaAndData> {
     return number;
   }
 
-  private float applyScale( float number, IParquetOutputField outputField ) {
+  private static float applyScale( float number, IParquetOutputField outputField ) {
     if ( outputField.getScale() > 0 ) {
       BigDecimal bd = new BigDecimal( number );
       bd = bd.setScale( outputField.getScale(), BigDecimal.ROUND_HALF_UP );
@@ -22,8 +22,7 @@ import org.apache.hadoop.mapreduce.TaskAttemptID;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.parquet.hadoop.Footer;
-import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.hadoop.ParquetInputFormat;
 import org.apache.parquet.hadoop.ParquetRecordReader;
 import org.apache.parquet.hadoop.api.ReadSupport;
@@ -33,10 +32,13 @@ import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
 import org.pentaho.hadoop.shim.common.format.HadoopFormatBase;
 import org.pentaho.hadoop.shim.common.format.ReadFileFilter;
 import org.pentaho.hadoop.shim.common.format.ReadFilesFilter;
 import org.pentaho.hadoop.shim.common.format.S3NCredentialUtils;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetFilterPredicateBuilder;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetFooterCache;
 import org.pentaho.hadoop.shim.common.format.parquet.ParquetInputFieldList;
 import org.pentaho.hadoop.shim.common.format.parquet.PentahoInputSplitImpl;
 
@@ -58,6 +60,9 @@ public class PentahoTwitterInputFormat extends HadoopFormatBase implements IPent
 
   private ParquetInputFormat<RowMetaAndData> nativeParquetInputFormat;
   private Job job;
+  private List<IParquetInputField> inputFields;
+  private IPentahoPredicate filter;
+  private boolean filterApplied;
 
   public PentahoTwitterInputFormat( NamedCluster namedCluster ) {
     logger.info( "We are initializing parquet input format" );
@@ -66,7 +71,7 @@ public class PentahoTwitterInputFormat extends HadoopFormatBase implements IPent
       Configuration conf = createConfigurationWithClassLoader( namedCluster, getClass().getClassLoader() );
       job = Job.getInstance( conf );
 
-      nativeParquetInputFormat = new ParquetInputFormat<>();
+      nativeParquetInputFormat = new ParquetFooterCache.CachingParquetInputFormat<>();
 
       ParquetInputFormat.setReadSupportClass( job, PentahoParquetReadSupport.class );
       ParquetInputFormat.setTaskSideMetaData( job, false );
@@ -75,7 +80,31 @@ public class PentahoTwitterInputFormat extends HadoopFormatBase implements IPent
 
   @Override public void setSchema( List<IParquetInputField> inputFields ) throws Exception {
     ParquetInputFieldList fieldList = new ParquetInputFieldList( inputFields );
-    inClassloader( () -> job.getConfiguration().set( ParquetConverter.PARQUET_SCHEMA_CONF_KEY, fieldList.marshall() ) );
+    this.inputFields = inputFields;
+    inClassloader( () -> {
+      job.getConfiguration().set( ParquetConverter.PARQUET_SCHEMA_CONF_KEY, fieldList.marshall() );
+      applyFilter();
+    } );
+  }
+
+  @Override public void setFilter( IPentahoPredicate filter ) throws Exception {
+    this.filter = filter;
+    inClassloader( this::applyFilter );
+  }
+
+  /**
+   * Pass the filter to parquet once both the filter and the schema it refers to are known.
+   */
+  private void applyFilter() {
+    FilterPredicate predicate = filter == null || inputFields == null
+      ? null : new ParquetFilterPredicateBuilder( inputFields ).build( filter );
+    if ( predicate != null ) {
+      ParquetInputFormat.setFilterPredicate( job.getConfiguration(), predicate );
+      filterApplied = true;
+    } else if ( filterApplied ) {
+      job.getConfiguration().unset( ParquetInputFormat.FILTER_PREDICATE );
+      filterApplied = false;
+    }
   }
 
   @Override public void setInputFile( String file ) throws Exception {
@@ -151,6 +180,26 @@ public class PentahoTwitterInputFormat extends HadoopFormatBase implements IPent
     } );
   }
 
+  /**
+   * Not supported by the twitter parquet libraries, every file is read whole.
+   */
+  @Override
+  public void setSplitFiles( boolean splitFiles ) {
+    if ( splitFiles ) {
+      logger.info( "Splitting parquet files is not supported by this shim, files are read whole" );
+    }
+  }
+
+  /**
+   * Not supported by this shim, rows are read one by one.
+   */
+  @Override
+  public void setColumnarRead( boolean columnarRead ) {
+    if ( columnarRead ) {
+      logger.info( "Columnar parquet reads are not supported by this shim, rows are read one by one" );
+    }
+  }
+
   @Override public List<IPentahoInputSplit> getSplits() {
     return inClassloader( () -> {
       List<InputSplit> splits = nativeParquetInputFormat.getSplits( job );
@@ -183,14 +232,12 @@ public class PentahoTwitterInputFormat extends HadoopFormatBase implements IPent
       Path filePath = new Path( S3NCredentialUtils.scrubFilePathIfNecessary( file ) );
       FileSystem fs = FileSystem.get( filePath.toUri(), conf );
       FileStatus fileStatus = fs.getFileStatus( filePath );
-      List<Footer> footers = ParquetFileReader.readFooters( conf, fileStatus, true );
-      if ( footers.isEmpty() ) {
+      ParquetMetadata meta = ParquetFooterCache.getInstance().getFirstFooter( conf, fileStatus );
+      if ( meta == null ) {
         return new ArrayList<>();
-      } else {
-        ParquetMetadata meta = footers.get( 0 ).getParquetMetadata();
-        MessageType schema = meta.getFileMetaData().getSchema();
-        return ParquetConverter.buildInputFields( schema );
       }
+      MessageType schema = meta.getFileMetaData().getSchema();
+      return ParquetConverter.buildInputFields( schema );
     } );
   }
 }
@@ -129,6 +129,66 @@ public class PentahoTwitterOutputFormat extends HadoopFormatBase implements IPen
     inClassloader( () -> ParquetOutputFormat.setDictionaryPageSize( job, size ) );
   }
 
+  @Override
+  public void setColumnDictionary( String column, boolean useDictionary ) throws Exception {
+    inClassloader( () -> job.getConfiguration().setBoolean( ParquetOutputFormat.ENABLE_DICTIONARY + "#" + column,
+      useDictionary ) );
+  }
+
+  @Override
+  public void setBloomFilter( String column, long expectedDistinctValues ) throws Exception {
+    inClassloader( () -> {
+      job.getConfiguration().setBoolean( ParquetOutputFormat.BLOOM_FILTER_ENABLED + "#" + column, true );
+      if ( expectedDistinctValues > 0 ) {
+        job.getConfiguration()
+          .setLong( ParquetOutputFormat.BLOOM_FILTER_EXPECTED_NDV + "#" + column, expectedDistinctValues );
+      }
+    } );
+  }
+
+  @Override
+  public void setColumnIndexTruncateLength( int length ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setColumnIndexTruncateLength( job, length ) );
+  }
+
+  @Override
+  public void setStatisticsTruncateLength( int length ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setStatisticsTruncateLength( job, length ) );
+  }
+
+  @Override
+  public void setPageRowCountLimit( int rowCount ) throws Exception {
+    inClassloader( () -> ParquetOutputFormat.setPageRowCountLimit( job, rowCount ) );
+  }
+
+  /**
+   * Not supported by this shim, the output is always a single file.
+   */
+  @Override
+  public void setRollover( long maxFileSize, long maxRowCount ) {
+    if ( maxFileSize > 0 || maxRowCount > 0 ) {
+      logger.info( "Rolling parquet output is not supported by this shim, writing a single file" );
+    }
+  }
+
+  /**
+   * Not supported by this shim, the output is always a single file.
+   */
+  @Override
+  public void setPartitionField( String fieldName, boolean parallel ) {
+    if ( fieldName != null ) {
+      logger.info( "Partitioned parquet output is not supported by this shim, writing a single file" );
+    }
+  }
+
+  /**
+   * Not supported by this shim, the output is always a single file.
+   */
+  @Override
+  public void setMaxOpenPartitions( int maxOpenPartitions ) {
+    // nothing to limit without partitions
+  }
+
   @Override
   public IPentahoRecordWriter createRecordWriter() throws Exception {
     if ( outputFile == null ) {
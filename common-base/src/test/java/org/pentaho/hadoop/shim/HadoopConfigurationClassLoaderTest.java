@@ -13,15 +13,32 @@
 
 package org.pentaho.hadoop.shim;
 
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import static org.junit.Assert.*;
 
 public class HadoopConfigurationClassLoaderTest {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test( expected = NullPointerException.class )
   public void instantiation_null_URLs() {
     new HadoopConfigurationClassLoader( null, null );
@@ -59,4 +76,142 @@ public class HadoopConfigurationClassLoaderTest {
       new HadoopConfigurationClassLoader( new URL[] { workingDir, srcDir }, getClass().getClassLoader() );
     assertEquals( workingDir.getFile() + File.pathSeparator + srcDir.getFile(), hccl.generateClassPathString() );
   }
+
+  @Test
+  public void ignoreClass_configured_prefixes() {
+    HadoopConfigurationClassLoader hccl = new HadoopConfigurationClassLoader( new URL[ 0 ],
+      getClass().getClassLoader(), "org.a", "org.a.b", "com.x.Y" );
+    assertTrue( hccl.ignoreClass( "org.a" ) );
+    assertTrue( hccl.ignoreClass( "org.a.b.C" ) );
+    assertTrue( hccl.ignoreClass( "org.a.c.D" ) );
+    assertTrue( hccl.ignoreClass( "com.x.Y" ) );
+    assertTrue( hccl.ignoreClass( "org.slf4j.Logger" ) );
+    assertFalse( hccl.ignoreClass( "com.x.Z" ) );
+    assertFalse( hccl.ignoreClass( "org.b.C" ) );
+    assertFalse( hccl.ignoreClass( "aaa" ) );
+    assertFalse( hccl.ignoreClass( "zzz" ) );
+  }
+
+  @Test
+  public void loadClass_parent_classes_probed_once() throws Exception {
+    AtomicInteger findCount = new AtomicInteger();
+    HadoopConfigurationClassLoader hccl =
+      new HadoopConfigurationClassLoader( new URL[ 0 ], getClass().getClassLoader() ) {
+        @Override
+        protected Class<?> findClass( String name ) throws ClassNotFoundException {
+          findCount.incrementAndGet();
+          return super.findClass( name );
+        }
+      };
+
+    for ( int i = 0; i < 10; i++ ) {
+      assertSame( List.class, hccl.loadClass( List.class.getName() ) );
+      try {
+        hccl.loadClass( "org.pentaho.Missing" );
+        fail( "Class should not be found" );
+      } catch ( ClassNotFoundException e ) {
+        // expected
+      }
+    }
+    assertEquals( 2, findCount.get() );
+  }
+
+  @Test
+  public void loadClass_concurrently() throws Exception {
+    Class<?>[] jarClasses = { Synthetic1.class, Synthetic2.class, Synthetic3.class, Synthetic4.class };
+    List<URL> urls = new ArrayList<>();
+    for ( int i = 0; i < 50; i++ ) {
+      urls.add( writeJar( "filler" + i + ".jar", "filler/pkg" + i + "/Filler.class", new byte[ 0 ] ) );
+    }
+    for ( Class<?> jarClass : jarClasses ) {
+      String entry = jarClass.getName().replace( '.', '/' ) + ".class";
+      try ( InputStream in = getClass().getClassLoader().getResourceAsStream( entry ) ) {
+        urls.add( writeJar( jarClass.getSimpleName() + ".jar", entry, IOUtils.toByteArray( in ) ) );
+      }
+    }
+    String[] parentClasses = { List.class.getName(), "java.util.Map", "java.lang.StringBuilder",
+      "org.junit.Assert", TemporaryFolder.class.getName() };
+    HadoopConfigurationClassLoader hccl = new HadoopConfigurationClassLoader( urls.toArray( new URL[ 0 ] ),
+      getClass().getClassLoader() );
+
+    int threads = 16;
+    ExecutorService executor = Executors.newFixedThreadPool( threads );
+    try {
+      List<Callable<Class<?>[]>> tasks = new ArrayList<>();
+      for ( int t = 0; t < threads; t++ ) {
+        tasks.add( () -> {
+          Class<?>[] loaded = new Class<?>[ jarClasses.length ];
+          for ( int i = 0; i < 1000; i++ ) {
+            for ( int c = 0; c < jarClasses.length; c++ ) {
+              loaded[ c ] = hccl.loadClass( jarClasses[ c ].getName() );
+            }
+            for ( String parentClass : parentClasses ) {
+              hccl.loadClass( parentClass );
+            }
+          }
+          return loaded;
+        } );
+      }
+      List<Future<Class<?>[]>> results = executor.invokeAll( tasks );
+
+      Class<?>[] first = results.get( 0 ).get();
+      for ( Future<Class<?>[]> result : results ) {
+        assertArrayEquals( first, result.get() );
+      }
+      for ( Class<?> loaded : first ) {
+        assertSame( hccl, loaded.getClassLoader() );
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void getClassLoadingLock_per_class() {
+    HadoopConfigurationClassLoader hccl =
+      new HadoopConfigurationClassLoader( new URL[ 0 ], getClass().getClassLoader() );
+
+    Object lock = hccl.getClassLoadingLock( "a.A" );
+    assertNotSame( hccl, lock );
+    assertSame( lock, hccl.getClassLoadingLock( "a.A" ) );
+    assertNotSame( lock, hccl.getClassLoadingLock( "a.B" ) );
+  }
+
+  @Test
+  public void loadClass_not_found_classes_bounded() {
+    HadoopConfigurationClassLoader hccl =
+      new HadoopConfigurationClassLoader( new URL[ 0 ], getClass().getClassLoader() );
+
+    for ( int i = 0; i <= HadoopConfigurationClassLoader.MAX_NOT_FOUND_CLASSES; i++ ) {
+      try {
+        hccl.loadClass( "org.pentaho.Missing" + i );
+        fail( "Class should not be found" );
+      } catch ( ClassNotFoundException e ) {
+        // expected
+      }
+    }
+    assertTrue( hccl.notFoundClasses.size() <= HadoopConfigurationClassLoader.MAX_NOT_FOUND_CLASSES );
+  }
+
+  private URL writeJar( String name, String entryName, byte[] contents ) throws Exception {
+    File jar = tempFolder.newFile( name );
+    try ( JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) ) ) {
+      out.putNextEntry( new ZipEntry( entryName ) );
+      out.write( contents );
+      out.closeEntry();
+    }
+    return jar.toURI().toURL();
+  }
+
+  public static class Synthetic1 {
+  }
+
+  public static class Synthetic2 {
+  }
+
+  public static class Synthetic3 {
+  }
+
+  public static class Synthetic4 {
+  }
 }
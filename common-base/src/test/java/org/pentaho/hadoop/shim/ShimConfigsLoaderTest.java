@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.KettleLogStore;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+
+public class ShimConfigsLoaderTest {
+
+  private static final String KETTLE_DIR = "ram:///shimConfigsLoaderTest/kettle";
+  private static final String CLUSTER = "cluster1";
+
+  private MockedStatic<Const> constMock;
+  private MockedStatic<KettleVFS> vfsMock;
+
+  @BeforeClass
+  public static void setUpClass() {
+    KettleLogStore.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    ShimConfigsLoader.clearResourceCache();
+    constMock = mockStatic( Const.class, CALLS_REAL_METHODS );
+    constMock.when( Const::getKettleDirectory ).thenReturn( KETTLE_DIR );
+    constMock.when( Const::getUserHomeDirectory ).thenReturn( "ram:///shimConfigsLoaderTest/home" );
+    vfsMock = mockStatic( KettleVFS.class, CALLS_REAL_METHODS );
+    writeSiteFile( "core-site.xml" );
+    writeSiteFile( "hdfs-site.xml" );
+    vfsMock.clearInvocations();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KettleVFS.getFileObject( "ram:///shimConfigsLoaderTest" ).deleteAll();
+    vfsMock.close();
+    constMock.close();
+    ShimConfigsLoader.clearResourceCache();
+  }
+
+  private void writeSiteFile( String siteFileName ) throws Exception {
+    FileObject siteFile = KettleVFS.getFileObject( KETTLE_DIR + "/" + ShimConfigsLoader.CONFIGS_DIR_PREFIX + "/"
+      + CLUSTER + "/" + siteFileName );
+    siteFile.createFile();
+    try ( OutputStream out = siteFile.getContent().getOutputStream() ) {
+      out.write( "<configuration/>".getBytes( StandardCharsets.UTF_8 ) );
+    }
+  }
+
+  @Test
+  public void testEveryDirectoryIsListedOnce() {
+    for ( int i = 0; i < 100; i++ ) {
+      for ( ShimConfigsLoader.ClusterConfigNames configName : ShimConfigsLoader.ClusterConfigNames.values() ) {
+        URL url = ShimConfigsLoader.getURLToResourceFile( configName.toString(), CLUSTER );
+        if ( configName == ShimConfigsLoader.ClusterConfigNames.CORE_SITE
+          || configName == ShimConfigsLoader.ClusterConfigNames.HDFS_SITE ) {
+          assertNotNull( url );
+          assertTrue( url.toString().endsWith( configName.toString() ) );
+        } else {
+          assertNull( url );
+        }
+      }
+    }
+
+    // The kettle, home .pentaho and home metastore directories of the cluster
+    vfsMock.verify( () -> KettleVFS.getFileObject( anyString() ), times( 3 ) );
+  }
+
+  @Test
+  public void testMissingFilesAreCachedUntilCleared() throws Exception {
+    assertNull( ShimConfigsLoader.getURLToResourceFile( "yarn-site.xml", CLUSTER ) );
+    writeSiteFile( "yarn-site.xml" );
+    assertNull( ShimConfigsLoader.getURLToResourceFile( "yarn-site.xml", CLUSTER ) );
+
+    ShimConfigsLoader.clearResourceCache();
+
+    assertNotNull( ShimConfigsLoader.getURLToResourceFile( "yarn-site.xml", CLUSTER ) );
+  }
+
+  @Test
+  public void testFailedLookupsAreNotCached() {
+    AtomicBoolean unavailable = new AtomicBoolean( true );
+    vfsMock.when( () -> KettleVFS.getFileObject( anyString() ) ).thenAnswer( invocation -> {
+      if ( unavailable.get() ) {
+        throw new KettleFileException( "unavailable" );
+      }
+      return invocation.callRealMethod();
+    } );
+    assertNull( ShimConfigsLoader.getURLToResourceFile( "core-site.xml", CLUSTER ) );
+
+    unavailable.set( false );
+
+    assertNotNull( ShimConfigsLoader.getURLToResourceFile( "core-site.xml", CLUSTER ) );
+  }
+}
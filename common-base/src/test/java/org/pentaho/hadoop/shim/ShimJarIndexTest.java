@@ -0,0 +1,220 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.hadoop.shim.api.ConfigurationException;
+import org.pentaho.hadoop.shim.api.internal.ShimProperties;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShimJarIndexTest {
+
+  private static final String SHIM_ID = "indexedShim";
+  private static final int JAR_COUNT = 300;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File shimFolder;
+  private File indexFolder;
+
+  @Before
+  public void setUp() throws Exception {
+    indexFolder = tempFolder.newFolder( "index" );
+    System.setProperty( ShimJarIndex.INDEX_DIR_PROPERTY, indexFolder.getAbsolutePath() );
+    shimFolder = tempFolder.newFolder( "shims", SHIM_ID );
+    writeJar( new File( shimFolder, "probe.jar" ), Probe.class.getName().replace( '.', '/' ) + ".class",
+      classBytes() );
+    for ( int i = 0; i < JAR_COUNT - 1; i++ ) {
+      writeJar( new File( shimFolder, "generated-" + i + ".jar" ), "generated/pkg" + i + "/Generated.class",
+        new byte[ 0 ] );
+    }
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty( ShimJarIndex.INDEX_DIR_PROPERTY );
+  }
+
+  private static byte[] classBytes() throws Exception {
+    try ( InputStream in = ShimJarIndexTest.class.getResourceAsStream( "ShimJarIndexTest$Probe.class" ) ) {
+      return IOUtils.toByteArray( in );
+    }
+  }
+
+  private static void writeJar( File jar, String entryName, byte[] contents ) throws Exception {
+    try ( JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) ) ) {
+      out.putNextEntry( new ZipEntry( entryName ) );
+      out.write( contents );
+      out.closeEntry();
+    }
+  }
+
+  private CountingLocator init() throws Exception {
+    CountingLocator locator = new CountingLocator();
+    FileObject baseDir = VFS.getManager().resolveFile( shimFolder.getParentFile().toURI().toString() );
+    locator.init( baseDir, new MockActiveHadoopConfigurationLocator( SHIM_ID ),
+      (DefaultFileSystemManager) VFS.getManager() );
+    return locator;
+  }
+
+  @Test
+  public void testColdAndWarmInit() throws Exception {
+    File indexFile = new File( indexFolder, SHIM_ID + ".idx" );
+
+    CountingLocator cold = init();
+
+    assertEquals( 1, cold.filterCount );
+    assertTrue( indexFile.isFile() );
+
+    CountingLocator warm = init();
+
+    assertEquals( 0, warm.filterCount );
+    assertEquals( JAR_COUNT + 1, warm.classLoader.getURLs().length );
+
+    Class<?> probe = warm.classLoader.loadClass( Probe.class.getName() );
+    assertSame( warm.classLoader, probe.getClassLoader() );
+    assertSame( List.class, warm.classLoader.loadClass( List.class.getName() ) );
+  }
+
+  @Test
+  public void testChangedJarsAreScannedAgain() throws Exception {
+    init();
+    writeJar( new File( shimFolder, "added.jar" ), "added/Added.class", new byte[ 0 ] );
+
+    CountingLocator locator = init();
+
+    assertEquals( 1, locator.filterCount );
+    assertEquals( JAR_COUNT + 2, locator.classLoader.getURLs().length );
+  }
+
+  @Test
+  public void testIndexOfOtherInputsIsNotUsed() throws Exception {
+    URL root = shimFolder.toURI().toURL();
+    ShimJarIndex index = ShimJarIndex.build( ShimJarIndex.createKey( root, "a.jar" ), Collections.singletonList( root ),
+      shimFolder );
+    assertNotNull( index );
+    File indexFile = ShimJarIndex.getIndexFile( "keys" );
+    index.store( indexFile );
+
+    assertNotNull( ShimJarIndex.load( indexFile, ShimJarIndex.createKey( root, "a.jar" ) ) );
+    assertNull( ShimJarIndex.load( indexFile, ShimJarIndex.createKey( root, "b.jar" ) ) );
+  }
+
+  @Test
+  public void testPackagesOfJars() throws Exception {
+    File jar = tempFolder.newFile( "versioned.jar" );
+    try ( JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) ) ) {
+      out.putNextEntry( new ZipEntry( "a/b/C.class" ) );
+      out.putNextEntry( new ZipEntry( "META-INF/versions/11/d/E.class" ) );
+      out.putNextEntry( new ZipEntry( "F.class" ) );
+      out.putNextEntry( new ZipEntry( "g/resource.txt" ) );
+    }
+
+    ShimJarIndex index = ShimJarIndex.build( "key", Collections.singletonList( jar.toURI().toURL() ),
+      tempFolder.getRoot() );
+
+    assertNotNull( index );
+    assertEquals( 3, index.getPackages().size() );
+    assertTrue( index.getPackages().contains( "a.b" ) );
+    assertTrue( index.getPackages().contains( "d" ) );
+    assertTrue( index.getPackages().contains( "" ) );
+    assertFalse( index.getPackages().contains( "g" ) );
+  }
+
+  @Test
+  public void testManifestClassPathIsIndexed() throws Exception {
+    File lib = tempFolder.newFolder( "lib" );
+    File classes = tempFolder.newFolder( "classes" );
+    writeJar( new File( lib, "dependency.jar" ), "dependency/pkg/Dependency.class", new byte[ 0 ] );
+    File jar = new File( tempFolder.getRoot(), "main.jar" );
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+    manifest.getMainAttributes().put( Attributes.Name.CLASS_PATH, "lib/dependency.jar classes/ missing.jar main.jar" );
+    try ( JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ), manifest ) ) {
+      out.putNextEntry( new ZipEntry( "main/Main.class" ) );
+    }
+
+    ShimJarIndex index = ShimJarIndex.build( "key", Collections.singletonList( jar.toURI().toURL() ), lib );
+
+    assertNotNull( index );
+    assertTrue( index.getPackages().contains( "main" ) );
+    assertTrue( index.getPackages().contains( "dependency.pkg" ) );
+    assertEquals( Collections.singletonList( classes.getAbsoluteFile() ), index.getDirectories() );
+
+    File indexFile = ShimJarIndex.getIndexFile( "manifest" );
+    index.store( indexFile );
+    ShimJarIndex loaded = ShimJarIndex.load( indexFile, "key" );
+    assertNotNull( loaded );
+    assertEquals( index.getPackages(), loaded.getPackages() );
+    assertEquals( index.getDirectories(), loaded.getDirectories() );
+
+    // The jar the manifest refers to shows up, the class path changed
+    writeJar( new File( tempFolder.getRoot(), "missing.jar" ), "missing/Missing.class", new byte[ 0 ] );
+    assertNull( ShimJarIndex.load( indexFile, "key" ) );
+  }
+
+  public static class Probe {
+  }
+
+  private static class CountingLocator extends HadoopConfigurationLocator {
+    private int filterCount;
+    private HadoopConfigurationClassLoader classLoader;
+
+    @Override
+    protected List<URL> filterJars( List<URL> urls, String excludedJarsProperty ) {
+      filterCount++;
+      return super.filterJars( urls, excludedJarsProperty );
+    }
+
+    @Override
+    protected ClassLoader createConfigurationLoader( FileObject root, ClassLoader parent, List<URL> classpathUrls,
+                                                     ShimProperties configurationProperties,
+                                                     String... ignoredClasses ) throws ConfigurationException {
+      classLoader = (HadoopConfigurationClassLoader) super.createConfigurationLoader( root, parent, classpathUrls,
+        configurationProperties, ignoredClasses );
+      return classLoader;
+    }
+
+    @Override
+    protected <T> T locateServiceImpl( ClassLoader cl, Class<T> service ) {
+      // No shim in the generated jars, the configuration itself is not loaded
+      return null;
+    }
+  }
+}
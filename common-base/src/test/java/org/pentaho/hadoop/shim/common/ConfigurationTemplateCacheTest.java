@@ -0,0 +1,175 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.MockedStatic;
+import org.pentaho.di.core.Const;
+import org.pentaho.hadoop.shim.ShimConfigsLoader;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.hadoop.shim.common.format.HadoopFormatBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConfigurationTemplateCacheTest {
+
+  private static final String CORE_SITE = "core-site.xml";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final ConfigurationTemplateCache cache = ConfigurationTemplateCache.getInstance();
+  private NamedCluster namedCluster;
+  private String coreSiteValue;
+
+  @Before
+  public void setUp() {
+    cache.clear();
+    coreSiteValue = "value1";
+    namedCluster = mock( NamedCluster.class );
+    when( namedCluster.getName() ).thenReturn( "templateCacheCluster" );
+    when( namedCluster.getShimIdentifier() ).thenReturn( "testShim" );
+    when( namedCluster.getLastModifiedDate() ).thenReturn( 1L );
+    when( namedCluster.getSiteFileInputStream( anyString() ) ).thenAnswer( invocation ->
+      CORE_SITE.equals( invocation.getArgument( 0 ) ) ? new ByteArrayInputStream( coreSite().getBytes(
+        StandardCharsets.UTF_8 ) ) : null );
+  }
+
+  private String coreSite() {
+    return "<configuration><property><name>template.cache.test</name><value>" + coreSiteValue
+      + "</value></property></configuration>";
+  }
+
+  @Test
+  public void testSiteFilesParsedOncePerCluster() {
+    long misses = cache.getMisses();
+    long hits = cache.getHits();
+    TestFormat format = new TestFormat();
+    for ( int i = 0; i < 1000; i++ ) {
+      Configuration conf = format.createConfiguration( namedCluster );
+      assertEquals( "value1", conf.get( "template.cache.test" ) );
+    }
+
+    verify( namedCluster, times( 1 ) ).getSiteFileInputStream( CORE_SITE );
+    assertEquals( 1, cache.getMisses() - misses );
+    assertEquals( 999, cache.getHits() - hits );
+    assertEquals( 1, cache.size() );
+  }
+
+  @Test
+  public void testCopiesAreIndependent() {
+    TestFormat format = new TestFormat();
+    format.createConfiguration( namedCluster ).set( "template.cache.test", "changed" );
+
+    assertEquals( "value1", format.createConfiguration( namedCluster ).get( "template.cache.test" ) );
+  }
+
+  @Test
+  public void testChangedClusterIsParsedAgain() {
+    TestFormat format = new TestFormat();
+    format.createConfiguration( namedCluster );
+    long invalidations = cache.getInvalidations();
+
+    coreSiteValue = "value2";
+    when( namedCluster.getLastModifiedDate() ).thenReturn( 2L );
+
+    assertEquals( "value2", format.createConfiguration( namedCluster ).get( "template.cache.test" ) );
+    assertEquals( 1, cache.getInvalidations() - invalidations );
+    verify( namedCluster, times( 2 ) ).getSiteFileInputStream( CORE_SITE );
+  }
+
+  @Test
+  public void testResolvedConfigFilesAreClearedBeforeBuilding() {
+    TestFormat format = new TestFormat();
+    try ( MockedStatic<ShimConfigsLoader> loader = mockStatic( ShimConfigsLoader.class, CALLS_REAL_METHODS ) ) {
+      format.createConfiguration( namedCluster );
+      format.createConfiguration( namedCluster );
+      loader.verify( ShimConfigsLoader::clearResourceCache, times( 1 ) );
+
+      when( namedCluster.getLastModifiedDate() ).thenReturn( 2L );
+      format.createConfiguration( namedCluster );
+      loader.verify( ShimConfigsLoader::clearResourceCache, times( 2 ) );
+    }
+  }
+
+  @Test
+  public void testConfigsInHomeMetastoreAreStamped() throws Exception {
+    TestFormat format = new TestFormat();
+    try ( MockedStatic<Const> constMock = mockStatic( Const.class, CALLS_REAL_METHODS ) ) {
+      constMock.when( Const::getUserHomeDirectory ).thenReturn( tempFolder.getRoot().getAbsolutePath() );
+      ShimConfigsLoader.clearResourceCache();
+      format.createConfiguration( namedCluster );
+      long misses = cache.getMisses();
+
+      File configs = new File( tempFolder.getRoot(), ".pentaho" + File.separator
+        + ShimConfigsLoader.CONFIGS_DIR_PREFIX + File.separator + namedCluster.getName() );
+      assertTrue( configs.mkdirs() );
+      assertTrue( new File( configs, CORE_SITE ).createNewFile() );
+      format.createConfiguration( namedCluster );
+
+      assertEquals( 1, cache.getMisses() - misses );
+    } finally {
+      ShimConfigsLoader.clearResourceCache();
+    }
+  }
+
+  @Test
+  public void testTemplatesWithoutClusterAreKeptPerClassLoader() throws Exception {
+    ClassLoader classLoader = getClass().getClassLoader();
+    try ( URLClassLoader other = new URLClassLoader( new URL[ 0 ], classLoader ) ) {
+      Configuration template = cache.getTemplate( "test", null, classLoader, cluster -> new Configuration( false ) );
+
+      assertSame( template, cache.getTemplate( "test", null, classLoader, cluster -> new Configuration( false ) ) );
+      assertNotSame( template, cache.getTemplate( "test", null, other, cluster -> new Configuration( false ) ) );
+      assertEquals( 2, cache.size() );
+    }
+  }
+
+  @Test
+  public void testInvalidate() {
+    TestFormat format = new TestFormat();
+    format.createConfiguration( namedCluster );
+    coreSiteValue = "value2";
+
+    cache.invalidate( namedCluster );
+
+    assertEquals( 0, cache.size() );
+    assertEquals( "value2", format.createConfiguration( namedCluster ).get( "template.cache.test" ) );
+  }
+
+  private static class TestFormat extends HadoopFormatBase {
+    Configuration createConfiguration( NamedCluster namedCluster ) {
+      return createConfigurationWithClassLoader( namedCluster, getClass().getClassLoader() );
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.orc;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.TypeDescription;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.logging.KettleLogStore;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaPluginType;
+import org.pentaho.hadoop.shim.api.format.IOrcInputField;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OrcColumnPlanTest {
+
+  private static final String[] TYPES =
+    { "bigint", "double", "string", "date", "timestamp", "boolean", "decimal(12,2)", "binary", "int", "float" };
+  private static final int COLUMNS = 50;
+
+  private TypeDescription schema;
+  private VectorizedRowBatch batch;
+  private List<IOrcInputField> orcInputFields;
+  private List<IOrcInputField> dialogInputFields;
+  private Map<String, Integer> schemaToOrcSubcripts;
+
+  @BeforeClass
+  public static void init() throws Exception {
+    KettleLogStore.init();
+    PluginRegistry.addPluginType( ValueMetaPluginType.getInstance() );
+    PluginRegistry.init( true );
+  }
+
+  @Before
+  public void setup() {
+    StringBuilder struct = new StringBuilder( "struct<" );
+    for ( int i = 0; i < COLUMNS; i++ ) {
+      struct.append( i == 0 ? "" : "," ).append( "col" ).append( i ).append( ':' ).append( TYPES[ i % TYPES.length ] );
+    }
+    schema = TypeDescription.fromString( struct.append( '>' ).toString() );
+    orcInputFields = new OrcSchemaConverter().buildInputFields( schema );
+
+    // Read the columns in reverse order, converting every third one to a string
+    dialogInputFields = new ArrayList<>();
+    schemaToOrcSubcripts = new HashMap<>();
+    for ( int i = COLUMNS - 1; i >= 0; i-- ) {
+      IOrcInputField orcField = orcInputFields.get( i );
+      OrcInputField field = new OrcInputField();
+      field.setFormatFieldName( orcField.getFormatFieldName() );
+      field.setPentahoFieldName( "pentaho" + i );
+      field.setPentahoType( i % 3 == 0 && orcField.getPentahoType() != ValueMetaInterface.TYPE_BINARY
+        ? ValueMetaInterface.TYPE_STRING : orcField.getPentahoType() );
+      dialogInputFields.add( field );
+      schemaToOrcSubcripts.put( field.getPentahoFieldName(), i );
+    }
+
+    batch = schema.createRowBatch( 100 );
+    batch.size = 100;
+    for ( int i = 0; i < COLUMNS; i++ ) {
+      fill( batch.cols[ i ], i );
+    }
+  }
+
+  private void fill( ColumnVector vector, int column ) {
+    for ( int row = 0; row < batch.size; row++ ) {
+      if ( ( row + column ) % 7 == 0 ) {
+        vector.noNulls = false;
+        vector.isNull[ row ] = true;
+        continue;
+      }
+      long value = row * 31L + column;
+      if ( vector instanceof LongColumnVector ) {
+        boolean isBoolean = "boolean".equals( TYPES[ column % TYPES.length ] );
+        ( (LongColumnVector) vector ).vector[ row ] = isBoolean ? value % 2 : value;
+      } else if ( vector instanceof DoubleColumnVector ) {
+        ( (DoubleColumnVector) vector ).vector[ row ] = value / 4d;
+      } else if ( vector instanceof BytesColumnVector ) {
+        ( (BytesColumnVector) vector ).setVal( row, ( "value" + value ).getBytes( StandardCharsets.UTF_8 ) );
+      } else if ( vector instanceof TimestampColumnVector ) {
+        ( (TimestampColumnVector) vector ).set( row, new Timestamp( value * 1000000L + 123 ) );
+      } else if ( vector instanceof DecimalColumnVector ) {
+        ( (DecimalColumnVector) vector ).set( row, HiveDecimal.create( value ).scaleByPowerOfTen( -2 ) );
+      }
+    }
+  }
+
+  @Test
+  public void testPlanMatchesRowByRowConversion() {
+    OrcColumnPlan plan = new OrcColumnPlan( dialogInputFields, orcInputFields, schemaToOrcSubcripts );
+    Object[][] rows = plan.convert( batch );
+
+    assertEquals( batch.size, rows.length );
+    OrcConverter orcConverter = new OrcConverter();
+    for ( int row = 0; row < batch.size; row++ ) {
+      RowMetaAndData expected = orcConverter.convertFromOrc( batch, row, dialogInputFields, schema,
+        schemaToOrcSubcripts, orcInputFields );
+      assertRowMetaEquals( expected.getRowMeta(), plan.getRowMeta() );
+      assertArrayEquals( "row " + row, expected.getData(), rows[ row ] );
+    }
+  }
+
+  @Test
+  public void testRepeatingVector() {
+    LongColumnVector vector = (LongColumnVector) batch.cols[ 0 ];
+    vector.noNulls = true;
+    vector.isRepeating = true;
+    vector.isNull[ 0 ] = false;
+    vector.vector[ 0 ] = 42L;
+
+    OrcColumnPlan plan = new OrcColumnPlan( dialogInputFields, orcInputFields, schemaToOrcSubcripts );
+    Object[][] rows = plan.convert( batch );
+
+    int index = plan.getRowMeta().indexOfValue( "pentaho0" );
+    for ( Object[] row : rows ) {
+      assertEquals( "42", row[ index ] );
+    }
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testUnknownColumn() {
+    OrcInputField field = new OrcInputField();
+    field.setFormatFieldName( "missing" );
+    field.setPentahoFieldName( "missing" );
+    dialogInputFields.add( field );
+
+    new OrcColumnPlan( dialogInputFields, orcInputFields, schemaToOrcSubcripts );
+  }
+
+  private void assertRowMetaEquals( RowMetaInterface expected, RowMetaInterface actual ) {
+    assertEquals( expected.size(), actual.size() );
+    for ( int i = 0; i < expected.size(); i++ ) {
+      assertEquals( expected.getValueMeta( i ).getName(), actual.getValueMeta( i ).getName() );
+      assertEquals( expected.getValueMeta( i ).getType(), actual.getValueMeta( i ).getType() );
+      assertEquals( expected.getValueMeta( i ).getConversionMask(), actual.getValueMeta( i ).getConversionMask() );
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.orc;
+
+import org.apache.hadoop.hive.ql.io.sarg.ExpressionTree;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.orc.TypeDescription;
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.format.PentahoPredicate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OrcSearchArgumentBuilderTest {
+
+  private final TypeDescription schema = TypeDescription.fromString(
+    "struct<id:bigint,name:string,amount:decimal(10,2),created:timestamp,payload:binary,"
+      + "address:struct<city:string,zip:int>,score:double>" );
+
+  private final OrcSearchArgumentBuilder builder = new OrcSearchArgumentBuilder( schema );
+
+  @Test
+  public void testLeaves() {
+    SearchArgument sarg = builder.build( PentahoPredicate.and(
+      PentahoPredicate.eq( "id", 5 ),
+      PentahoPredicate.lt( "score", 1.5f ),
+      PentahoPredicate.in( "name", "a", "b" ),
+      PentahoPredicate.isNull( "amount" ),
+      PentahoPredicate.le( "amount", new BigDecimal( "12.50" ) ) ) );
+
+    assertEquals( ExpressionTree.Operator.AND, sarg.getExpression().getOperator() );
+    List<PredicateLeaf> leaves = sarg.getLeaves();
+    assertEquals( 5, leaves.size() );
+    assertLeaf( leaves.get( 0 ), PredicateLeaf.Operator.EQUALS, "id", PredicateLeaf.Type.LONG, 5L );
+    assertLeaf( leaves.get( 1 ), PredicateLeaf.Operator.LESS_THAN, "score", PredicateLeaf.Type.FLOAT, 1.5d );
+    assertEquals( PredicateLeaf.Operator.IN, leaves.get( 2 ).getOperator() );
+    assertEquals( Arrays.asList( "a", "b" ), leaves.get( 2 ).getLiteralList() );
+    assertEquals( PredicateLeaf.Operator.IS_NULL, leaves.get( 3 ).getOperator() );
+    assertLeaf( leaves.get( 4 ), PredicateLeaf.Operator.LESS_THAN_EQUALS, "amount", PredicateLeaf.Type.DECIMAL,
+      new HiveDecimalWritable( "12.50" ) );
+  }
+
+  @Test
+  public void testGreaterThanIsNegated() {
+    Date date = new Date( 1000L );
+    SearchArgument sarg = builder.build( PentahoPredicate.gt( "created", date ) );
+
+    assertEquals( ExpressionTree.Operator.NOT, sarg.getExpression().getOperator() );
+    assertLeaf( sarg.getLeaves().get( 0 ), PredicateLeaf.Operator.LESS_THAN_EQUALS, "created",
+      PredicateLeaf.Type.TIMESTAMP, new Timestamp( 1000L ) );
+
+    sarg = builder.build( PentahoPredicate.ge( "id", 7L ) );
+    assertEquals( ExpressionTree.Operator.NOT, sarg.getExpression().getOperator() );
+    assertLeaf( sarg.getLeaves().get( 0 ), PredicateLeaf.Operator.LESS_THAN, "id", PredicateLeaf.Type.LONG, 7L );
+  }
+
+  @Test
+  public void testUnsupportedColumnTypeNeverSkips() {
+    SearchArgument sarg = builder.build( PentahoPredicate.or(
+      PentahoPredicate.eq( "payload", "x" ), PentahoPredicate.isNull( "address" ) ) );
+
+    assertEquals( 0, sarg.getLeaves().size() );
+    assertEquals( SearchArgument.TruthValue.YES_NO_NULL,
+      sarg.evaluate( new SearchArgument.TruthValue[ 0 ] ) );
+  }
+
+  @Test
+  public void testFractionalLiteralOnIntColumn() {
+    OrcSearchArgumentBuilder intBuilder = new OrcSearchArgumentBuilder( TypeDescription.fromString(
+      "struct<count:int>" ) );
+
+    assertLeaf( intBuilder.build( PentahoPredicate.lt( "count", 2.5 ) ).getLeaves().get( 0 ),
+      PredicateLeaf.Operator.LESS_THAN, "count", PredicateLeaf.Type.LONG, 3L );
+    assertLeaf( intBuilder.build( PentahoPredicate.le( "count", 2.5 ) ).getLeaves().get( 0 ),
+      PredicateLeaf.Operator.LESS_THAN_EQUALS, "count", PredicateLeaf.Type.LONG, 2L );
+
+    // count > 2.5 is not(count <= 2), count >= 2.5 is not(count < 3)
+    SearchArgument sarg = intBuilder.build( PentahoPredicate.gt( "count", 2.5 ) );
+    assertEquals( ExpressionTree.Operator.NOT, sarg.getExpression().getOperator() );
+    assertLeaf( sarg.getLeaves().get( 0 ), PredicateLeaf.Operator.LESS_THAN_EQUALS, "count",
+      PredicateLeaf.Type.LONG, 2L );
+    sarg = intBuilder.build( PentahoPredicate.ge( "count", -2.5 ) );
+    assertEquals( ExpressionTree.Operator.NOT, sarg.getExpression().getOperator() );
+    assertLeaf( sarg.getLeaves().get( 0 ), PredicateLeaf.Operator.LESS_THAN, "count", PredicateLeaf.Type.LONG, -2L );
+
+    sarg = intBuilder.build( PentahoPredicate.eq( "count", 2.5 ) );
+    assertEquals( 0, sarg.getLeaves().size() );
+    assertEquals( SearchArgument.TruthValue.NO_NULL, sarg.evaluate( new SearchArgument.TruthValue[ 0 ] ) );
+
+    sarg = intBuilder.build( PentahoPredicate.in( "count", 2.5, 3 ) );
+    assertEquals( Collections.singletonList( 3L ), sarg.getLeaves().get( 0 ).getLiteralList() );
+  }
+
+  @Test
+  public void testOutOfRangeLiteralOnIntColumnNeverSkips() {
+    OrcSearchArgumentBuilder intBuilder = new OrcSearchArgumentBuilder( TypeDescription.fromString(
+      "struct<count:int>" ) );
+
+    for ( Object literal : new Object[] { 1e20, new BigDecimal( "-1e30" ), Double.NaN } ) {
+      for ( SearchArgument sarg : Arrays.asList( intBuilder.build( PentahoPredicate.lt( "count", literal ) ),
+        intBuilder.build( PentahoPredicate.ge( "count", literal ) ),
+        intBuilder.build( PentahoPredicate.eq( "count", literal ) ),
+        intBuilder.build( PentahoPredicate.in( "count", 1, literal ) ) ) ) {
+        assertEquals( 0, sarg.getLeaves().size() );
+        assertEquals( SearchArgument.TruthValue.YES_NO_NULL, sarg.evaluate( new SearchArgument.TruthValue[ 0 ] ) );
+      }
+    }
+  }
+
+  @Test
+  public void testDateAfterMidnight() {
+    OrcSearchArgumentBuilder dateBuilder = new OrcSearchArgumentBuilder( TypeDescription.fromString(
+      "struct<day:date>" ) );
+    Date noon = java.sql.Timestamp.valueOf( "2024-03-10 12:00:00" );
+
+    assertLeaf( dateBuilder.build( PentahoPredicate.lt( "day", noon ) ).getLeaves().get( 0 ),
+      PredicateLeaf.Operator.LESS_THAN, "day", PredicateLeaf.Type.DATE, java.sql.Date.valueOf( "2024-03-11" ) );
+    assertLeaf( dateBuilder.build( PentahoPredicate.le( "day", noon ) ).getLeaves().get( 0 ),
+      PredicateLeaf.Operator.LESS_THAN_EQUALS, "day", PredicateLeaf.Type.DATE, java.sql.Date.valueOf( "2024-03-10" ) );
+    assertEquals( 0, dateBuilder.build( PentahoPredicate.eq( "day", noon ) ).getLeaves().size() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testUnknownColumn() {
+    builder.build( PentahoPredicate.eq( "missing", 1L ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testIncompatibleLiteral() {
+    builder.build( PentahoPredicate.eq( "id", "one" ) );
+  }
+
+  @Test
+  public void testIncludedColumns() {
+    // ids: 0 root, 1 id, 2 name, 3 amount, 4 created, 5 payload, 6 address, 7 city, 8 zip, 9 score
+    assertArrayEquals( new boolean[] { true, false, true, false, false, false, true, true, true, false },
+      PentahoOrcRecordReader.getIncludedColumns( schema, Arrays.asList( 1, 5 ) ) );
+    assertArrayEquals( new boolean[] { true, false, false, false, false, false, false, false, false, false },
+      PentahoOrcRecordReader.getIncludedColumns( schema, Collections.emptyList() ) );
+  }
+
+  private void assertLeaf( PredicateLeaf leaf, PredicateLeaf.Operator operator, String column,
+                           PredicateLeaf.Type type, Object literal ) {
+    assertEquals( operator, leaf.getOperator() );
+    assertEquals( column, leaf.getColumnName() );
+    assertEquals( type, leaf.getType() );
+    assertEquals( literal, leaf.getLiteral() );
+  }
+}
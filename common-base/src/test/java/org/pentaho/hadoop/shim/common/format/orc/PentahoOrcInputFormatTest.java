@@ -12,22 +12,49 @@
 
 package org.pentaho.hadoop.shim.common.format.orc;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcConf;
+import org.apache.orc.OrcFile;
+import org.apache.orc.StripeInformation;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.logging.KettleLogStore;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaPluginType;
 import org.pentaho.di.core.util.Assert;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoInputSplit;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordReader;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Created by tkafalas on 11/20/2017.
  */
 public class PentahoOrcInputFormatTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   private PentahoOrcInputFormat pentahoOrcInputFormat;
   private List<IOrcInputField> mockSchemaDescription;
 
@@ -55,4 +82,99 @@ public class PentahoOrcInputFormatTest {
     Assert.assertNotNull( new PentahoOrcInputFormat( null ),
       "null named cluster is allowed for non-hadoop filesystems." );
   }
+
+  @Test
+  public void testAddSplitsOnStripeBoundaries() {
+    List<StripeInformation> stripes = Arrays.asList( stripe( 3, 40 ), stripe( 43, 40 ), stripe( 83, 40 ),
+      stripe( 123, 10 ) );
+    List<IPentahoInputSplit> splits = new ArrayList<>();
+
+    PentahoOrcInputFormat.addSplits( splits, "file.orc", stripes, 80 );
+
+    assertEquals( 2, splits.size() );
+    assertSplit( splits.get( 0 ), 3, 80 );
+    assertSplit( splits.get( 1 ), 83, 50 );
+
+    splits.clear();
+    PentahoOrcInputFormat.addSplits( splits, "file.orc", stripes, 1 );
+    assertEquals( 4, splits.size() );
+    PentahoOrcInputFormat.addSplits( splits, "empty.orc", new ArrayList<>(), 1 );
+    assertEquals( 4, splits.size() );
+  }
+
+  @Test
+  public void testSplitsCoverAllFilesOfDirectory() throws Exception {
+    PluginRegistry.addPluginType( ValueMetaPluginType.getInstance() );
+    PluginRegistry.init( true );
+    File root = tempFolder.newFolder( "dataset" );
+    writeOrcFile( new File( root, "part-0.orc" ), 0, 5000 );
+    writeOrcFile( new File( new File( root, "dt=2" ), "part-1.orc" ), 5000, 3000 );
+    writeOrcFile( new File( new File( root, "_temporary" ), "part-2.orc" ), 8000, 100 );
+
+    pentahoOrcInputFormat.setInputFile( root.getAbsolutePath() );
+    pentahoOrcInputFormat.setSchema( Arrays.asList( inputField( "id" ) ) );
+    List<IPentahoInputSplit> splits = pentahoOrcInputFormat.getSplits();
+    assertEquals( 2, splits.size() );
+    assertReadsAllRows( splits, 8000 );
+
+    pentahoOrcInputFormat.setSplitSize( 1 );
+    splits = pentahoOrcInputFormat.getSplits();
+    assertTrue( splits.size() > 2 );
+    assertReadsAllRows( splits, 8000 );
+  }
+
+  private void assertReadsAllRows( List<IPentahoInputSplit> splits, int rows ) throws Exception {
+    Set<Long> ids = new HashSet<>();
+    for ( IPentahoInputSplit split : splits ) {
+      try ( IPentahoRecordReader reader = pentahoOrcInputFormat.createRecordReader( split ) ) {
+        for ( RowMetaAndData row : reader ) {
+          assertTrue( ids.add( row.getInteger( "id", -1L ) ) );
+        }
+      }
+    }
+    assertEquals( rows, ids.size() );
+  }
+
+  private void writeOrcFile( File file, long firstId, int rows ) throws Exception {
+    file.getParentFile().mkdirs();
+    TypeDescription schema = TypeDescription.fromString( "struct<id:bigint>" );
+    // Small stripes so that the files can be split
+    Configuration conf = new Configuration();
+    OrcConf.ROWS_BETWEEN_CHECKS.setLong( conf, 100 );
+    try ( Writer writer = OrcFile.createWriter( new Path( file.getAbsolutePath() ),
+      OrcFile.writerOptions( conf ).setSchema( schema ).stripeSize( 1024 ).bufferSize( 1024 ) ) ) {
+      VectorizedRowBatch batch = schema.createRowBatch( 500 );
+      LongColumnVector ids = (LongColumnVector) batch.cols[ 0 ];
+      for ( long id = firstId; id < firstId + rows; id++ ) {
+        ids.vector[ batch.size++ ] = id;
+        if ( batch.size == batch.getMaxSize() ) {
+          writer.addRowBatch( batch );
+          batch.reset();
+        }
+      }
+      if ( batch.size > 0 ) {
+        writer.addRowBatch( batch );
+      }
+    }
+  }
+
+  private IOrcInputField inputField( String name ) {
+    OrcInputField field = new OrcInputField();
+    field.setFormatFieldName( name );
+    field.setPentahoFieldName( name );
+    field.setPentahoType( ValueMetaInterface.TYPE_INTEGER );
+    return field;
+  }
+
+  private StripeInformation stripe( long offset, long length ) {
+    StripeInformation stripe = mock( StripeInformation.class );
+    when( stripe.getOffset() ).thenReturn( offset );
+    when( stripe.getLength() ).thenReturn( length );
+    return stripe;
+  }
+
+  private void assertSplit( IPentahoInputSplit split, long offset, long length ) {
+    assertEquals( offset, ( (PentahoOrcInputSplit) split ).getOffset() );
+    assertEquals( length, ( (PentahoOrcInputSplit) split ).getLength() );
+  }
 }
@@ -0,0 +1,97 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.io.api.Binary;
+import org.junit.Test;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+import org.pentaho.hadoop.shim.api.format.ParquetSpec;
+import org.pentaho.hadoop.shim.api.format.PentahoPredicate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ParquetFilterPredicateBuilderTest {
+
+  private final List<IParquetInputField> fields = Arrays.asList(
+    new ParquetInputField( "Name", ParquetSpec.DataType.UTF8, "Name", ValueMetaInterface.TYPE_STRING ),
+    new ParquetInputField( "Age", ParquetSpec.DataType.INT_64, "Age", ValueMetaInterface.TYPE_INTEGER ),
+    new ParquetInputField( "Count", ParquetSpec.DataType.INT_32, "Count", ValueMetaInterface.TYPE_INTEGER ),
+    new ParquetInputField( "Photo", ParquetSpec.DataType.BINARY, "Photo", ValueMetaInterface.TYPE_BINARY ) );
+
+  private final ParquetFilterPredicateBuilder builder = new ParquetFilterPredicateBuilder( fields );
+
+  @Test
+  public void testLeaves() {
+    assertEquals( FilterApi.eq( FilterApi.binaryColumn( "Name" ), Binary.fromString( "John" ) ),
+      builder.build( PentahoPredicate.eq( "Name", "John" ) ) );
+    assertEquals( FilterApi.gtEq( FilterApi.longColumn( "Age" ), 18L ),
+      builder.build( PentahoPredicate.ge( "Age", 18 ) ) );
+    assertEquals( FilterApi.eq( FilterApi.longColumn( "Age" ), null ),
+      builder.build( PentahoPredicate.isNull( "Age" ) ) );
+  }
+
+  @Test
+  public void testUncomparableLeavesNeverSkipData() {
+    FilterPredicate age = FilterApi.lt( FilterApi.longColumn( "Age" ), 30L );
+    assertEquals( age, builder.build(
+      PentahoPredicate.and( PentahoPredicate.eq( "Photo", "x" ), PentahoPredicate.lt( "Age", 30L ) ) ) );
+    assertNull( builder.build(
+      PentahoPredicate.or( PentahoPredicate.eq( "Photo", "x" ), PentahoPredicate.lt( "Age", 30L ) ) ) );
+    assertNull( builder.build( PentahoPredicate.not( PentahoPredicate.eq( "Photo", "x" ) ) ) );
+  }
+
+  @Test
+  public void testNotOverPartiallyTranslatedAnd() {
+    // Negating the Age operand alone would skip rows with an Age below 30 whose Photo is not "x"
+    assertNull( builder.build( PentahoPredicate.not(
+      PentahoPredicate.and( PentahoPredicate.eq( "Photo", "x" ), PentahoPredicate.lt( "Age", 30L ) ) ) ) );
+    assertEquals( FilterApi.eq( FilterApi.binaryColumn( "Name" ), Binary.fromString( "John" ) ),
+      builder.build( PentahoPredicate.and( PentahoPredicate.eq( "Name", "John" ), PentahoPredicate.not(
+        PentahoPredicate.and( PentahoPredicate.eq( "Photo", "x" ), PentahoPredicate.lt( "Age", 30L ) ) ) ) ) );
+    assertEquals( FilterApi.not( FilterApi.and( FilterApi.eq( FilterApi.binaryColumn( "Name" ),
+      Binary.fromString( "John" ) ), FilterApi.lt( FilterApi.longColumn( "Age" ), 30L ) ) ),
+      builder.build( PentahoPredicate.not(
+        PentahoPredicate.and( PentahoPredicate.eq( "Name", "John" ), PentahoPredicate.lt( "Age", 30L ) ) ) ) );
+  }
+
+  @Test
+  public void testFractionalLiteralOnIntegerColumn() {
+    assertEquals( FilterApi.lt( FilterApi.intColumn( "Count" ), 3 ),
+      builder.build( PentahoPredicate.lt( "Count", 2.5 ) ) );
+    assertEquals( FilterApi.ltEq( FilterApi.intColumn( "Count" ), 2 ),
+      builder.build( PentahoPredicate.le( "Count", 2.5 ) ) );
+    assertEquals( FilterApi.gt( FilterApi.intColumn( "Count" ), 2 ),
+      builder.build( PentahoPredicate.gt( "Count", 2.5 ) ) );
+    assertEquals( FilterApi.gtEq( FilterApi.longColumn( "Age" ), -2L ),
+      builder.build( PentahoPredicate.ge( "Age", -2.5 ) ) );
+    assertNull( builder.build( PentahoPredicate.eq( "Count", 2.5 ) ) );
+    assertNull( builder.build( PentahoPredicate.lt( "Count", 1e20 ) ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testUnknownField() {
+    builder.build( PentahoPredicate.eq( "Missing", 1 ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testIncompatibleLiteral() {
+    builder.build( PentahoPredicate.eq( "Age", "old" ) );
+  }
+}
@@ -0,0 +1,188 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.Footer;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParquetFooterCacheTest {
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType( "message m { required int64 id; }" );
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.setClass( "fs.opencounting.impl", OpenCountingFileSystem.class, FileSystem.class );
+    conf.setBoolean( "fs.opencounting.impl.disable.cache", true );
+    OpenCountingFileSystem.OPENS.set( 0 );
+  }
+
+  @Test
+  public void testFooterIsReadOnce() throws Exception {
+    ParquetFooterCache cache = new ParquetFooterCache( 1000 );
+    Path file = write( "a.parquet", 10 );
+
+    ParquetMetadata footer = cache.getFooter( conf, status( file ) );
+    assertSame( footer, cache.getFooter( conf, status( file ) ) );
+    assertEquals( 10, footer.getBlocks().get( 0 ).getRowCount() );
+    assertEquals( 1, OpenCountingFileSystem.OPENS.get() );
+    assertEquals( 1, cache.getHitCount() );
+    assertEquals( 1, cache.getMissCount() );
+  }
+
+  @Test
+  public void testRewrittenFileIsReadAgain() throws Exception {
+    ParquetFooterCache cache = new ParquetFooterCache( 1000 );
+    Path file = write( "a.parquet", 10 );
+    ParquetMetadata footer = cache.getFooter( conf, status( file ) );
+
+    write( "a.parquet", 20 );
+    ParquetMetadata rewritten = cache.getFooter( conf, status( file ) );
+
+    assertNotSame( footer, rewritten );
+    assertEquals( 20, rewritten.getBlocks().get( 0 ).getRowCount() );
+    assertEquals( 2, OpenCountingFileSystem.OPENS.get() );
+  }
+
+  @Test
+  public void testFootersAreSharedAndKeepTheirOrder() throws Exception {
+    ParquetFooterCache cache = new ParquetFooterCache( 1000 );
+    List<FileStatus> statuses = Arrays.asList(
+      status( write( "a.parquet", 1 ) ), status( write( "b.parquet", 2 ) ), status( write( "c.parquet", 3 ) ) );
+    cache.getFooter( conf, statuses.get( 1 ) );
+
+    List<Footer> footers = cache.getFooters( conf, statuses );
+    assertEquals( 3, OpenCountingFileSystem.OPENS.get() );
+    for ( int i = 0; i < footers.size(); i++ ) {
+      assertEquals( statuses.get( i ).getPath(), footers.get( i ).getFile() );
+      assertEquals( i + 1, footers.get( i ).getParquetMetadata().getBlocks().get( 0 ).getRowCount() );
+    }
+
+    cache.getFooters( conf, statuses );
+    assertEquals( 3, OpenCountingFileSystem.OPENS.get() );
+    assertEquals( 4, cache.getHitCount() );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedFooterIsEvicted() throws Exception {
+    // a footer of one row group with one column weighs two column chunks
+    ParquetFooterCache cache = new ParquetFooterCache( 4 );
+    FileStatus a = status( write( "a.parquet", 1 ) );
+    FileStatus b = status( write( "b.parquet", 1 ) );
+    FileStatus c = status( write( "c.parquet", 1 ) );
+    cache.getFooter( conf, a );
+    cache.getFooter( conf, b );
+    cache.getFooter( conf, a );
+    cache.getFooter( conf, c );
+
+    assertEquals( 2, cache.size() );
+    assertEquals( 1, cache.getEvictionCount() );
+    OpenCountingFileSystem.OPENS.set( 0 );
+    cache.getFooter( conf, a );
+    cache.getFooter( conf, c );
+    assertEquals( 0, OpenCountingFileSystem.OPENS.get() );
+    cache.getFooter( conf, b );
+    assertEquals( 1, OpenCountingFileSystem.OPENS.get() );
+  }
+
+  @Test
+  public void testFirstFooterOfDirectory() throws Exception {
+    ParquetFooterCache cache = new ParquetFooterCache( 1000 );
+    File directory = tempFolder.newFolder( "table" );
+    Path path = new Path( "opencounting://" + directory.getAbsolutePath() );
+    assertNull( cache.getFirstFooter( conf, status( path ) ) );
+
+    assertTrue( new File( directory, "_SUCCESS" ).createNewFile() );
+    write( "table/part-1.parquet", 1 );
+    write( "table/part-2.parquet", 2 );
+
+    ParquetMetadata footer = cache.getFirstFooter( conf, status( path ) );
+    assertEquals( 1, footer.getBlocks().get( 0 ).getRowCount() );
+    assertSame( footer, cache.getFirstFooter( conf, status( path ) ) );
+    assertEquals( 1, OpenCountingFileSystem.OPENS.get() );
+  }
+
+  private Path write( String name, int rows ) throws IOException {
+    File file = new File( tempFolder.getRoot(), name );
+    try ( ParquetWriter<Group> writer =
+            ExampleParquetWriter.builder( new Path( file.toURI() ) ).withType( SCHEMA )
+              .withWriteMode( ParquetFileWriter.Mode.OVERWRITE ).build() ) {
+      SimpleGroupFactory groups = new SimpleGroupFactory( SCHEMA );
+      for ( long row = 0; row < rows; row++ ) {
+        writer.write( groups.newGroup().append( "id", row ) );
+      }
+    }
+    return new Path( "opencounting://" + file.getAbsolutePath() );
+  }
+
+  private FileStatus status( Path file ) throws IOException {
+    return file.getFileSystem( conf ).getFileStatus( file );
+  }
+
+  /**
+   * Local file system under the opencounting:// scheme which counts the files it opens.
+   */
+  public static class OpenCountingFileSystem extends RawLocalFileSystem {
+    static final AtomicInteger OPENS = new AtomicInteger();
+
+    @Override
+    public URI getUri() {
+      return URI.create( "opencounting:///" );
+    }
+
+    @Override
+    public String getScheme() {
+      return "opencounting";
+    }
+
+    @Override
+    public FSDataInputStream open( Path f, int bufferSize ) throws IOException {
+      OPENS.incrementAndGet();
+      return super.open( f, bufferSize );
+    }
+  }
+}
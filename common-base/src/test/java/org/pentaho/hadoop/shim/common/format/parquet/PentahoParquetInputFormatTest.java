@@ -14,9 +14,23 @@ package org.pentaho.hadoop.shim.common.format.parquet;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.mockito.Mockito;
@@ -33,13 +47,17 @@ import org.pentaho.di.core.row.value.ValueMetaNumber;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.row.value.ValueMetaTimestamp;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.hadoop.shim.api.format.ColumnBatch;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+import org.pentaho.hadoop.shim.api.format.IPentahoColumnarRecordReader;
 import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoInputSplit;
 import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordReader;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
+import org.pentaho.hadoop.shim.api.format.PentahoPredicate;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoApacheInputFormat;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.twitter.PentahoTwitterInputFormat;
 
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.NoSuchFileException;
@@ -47,6 +65,7 @@ import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -70,6 +89,9 @@ public class PentahoParquetInputFormatTest {
   @Parameterized.Parameter
   public String provider;
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   private IPentahoParquetInputFormat pentahoParquetInputFormat;
   private String parquetFilePath = getClass().getClassLoader().getResource( "sample.pqt" ).toExternalForm();
 
@@ -154,6 +176,173 @@ public class PentahoParquetInputFormatTest {
         || exception.getCause() instanceof IOException );
   }
 
+  @Test
+  public void testSplitFilesOnRowGroups() throws Exception {
+    int rowCount = 20000;
+    String fileName = writeRowGroups( rowCount );
+    pentahoParquetInputFormat.setInputFile( fileName );
+    pentahoParquetInputFormat.setSchema( (List<IParquetInputField>) pentahoParquetInputFormat.readSchema( fileName ) );
+    pentahoParquetInputFormat.setSplitFiles( true );
+    pentahoParquetInputFormat.setSplitSize( 1 );
+
+    List<IPentahoInputSplit> splits = pentahoParquetInputFormat.getSplits();
+    Set<Long> ids = new TreeSet<>();
+    for ( IPentahoInputSplit split : splits ) {
+      try ( IPentahoRecordReader rd = pentahoParquetInputFormat.createRecordReader( split ) ) {
+        rd.forEach( row -> Assert.assertTrue( ids.add( (Long) row.getData()[ 0 ] ) ) );
+      }
+    }
+    Assert.assertEquals( rowCount, ids.size() );
+    if ( "APACHE".equals( provider ) ) {
+      Assert.assertTrue( splits.size() > 1 );
+      for ( IPentahoInputSplit split : splits ) {
+        Assert.assertEquals( 1, ( (PentahoParquetInputSplit) split ).getRowGroupCount() );
+        Assert.assertFalse( ( (PentahoParquetInputSplit) split ).isSequentialRead() );
+      }
+    }
+  }
+
+  @Test
+  public void testFilterSkipsRowGroups() throws Exception {
+    int rowCount = 20000;
+    String fileName = writeRowGroups( rowCount );
+    pentahoParquetInputFormat.setInputFile( fileName );
+    pentahoParquetInputFormat.setSchema( (List<IParquetInputField>) pentahoParquetInputFormat.readSchema( fileName ) );
+    pentahoParquetInputFormat.setSplitFiles( true );
+    pentahoParquetInputFormat.setSplitSize( 1 );
+    int allRowGroups = countRowGroups( pentahoParquetInputFormat.getSplits() );
+
+    pentahoParquetInputFormat.setFilter( PentahoPredicate.or( PentahoPredicate.lt( "id", 100L ),
+      PentahoPredicate.in( "id", 15000L, 15001L ) ) );
+    List<IPentahoInputSplit> splits = pentahoParquetInputFormat.getSplits();
+    Set<Long> ids = new TreeSet<>();
+    for ( IPentahoInputSplit split : splits ) {
+      try ( IPentahoRecordReader rd = pentahoParquetInputFormat.createRecordReader( split ) ) {
+        rd.forEach( row -> ids.add( (Long) row.getData()[ 0 ] ) );
+      }
+    }
+    Assert.assertEquals( 102, ids.size() );
+    Assert.assertTrue( ids.contains( 0L ) && ids.contains( 99L ) && ids.contains( 15001L ) );
+    if ( "APACHE".equals( provider ) ) {
+      Assert.assertTrue( allRowGroups > 2 );
+      Assert.assertTrue( countRowGroups( splits ) < allRowGroups );
+    }
+  }
+
+  @Test
+  public void testColumnarReadMatchesRowRead() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    File file = new File( tempFolder.getRoot(), "nullable.parquet" );
+    MessageType schema = MessageTypeParser.parseMessageType(
+      "message test { required int64 id; optional double d; optional binary s (UTF8); optional boolean b; }" );
+    try ( ParquetWriter<Group> writer = ExampleParquetWriter.builder( new Path( file.toURI() ) )
+      .withType( schema ).withRowGroupSize( 1024 ).build() ) {
+      SimpleGroupFactory groups = new SimpleGroupFactory( schema );
+      for ( long i = 0; i < 10000; i++ ) {
+        Group group = groups.newGroup().append( "id", i );
+        if ( i % 3 != 0 ) {
+          group.append( "d", i / 4.0 ).append( "s", "s" + ( i % 7 ) ).append( "b", i % 2 == 0 );
+        }
+        writer.write( group );
+      }
+    }
+
+    for ( String fileName : Arrays.asList( parquetFilePath, file.toURI().toString() ) ) {
+      pentahoParquetInputFormat.setInputFile( fileName );
+      pentahoParquetInputFormat.setSchema(
+        (List<IParquetInputField>) pentahoParquetInputFormat.readSchema( fileName ) );
+      pentahoParquetInputFormat.setColumnarRead( false );
+      List<RowMetaAndData> expected = readRows();
+      pentahoParquetInputFormat.setColumnarRead( true );
+      List<RowMetaAndData> actual = readRows();
+
+      Assert.assertEquals( expected.size(), actual.size() );
+      for ( int r = 0; r < expected.size(); r++ ) {
+        Assert.assertEquals( expected.get( r ).getRowMeta().toString(), actual.get( r ).getRowMeta().toString() );
+        Assert.assertArrayEquals( expected.get( r ).getData(), actual.get( r ).getData() );
+      }
+    }
+  }
+
+  @Test
+  public void testColumnarReadBatches() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    int rowCount = 20000;
+    String fileName = writeRowGroups( rowCount );
+    pentahoParquetInputFormat.setInputFile( fileName );
+    pentahoParquetInputFormat.setSchema( (List<IParquetInputField>) pentahoParquetInputFormat.readSchema( fileName ) );
+    pentahoParquetInputFormat.setColumnarRead( true );
+
+    long next = 0;
+    for ( IPentahoInputSplit split : pentahoParquetInputFormat.getSplits() ) {
+      try ( IPentahoColumnarRecordReader rd =
+              (IPentahoColumnarRecordReader) pentahoParquetInputFormat.createRecordReader( split ) ) {
+        for ( ColumnBatch batch = rd.nextBatch(); batch != null; batch = rd.nextBatch() ) {
+          Assert.assertEquals( 1, batch.getColumnCount() );
+          Assert.assertEquals( ColumnBatch.ColumnType.LONG, batch.getColumn( 0 ).getType() );
+          long[] ids = batch.getColumn( 0 ).getLongs();
+          for ( int row = 0; row < batch.size(); row++ ) {
+            Assert.assertFalse( batch.getColumn( 0 ).isNull( row ) );
+            Assert.assertEquals( next++, ids[ row ] );
+          }
+        }
+      }
+    }
+    Assert.assertEquals( rowCount, next );
+  }
+
+  private List<RowMetaAndData> readRows() throws Exception {
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( IPentahoInputSplit split : pentahoParquetInputFormat.getSplits() ) {
+      try ( IPentahoRecordReader rd = pentahoParquetInputFormat.createRecordReader( split ) ) {
+        rd.forEach( rows::add );
+      }
+    }
+    return rows;
+  }
+
+  private String writeRowGroups( int rowCount ) throws IOException {
+    File file = new File( tempFolder.getRoot(), "rowgroups.parquet" );
+    MessageType schema = MessageTypeParser.parseMessageType( "message test { required int64 id; }" );
+    try ( ParquetWriter<Group> writer = ExampleParquetWriter.builder( new Path( file.toURI() ) )
+      .withType( schema ).withRowGroupSize( 1024 ).withDictionaryEncoding( false ).build() ) {
+      SimpleGroupFactory groups = new SimpleGroupFactory( schema );
+      for ( long i = 0; i < rowCount; i++ ) {
+        writer.write( groups.newGroup().append( "id", i ) );
+      }
+    }
+    return file.toURI().toString();
+  }
+
+  private int countRowGroups( List<IPentahoInputSplit> splits ) {
+    int rowGroups = 0;
+    for ( IPentahoInputSplit split : splits ) {
+      if ( split instanceof PentahoParquetInputSplit ) {
+        rowGroups += ( (PentahoParquetInputSplit) split ).getRowGroupCount();
+      }
+    }
+    return rowGroups;
+  }
+
+  @Test
+  public void testSequentialReadReason() {
+    ColumnChunkMetaData column = mock( ColumnChunkMetaData.class );
+    when( column.getEncodings() ).thenReturn( Collections.singleton( Encoding.DELTA_BYTE_ARRAY ) );
+    BlockMetaData block = new BlockMetaData();
+    block.addColumn( column );
+    MessageType schema = MessageTypeParser.parseMessageType( "message test { required binary name; }" );
+
+    ParquetMetadata affected = new ParquetMetadata(
+      new FileMetaData( schema, Collections.emptyMap(), "parquet-mr version 1.6.0 (build abcd)" ),
+      Collections.singletonList( block ) );
+    Assert.assertNotNull( PentahoParquetInputSplit.getSequentialReadReason( affected ) );
+
+    ParquetMetadata fixed = new ParquetMetadata(
+      new FileMetaData( schema, Collections.emptyMap(), "parquet-mr version 1.10.0 (build abcd)" ),
+      Collections.singletonList( block ) );
+    Assert.assertNull( PentahoParquetInputSplit.getSequentialReadReason( fixed ) );
+  }
+
   private void readData( String file ) throws Exception {
     RowMeta expectedRowMeta = new RowMeta();
     expectedRowMeta.addValueMeta( new ValueMetaNumber( "fnum" ) );
@@ -12,7 +12,17 @@
 
 package org.pentaho.hadoop.shim.common.format.parquet;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Binary;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,6 +44,7 @@ import org.pentaho.hadoop.shim.api.format.IPentahoParquetOutputFormat;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetOutputFormat.VERSION;
 import org.pentaho.hadoop.shim.api.format.ParquetSpec;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoApacheOutputFormat;
+import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoParquetRollingRecordWriter;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.twitter.PentahoTwitterOutputFormat;
 
 import java.io.File;
@@ -43,10 +54,16 @@ import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith ( Parameterized.class )
 public class PentahoParquetOutputFormatTest {
@@ -165,6 +182,147 @@ public class PentahoParquetOutputFormatTest {
     Assert.assertNull( exception );
   }
 
+  @Test
+  public void testRolloverOnRowCount() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    File dir = new File( Files.createTempDirectory( "parquet" ).toFile(), "rolling" );
+    pentahoParquetOutputFormat.setOutputFile( dir.toURI().toString(), true );
+    pentahoParquetOutputFormat.setFields( ParquetUtils.createOutputFields() );
+    pentahoParquetOutputFormat.setRollover( 0, 4 );
+
+    writeKeyedRows( "a", "a", "a", "a", "a", "a", "a", "a", "a", "a" );
+
+    assertEquals( Arrays.asList( "part-00000.parquet", "part-00001.parquet", "part-00002.parquet" ),
+      Files.readAllLines( new File( dir, PentahoParquetRollingRecordWriter.MANIFEST_FILE ).toPath() ) );
+    for ( int i = 0; i < 3; i++ ) {
+      assertTrue( new File( dir, String.format( "part-%05d.parquet", i ) ).length() > 0 );
+    }
+    assertFalse( new File( dir, "part-00003.parquet" ).exists() );
+  }
+
+  @Test
+  public void testPartitionedRollover() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    File dir = new File( Files.createTempDirectory( "parquet" ).toFile(), "partitioned" );
+    pentahoParquetOutputFormat.setOutputFile( dir.toURI().toString(), true );
+    pentahoParquetOutputFormat.setFields( ParquetUtils.createOutputFields() );
+    pentahoParquetOutputFormat.setRollover( 0, 2 );
+    pentahoParquetOutputFormat.setPartitionField( "key", true );
+
+    writeKeyedRows( "a", "b", "a", "a/b", null, "b" );
+
+    List<String> manifest = Files.readAllLines( new File( dir, PentahoParquetRollingRecordWriter.MANIFEST_FILE )
+      .toPath() );
+    Collections.sort( manifest );
+    assertEquals( Arrays.asList( "key=__HIVE_DEFAULT_PARTITION__/part-00000.parquet", "key=a%2Fb/part-00000.parquet",
+      "key=a/part-00000.parquet", "key=b/part-00000.parquet" ), manifest );
+    for ( String part : manifest ) {
+      assertTrue( new File( dir, part ).length() > 0 );
+    }
+  }
+
+  @Test
+  public void testRolloverOnFileSize() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    File dir = new File( Files.createTempDirectory( "parquet" ).toFile(), "sized" );
+    pentahoParquetOutputFormat.setOutputFile( dir.toURI().toString(), true );
+    pentahoParquetOutputFormat.setFields( ParquetUtils.createOutputFields() );
+    pentahoParquetOutputFormat.setRowGroupSize( 1024 );
+    pentahoParquetOutputFormat.setRollover( 1, 0 );
+
+    int rows = 20000;
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "Age" ) );
+    try ( IPentahoRecordWriter wr = pentahoParquetOutputFormat.createRecordWriter() ) {
+      for ( int i = 0; i < rows; i++ ) {
+        wr.write( new RowMetaAndData( rowMeta, "name" + i, String.valueOf( i ) ) );
+      }
+    }
+
+    List<String> manifest = Files.readAllLines( new File( dir, PentahoParquetRollingRecordWriter.MANIFEST_FILE )
+      .toPath() );
+    assertTrue( manifest.size() > 1 );
+    long written = 0;
+    for ( String part : manifest ) {
+      try ( ParquetFileReader reader = ParquetFileReader.open(
+        HadoopInputFile.fromPath( new Path( new File( dir, part ).toURI() ), new Configuration() ) ) ) {
+        written += reader.getRecordCount();
+      }
+    }
+    assertEquals( rows, written );
+  }
+
+  @Test
+  public void testMaxOpenPartitions() throws Exception {
+    Assume.assumeTrue( "APACHE".equals( provider ) );
+    File dir = new File( Files.createTempDirectory( "parquet" ).toFile(), "limited" );
+    pentahoParquetOutputFormat.setOutputFile( dir.toURI().toString(), true );
+    pentahoParquetOutputFormat.setFields( ParquetUtils.createOutputFields() );
+    pentahoParquetOutputFormat.setPartitionField( "key", false );
+    pentahoParquetOutputFormat.setMaxOpenPartitions( 2 );
+
+    // c closes a, the least recently written, b is written again and a closes c
+    writeKeyedRows( "a", "b", "c", "b", "a" );
+
+    assertEquals( Arrays.asList( "key=a/part-00000.parquet", "key=c/part-00000.parquet", "key=b/part-00000.parquet",
+      "key=a/part-00001.parquet" ), Files.readAllLines( new File( dir, PentahoParquetRollingRecordWriter.MANIFEST_FILE )
+      .toPath() ) );
+  }
+
+  @Test
+  public void testBloomFilterAndIndexes() throws Exception {
+    File file = new File( Files.createTempDirectory( "parquet" ).toFile(), "indexed.parquet" );
+    pentahoParquetOutputFormat.setOutputFile( file.toURI().toString(), true );
+    pentahoParquetOutputFormat.setFields( ParquetUtils.createOutputFields() );
+    pentahoParquetOutputFormat.setBloomFilter( "Name", 1000 );
+    pentahoParquetOutputFormat.setColumnDictionary( "Age", true );
+    pentahoParquetOutputFormat.setPageRowCountLimit( 100 );
+    pentahoParquetOutputFormat.setColumnIndexTruncateLength( 16 );
+    pentahoParquetOutputFormat.setStatisticsTruncateLength( 16 );
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "Age" ) );
+    try ( IPentahoRecordWriter wr = pentahoParquetOutputFormat.createRecordWriter() ) {
+      for ( int i = 0; i < 1000; i++ ) {
+        wr.write( new RowMetaAndData( rowMeta, "name" + i, String.valueOf( 30 + i % 5 ) ) );
+      }
+    }
+
+    try ( ParquetFileReader reader = ParquetFileReader.open(
+      HadoopInputFile.fromPath( new Path( file.toURI() ), new Configuration() ) ) ) {
+      BlockMetaData block = reader.getFooter().getBlocks().get( 0 );
+      ColumnChunkMetaData name = block.getColumns().get( 0 );
+      ColumnChunkMetaData age = block.getColumns().get( 1 );
+
+      BloomFilter bloomFilter = reader.readBloomFilter( name );
+      assertNotNull( bloomFilter );
+      assertTrue( bloomFilter.findHash( bloomFilter.hash( Binary.fromString( "name500" ) ) ) );
+      assertNull( reader.readBloomFilter( age ) );
+
+      assertNotNull( reader.readColumnIndex( name ) );
+      assertTrue( reader.readOffsetIndex( name ).getPageCount() > 1 );
+
+      assertTrue( age.getEncodings().contains( Encoding.PLAIN_DICTIONARY )
+        || age.getEncodings().contains( Encoding.RLE_DICTIONARY ) );
+      assertFalse( name.getEncodings().contains( Encoding.PLAIN_DICTIONARY )
+        || name.getEncodings().contains( Encoding.RLE_DICTIONARY ) );
+    }
+  }
+
+  private void writeKeyedRows( String... keys ) throws Exception {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "Age" ) );
+    try ( IPentahoRecordWriter wr = pentahoParquetOutputFormat.createRecordWriter() ) {
+      for ( String key : keys ) {
+        wr.write( new RowMetaAndData( rowMeta, key, "Alex", "30" ) );
+      }
+    }
+  }
+
   private long writeData( String file, VERSION ver, CompressionCodecName compr, boolean dictionary ) throws Exception {
     pentahoParquetOutputFormat.setVersion( ver );
     pentahoParquetOutputFormat.setCompression( compr );
@@ -0,0 +1,242 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.common.format.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.hadoop.shim.api.format.IParquetInputField;
+import org.pentaho.hadoop.shim.api.format.ParquetSpec;
+import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.ParquetConverter;
+import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoParquetReadSupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PentahoParquetReadSupportTest {
+  private static final int COLUMNS = 100;
+  private static final int ROWS = 2000;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.setClass( "fs.counting.impl", CountingFileSystem.class, FileSystem.class );
+    conf.setBoolean( "fs.counting.impl.disable.cache", true );
+  }
+
+  @Test
+  public void testReadsOnlySelectedColumns() throws Exception {
+    StringBuilder schema = new StringBuilder( "message wide {" );
+    for ( int c = 0; c < COLUMNS; c++ ) {
+      schema.append( " required int64 c" ).append( c ).append( ';' );
+    }
+    Path file = write( "wide.parquet", MessageTypeParser.parseMessageType( schema.append( " }" ).toString() ),
+      ( groups, row ) -> {
+        Group group = groups.newGroup();
+        for ( int c = 0; c < COLUMNS; c++ ) {
+          group.append( "c" + c, row * COLUMNS + c );
+        }
+        return group;
+      } );
+
+    List<IParquetInputField> allFields = new ArrayList<>();
+    for ( int c = 0; c < COLUMNS; c++ ) {
+      allFields.add( field( "c" + c, ParquetSpec.DataType.INT_64, ValueMetaInterface.TYPE_INTEGER ) );
+    }
+    long allBytes = countBytesRead( file, allFields, ROWS );
+
+    List<RowMetaAndData> rows = new ArrayList<>();
+    long projectedBytes = countBytesRead( file, Arrays.asList(
+      field( "c7", ParquetSpec.DataType.INT_64, ValueMetaInterface.TYPE_INTEGER ),
+      field( "c42", ParquetSpec.DataType.INT_64, ValueMetaInterface.TYPE_INTEGER ) ), rows );
+
+    assertEquals( ROWS, rows.size() );
+    assertArrayEquals( new Object[] { 5L * COLUMNS + 7, 5L * COLUMNS + 42 }, rows.get( 5 ).getData() );
+    assertTrue( "projected read " + projectedBytes + " bytes, full read " + allBytes,
+      projectedBytes * 10 < allBytes );
+  }
+
+  @Test
+  public void testNestedAndSharedColumns() throws Exception {
+    MessageType schema = MessageTypeParser.parseMessageType( "message person { required binary name (UTF8);"
+      + " optional group address { optional binary city (UTF8); optional int64 zip; } required int64 age; }" );
+    Path file = write( "nested.parquet", schema, ( groups, row ) -> {
+      Group group = groups.newGroup().append( "name", "name" + row ).append( "age", row );
+      group.addGroup( "address" ).append( "city", "city" + row ).append( "zip", 1000 + row );
+      return group;
+    } );
+
+    List<RowMetaAndData> rows = new ArrayList<>();
+    countBytesRead( file, Arrays.asList(
+      field( "address.zip", ParquetSpec.DataType.INT_64, ValueMetaInterface.TYPE_INTEGER ),
+      field( "name", ParquetSpec.DataType.UTF8, ValueMetaInterface.TYPE_STRING ),
+      field( "address.city", ParquetSpec.DataType.UTF8, ValueMetaInterface.TYPE_STRING ),
+      field( "name", ParquetSpec.DataType.UTF8, ValueMetaInterface.TYPE_STRING ) ), rows );
+
+    assertEquals( ROWS, rows.size() );
+    assertArrayEquals( new Object[] { 1003L, "name3", "city3", "name3" }, rows.get( 3 ).getData() );
+
+    MessageType requested = new ParquetSchemaProjection( schema, Arrays.asList(
+      field( "address.zip", ParquetSpec.DataType.INT_64, ValueMetaInterface.TYPE_INTEGER ),
+      field( "name", ParquetSpec.DataType.UTF8, ValueMetaInterface.TYPE_STRING ) ) ).getRequestedSchema();
+    assertEquals( MessageTypeParser.parseMessageType(
+      "message person { optional group address { optional int64 zip; } required binary name (UTF8); }" ),
+      requested );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testRepeatedGroupIsRejected() {
+    MessageType schema = MessageTypeParser.parseMessageType(
+      "message person { repeated group phones { required binary number (UTF8); } }" );
+    new ParquetSchemaProjection( schema, Arrays.asList(
+      field( "phones.number", ParquetSpec.DataType.UTF8, ValueMetaInterface.TYPE_STRING ) ) );
+  }
+
+  private interface RowFactory {
+    Group create( SimpleGroupFactory groups, long row );
+  }
+
+  private Path write( String name, MessageType schema, RowFactory rows ) throws IOException {
+    File file = new File( tempFolder.getRoot(), name );
+    try ( ParquetWriter<Group> writer = ExampleParquetWriter.builder( new Path( file.toURI() ) )
+      .withType( schema ).withDictionaryEncoding( false ).build() ) {
+      SimpleGroupFactory groups = new SimpleGroupFactory( schema );
+      for ( long row = 0; row < ROWS; row++ ) {
+        writer.write( rows.create( groups, row ) );
+      }
+    }
+    return new Path( "counting://" + file.getAbsolutePath() );
+  }
+
+  private long countBytesRead( Path file, List<IParquetInputField> fields, int expectedRows ) throws IOException {
+    List<RowMetaAndData> rows = new ArrayList<>();
+    long bytes = countBytesRead( file, fields, rows );
+    assertEquals( expectedRows, rows.size() );
+    return bytes;
+  }
+
+  private long countBytesRead( Path file, List<IParquetInputField> fields, List<RowMetaAndData> rows )
+    throws IOException {
+    conf.set( ParquetConverter.PARQUET_SCHEMA_CONF_KEY, new ParquetInputFieldList( fields ).marshall() );
+    CountingFileSystem.BYTES_READ.set( 0 );
+    try ( ParquetReader<RowMetaAndData> reader =
+            ParquetReader.builder( new PentahoParquetReadSupport(), file ).withConf( conf ).build() ) {
+      for ( RowMetaAndData row = reader.read(); row != null; row = reader.read() ) {
+        rows.add( row );
+      }
+    }
+    return CountingFileSystem.BYTES_READ.get();
+  }
+
+  private static IParquetInputField field( String name, ParquetSpec.DataType type, int pentahoType ) {
+    return new ParquetInputField( name, type, name.replace( '.', '_' ), pentahoType );
+  }
+
+  /**
+   * Local file system under the counting:// scheme which counts the bytes read from its files.
+   */
+  public static class CountingFileSystem extends RawLocalFileSystem {
+    static final AtomicLong BYTES_READ = new AtomicLong();
+
+    @Override
+    public URI getUri() {
+      return URI.create( "counting:///" );
+    }
+
+    @Override
+    public String getScheme() {
+      return "counting";
+    }
+
+    @Override
+    public FSDataInputStream open( Path f, int bufferSize ) throws IOException {
+      return new FSDataInputStream( new CountingInputStream( super.open( f, bufferSize ) ) );
+    }
+  }
+
+  private static class CountingInputStream extends FSInputStream {
+    private final FSDataInputStream in;
+
+    CountingInputStream( FSDataInputStream in ) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if ( b >= 0 ) {
+        CountingFileSystem.BYTES_READ.incrementAndGet();
+      }
+      return b;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+      int read = in.read( b, off, len );
+      if ( read > 0 ) {
+        CountingFileSystem.BYTES_READ.addAndGet( read );
+      }
+      return read;
+    }
+
+    @Override
+    public void seek( long pos ) throws IOException {
+      in.seek( pos );
+    }
+
+    @Override
+    public long getPos() throws IOException {
+      return in.getPos();
+    }
+
+    @Override
+    public boolean seekToNewSource( long targetPos ) throws IOException {
+      return in.seekToNewSource( targetPos );
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
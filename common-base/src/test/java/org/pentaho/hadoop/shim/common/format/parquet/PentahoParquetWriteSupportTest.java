@@ -14,14 +14,25 @@ package org.pentaho.hadoop.shim.common.format.parquet;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.InOrder;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.util.Assert;
 import org.junit.Test;
 import org.pentaho.hadoop.shim.api.format.ParquetSpec;
 
 
 import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 
 @RunWith( Parameterized.class )
 public class PentahoParquetWriteSupportTest {
@@ -81,4 +92,48 @@ public class PentahoParquetWriteSupportTest {
         org.junit.Assert.fail( "Invalid provider name used." );
     }
   }
+
+  @Test
+  public void writeRowRebindsFieldsWhenRowMetaChanges() throws Exception {
+    List<ParquetOutputField> fields =
+      ParquetUtils.createOutputFields( ParquetSpec.DataType.UTF8, false, ParquetSpec.DataType.INT_64, false );
+    fields.get( 1 ).setDefaultValue( "42" );
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "Age" ) );
+    RowMeta swappedRowMeta = new RowMeta();
+    swappedRowMeta.addValueMeta( new ValueMetaInteger( "Age" ) );
+    swappedRowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+
+    RecordConsumer consumer = mock( RecordConsumer.class );
+    List<RowMetaAndData> rows = Arrays.asList(
+      new RowMetaAndData( rowMeta, "John", 30L ),
+      new RowMetaAndData( rowMeta, "Paul", null ),
+      new RowMetaAndData( swappedRowMeta, 25L, "George" ) );
+    switch ( provider ) {
+      case "APACHE":
+        org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoParquetWriteSupport apacheWriteSupport =
+          new org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoParquetWriteSupport( fields );
+        apacheWriteSupport.prepareForWrite( consumer );
+        rows.forEach( apacheWriteSupport::write );
+        break;
+      case "TWITTER":
+        org.pentaho.hadoop.shim.common.format.parquet.delegate.twitter.PentahoParquetWriteSupport twitterWriteSupport =
+          new org.pentaho.hadoop.shim.common.format.parquet.delegate.twitter.PentahoParquetWriteSupport( fields );
+        twitterWriteSupport.prepareForWrite( consumer );
+        rows.forEach( twitterWriteSupport::write );
+        break;
+      default:
+        org.junit.Assert.fail( "Invalid provider name used." );
+    }
+
+    InOrder inOrder = inOrder( consumer );
+    inOrder.verify( consumer ).addBinary( Binary.fromString( "John" ) );
+    inOrder.verify( consumer ).addLong( 30L );
+    inOrder.verify( consumer ).addBinary( Binary.fromString( "Paul" ) );
+    inOrder.verify( consumer ).addLong( 42L );
+    inOrder.verify( consumer ).addBinary( Binary.fromString( "George" ) );
+    inOrder.verify( consumer ).addLong( 25L );
+  }
 }
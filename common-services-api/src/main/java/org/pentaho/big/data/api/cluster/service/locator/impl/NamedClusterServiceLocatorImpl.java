@@ -16,7 +16,9 @@ package org.pentaho.big.data.api.cluster.service.locator.impl;
 import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.big.data.api.shims.LegacyShimLocator;
 import org.pentaho.big.data.impl.cluster.NamedClusterManager;
+import org.pentaho.di.core.osgi.api.NamedClusterSiteFile;
 import org.pentaho.di.core.service.PluginServiceLoader;
+import org.pentaho.di.core.util.StringUtil;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceFactory;
@@ -27,11 +29,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -46,18 +55,35 @@ public class NamedClusterServiceLocatorImpl implements NamedClusterServiceLocato
   @VisibleForTesting final Map<String, Map<Class<?>, List<NamedClusterServiceFactory<?>>>> serviceVendorTypeMapping;
   private final ReadWriteLock readWriteLock;
   @VisibleForTesting final String internalShim;
+  /**
+   * Services created so far, by cluster name, service class and embedded metastore
+   */
+  @VisibleForTesting final Map<ServiceKey, CachedService> serviceCache;
+  /**
+   * Milliseconds a cached service may go unused before it is created again, 0 to keep services until invalidated
+   */
+  private final long serviceIdleTimeout;
+  private final AtomicLong serviceCacheHits = new AtomicLong();
+  private final AtomicLong serviceCacheMisses = new AtomicLong();
   private MetastoreLocator metastoreLocator;
   private final NamedClusterService namedClusterManager;
   private static NamedClusterServiceLocatorImpl namedClusterServiceLocator = null;
 
   private static final Logger logger = LoggerFactory.getLogger( NamedClusterServiceLocatorImpl.class );
 
+  /**
+   * System property with the milliseconds a cached service may go unused before it is created again
+   */
+  public static final String SERVICE_IDLE_TIMEOUT_PROPERTY = "pentaho.named.cluster.service.idle.timeout";
+
   protected NamedClusterServiceLocatorImpl( String internalShim, NamedClusterService namedClusterManager ) {
     this.internalShim = Objects.requireNonNull(
       internalShim, "Set internal.shim in karaf/etc/pentaho.shim.cfg" );
     this.namedClusterManager = namedClusterManager;
     readWriteLock = new ReentrantReadWriteLock();
     serviceVendorTypeMapping = new HashMap<>();
+    serviceCache = new ConcurrentHashMap<>();
+    serviceIdleTimeout = Long.getLong( SERVICE_IDLE_TIMEOUT_PROPERTY, 0L );
   }
 
   public static synchronized NamedClusterServiceLocatorImpl getInstance( String shimIdentifier) {
@@ -107,6 +133,7 @@ public class NamedClusterServiceLocatorImpl implements NamedClusterServiceLocato
     } finally {
       writeLock.unlock();
     }
+    invalidateServices();
   }
 
   public void factoryRemoved( NamedClusterServiceFactory<?> namedClusterServiceFactory, Map properties ) {
@@ -124,6 +151,7 @@ public class NamedClusterServiceLocatorImpl implements NamedClusterServiceLocato
     } finally {
       writeLock.unlock();
     }
+    invalidateServices();
   }
 
   @Override
@@ -131,13 +159,138 @@ public class NamedClusterServiceLocatorImpl implements NamedClusterServiceLocato
     return getService( namedCluster, serviceClass, null );
   }
 
+  /**
+   * Services are created once per cluster and service class, and created again when the cluster's configuration
+   * changed, it was invalidated or the service was not used for longer than the idle timeout. The shim of a cluster
+   * without a shim identifier is looked up in the metastore when its service is created, a change of it there shows
+   * once the services of the cluster are invalidated.
+   */
   @Override
   public <T> T getService( NamedCluster namedCluster, Class<T> serviceClass, String embeddedMetaStoreProviderKey ) {
+    ServiceKey key = new ServiceKey( namedCluster == null ? null : namedCluster.getName(), serviceClass,
+      embeddedMetaStoreProviderKey );
+    List<Object> config = configValues( namedCluster );
+    long now = System.currentTimeMillis();
+    while ( true ) {
+      boolean[] created = new boolean[ 1 ];
+      CachedService cached = serviceCache.computeIfAbsent( key, k -> {
+        created[ 0 ] = true;
+        return new CachedService( config, now, () -> createService( namedCluster, serviceClass,
+          Objects.requireNonNull( getShimForService( namedCluster, embeddedMetaStoreProviderKey ) ) ) );
+      } );
+      if ( !created[ 0 ] && ( !cached.config.equals( config ) || isIdle( cached, now ) ) ) {
+        serviceCache.remove( key, cached );
+        continue;
+      }
+      if ( created[ 0 ] ) {
+        serviceCacheMisses.incrementAndGet();
+        if ( serviceIdleTimeout > 0 ) {
+          evictIdleServices();
+        }
+      } else {
+        serviceCacheHits.incrementAndGet();
+        cached.lastAccess = now;
+      }
+      // Only the first caller creates the service, the others wait for it
+      cached.creation.run();
+      try {
+        Object service = cached.creation.get();
+        if ( service == null ) {
+          // Not cached, so that a factory added later is found
+          serviceCache.remove( key, cached );
+        }
+        return serviceClass.cast( service );
+      } catch ( ExecutionException e ) {
+        serviceCache.remove( key, cached );
+        if ( e.getCause() instanceof RuntimeException ) {
+          throw (RuntimeException) e.getCause();
+        }
+        if ( e.getCause() instanceof Error ) {
+          throw (Error) e.getCause();
+        }
+        throw new IllegalStateException( e.getCause() );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException( "Interrupted while waiting for " + serviceClass + " of " + namedCluster, e );
+      }
+    }
+  }
+
+  private boolean isIdle( CachedService cached, long now ) {
+    return serviceIdleTimeout > 0 && now - cached.lastAccess > serviceIdleTimeout;
+  }
+
+  /**
+   * @return everything the services of the cluster are created from, with the variables of the cluster substituted
+   */
+  @VisibleForTesting static List<Object> configValues( NamedCluster namedCluster ) {
+    if ( namedCluster == null ) {
+      return Collections.emptyList();
+    }
+    List<Object> values = new ArrayList<>( Arrays.asList( namedCluster.getName(),
+      namedCluster.getShimIdentifier(), namedCluster.getStorageScheme(), namedCluster.getHdfsHost(),
+      namedCluster.getHdfsPort(), namedCluster.getHdfsUsername(), namedCluster.getHdfsPassword(),
+      namedCluster.getJobTrackerHost(), namedCluster.getJobTrackerPort(), namedCluster.getZooKeeperHost(),
+      namedCluster.getZooKeeperPort(), namedCluster.getOozieUrl(), namedCluster.getLastModifiedDate(),
+      namedCluster.isMapr(), namedCluster.isUseGateway(), namedCluster.getGatewayUrl(),
+      namedCluster.getGatewayUsername(), namedCluster.getGatewayPassword(),
+      namedCluster.getKafkaBootstrapServers() ) );
+    List<NamedClusterSiteFile> siteFiles = namedCluster.getSiteFiles();
+    if ( siteFiles != null ) {
+      for ( NamedClusterSiteFile siteFile : siteFiles ) {
+        values.add( siteFile.getSiteFileName() );
+        values.add( siteFile.getSiteFileContents() );
+      }
+    }
+    values.replaceAll( value -> value instanceof String && hasVariable( (String) value )
+      ? namedCluster.environmentSubstitute( (String) value ) : value );
+    return values;
+  }
+
+  private static boolean hasVariable( String value ) {
+    return value.contains( StringUtil.UNIX_OPEN ) || value.contains( StringUtil.WINDOWS_OPEN )
+      || value.contains( StringUtil.HEX_OPEN );
+  }
+
+  /**
+   * Drop the cached services of the cluster, for example after it was edited.
+   */
+  public void invalidateServices( NamedCluster namedCluster ) {
+    String name = namedCluster == null ? null : namedCluster.getName();
+    serviceCache.keySet().removeIf( key -> Objects.equals( key.clusterName, name ) );
+  }
+
+  public void invalidateServices() {
+    serviceCache.clear();
+  }
+
+  /**
+   * Drop the cached services that were not used for longer than the idle timeout.
+   */
+  public void evictIdleServices() {
+    long now = System.currentTimeMillis();
+    serviceCache.values().removeIf( cached -> isIdle( cached, now ) );
+  }
+
+  /**
+   * @return number of services returned from the cache
+   */
+  public long getServiceCacheHits() {
+    return serviceCacheHits.get();
+  }
+
+  /**
+   * @return number of services created, or looked for without a factory being found
+   */
+  public long getServiceCacheMisses() {
+    return serviceCacheMisses.get();
+  }
+
+  private <T> T createService( NamedCluster namedCluster, Class<T> serviceClass, String shim ) {
+    logger.debug( "NamedClusterServiceLocator.getService({}, {})", namedCluster, serviceClass );
     Lock readLock = readWriteLock.readLock();
     try {
       readLock.lock();
-      String shim = Objects.requireNonNull( getShimForService( namedCluster, embeddedMetaStoreProviderKey ) );
-      logger.debug( "NamedClusterServiceLocator.getService({}, {})", namedCluster, serviceClass );
 
       Map<Class<?>, List<NamedClusterServiceFactory<?>>> serviceMap = serviceVendorTypeMapping.get( shim );
       if ( serviceMap != null ) {
@@ -202,6 +355,48 @@ public class NamedClusterServiceLocatorImpl implements NamedClusterServiceLocato
     return shim;
   }
 
+  @VisibleForTesting static final class ServiceKey {
+    private final String clusterName;
+    private final Class<?> serviceClass;
+    private final String embeddedMetaStoreProviderKey;
+
+    ServiceKey( String clusterName, Class<?> serviceClass, String embeddedMetaStoreProviderKey ) {
+      this.clusterName = clusterName;
+      this.serviceClass = serviceClass;
+      this.embeddedMetaStoreProviderKey = embeddedMetaStoreProviderKey;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof ServiceKey ) ) {
+        return false;
+      }
+      ServiceKey other = (ServiceKey) o;
+      return Objects.equals( clusterName, other.clusterName ) && Objects.equals( serviceClass, other.serviceClass )
+        && Objects.equals( embeddedMetaStoreProviderKey, other.embeddedMetaStoreProviderKey );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( clusterName, serviceClass, embeddedMetaStoreProviderKey );
+    }
+  }
+
+  @VisibleForTesting static final class CachedService {
+    private final List<Object> config;
+    private final FutureTask<Object> creation;
+    private volatile long lastAccess;
+
+    CachedService( List<Object> config, long created, Callable<Object> creation ) {
+      this.config = config;
+      this.lastAccess = created;
+      this.creation = new FutureTask<>( creation );
+    }
+  }
+
   public List<String> getVendorShimList() {
     return new ArrayList<>( serviceVendorTypeMapping.keySet() );
   }
@@ -31,12 +31,17 @@ import org.pentaho.metastore.locator.api.MetastoreLocator;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -54,6 +59,7 @@ public class NamedClusterServiceLocatorImplTest {
   @Mock private NamedClusterServiceFactory namedClusterServiceFactory;
   @Mock private NamedClusterServiceFactory namedClusterServiceFactory2;
   @Mock private NamedClusterServiceFactory namedClusterServiceFactory3;
+  @Mock private NamedClusterServiceFactory<Integer> integerFactory;
   @Mock private MetastoreLocator mockMetastoreLocator;
   @Mock private NamedClusterService namedClusterManager;
   private Object value = new Object();
@@ -197,10 +203,129 @@ public class NamedClusterServiceLocatorImplTest {
       assertEquals( "3", service );
 
       when( namedClusterServiceFactory.canHandle( namedCluster ) ).thenReturn( true );
+      // The service of the cluster is cached until the cluster is invalidated
+      serviceLocator.invalidateServices( namedCluster );
 
       service = serviceLocator.getService( namedCluster, Object.class );
       assertEquals( "0", service );
     }
   }
 
+  private void stubIntegerFactory() {
+    when( integerFactory.getServiceClass() ).thenReturn( Integer.class );
+    when( integerFactory.canHandle( namedCluster ) ).thenReturn( true );
+    when( integerFactory.create( namedCluster ) ).thenReturn( 42 );
+    when( namedCluster.getShimIdentifier() ).thenReturn( "shimD" );
+  }
+
+  @Test
+  public void testServicesAreCreatedOncePerCluster() {
+    stubIntegerFactory();
+    serviceLocator.factoryAdded( integerFactory, ImmutableMap.of( "shim", "shimD" ) );
+    long hits = serviceLocator.getServiceCacheHits();
+    long misses = serviceLocator.getServiceCacheMisses();
+
+    for ( int i = 0; i < 1000; i++ ) {
+      assertEquals( Integer.valueOf( 42 ), serviceLocator.getService( namedCluster, Integer.class ) );
+    }
+
+    verify( integerFactory, times( 1 ) ).create( namedCluster );
+    assertEquals( 999, serviceLocator.getServiceCacheHits() - hits );
+    assertEquals( 1, serviceLocator.getServiceCacheMisses() - misses );
+  }
+
+  @Test
+  public void testChangedOrInvalidatedClusterGetsNewService() {
+    stubIntegerFactory();
+    serviceLocator.factoryAdded( integerFactory, ImmutableMap.of( "shim", "shimD" ) );
+    when( namedCluster.getHdfsHost() ).thenReturn( "host1" );
+    serviceLocator.getService( namedCluster, Integer.class );
+    serviceLocator.getService( namedCluster, Integer.class );
+    verify( integerFactory, times( 1 ) ).create( namedCluster );
+
+    when( namedCluster.getHdfsHost() ).thenReturn( "host2" );
+    serviceLocator.getService( namedCluster, Integer.class );
+    verify( integerFactory, times( 2 ) ).create( namedCluster );
+    assertEquals( 1, serviceLocator.serviceCache.size() );
+
+    serviceLocator.invalidateServices( namedCluster );
+    assertTrue( serviceLocator.serviceCache.isEmpty() );
+    serviceLocator.getService( namedCluster, Integer.class );
+    verify( integerFactory, times( 3 ) ).create( namedCluster );
+  }
+
+  @Test
+  public void testClusterVariablesAreSubstitutedBeforeComparing() {
+    stubIntegerFactory();
+    serviceLocator.factoryAdded( integerFactory, ImmutableMap.of( "shim", "shimD" ) );
+    when( namedCluster.getHdfsHost() ).thenReturn( "${hdfsHost}" );
+    when( namedCluster.environmentSubstitute( "${hdfsHost}" ) ).thenReturn( "host1" );
+    serviceLocator.getService( namedCluster, Integer.class );
+    serviceLocator.getService( namedCluster, Integer.class );
+    verify( integerFactory, times( 1 ) ).create( namedCluster );
+
+    when( namedCluster.environmentSubstitute( "${hdfsHost}" ) ).thenReturn( "host2" );
+    serviceLocator.getService( namedCluster, Integer.class );
+    verify( integerFactory, times( 2 ) ).create( namedCluster );
+  }
+
+  @Test
+  public void testShimIsOnlyLookedUpInMetastoreOnMiss() {
+    try ( MockedStatic<PluginServiceLoader> pluginServiceLoaderMockedStatic =
+            Mockito.mockStatic( PluginServiceLoader.class ) ) {
+      pluginServiceLoaderMockedStatic.when( () -> PluginServiceLoader.loadServices( MetastoreLocator.class ) )
+        .thenReturn( Collections.singletonList( mockMetastoreLocator ) );
+      when( namedClusterServiceFactory.canHandle( namedCluster ) ).thenReturn( true );
+      when( namedCluster2.getShimIdentifier() ).thenReturn( SHIM_A );
+      for ( int i = 0; i < 10; i++ ) {
+        serviceLocator.getService( namedCluster, Object.class );
+      }
+      verify( namedClusterServiceFactory, times( 1 ) ).create( namedCluster );
+      verify( namedClusterManager, times( 1 ) ).getNamedClusterByName( namedCluster.getName(), memoryMetaStore );
+
+      // A shim changed in the metastore is used once the services of the cluster are invalidated
+      when( namedCluster2.getShimIdentifier() ).thenReturn( SHIM_B );
+      serviceLocator.getService( namedCluster, Object.class );
+      verify( namedClusterServiceFactory, times( 1 ) ).create( namedCluster );
+      serviceLocator.invalidateServices( namedCluster );
+      serviceLocator.getService( namedCluster, Object.class );
+      verify( namedClusterServiceFactory, times( 2 ) ).create( namedCluster );
+      verify( namedClusterManager, times( 2 ) ).getNamedClusterByName( namedCluster.getName(), memoryMetaStore );
+    }
+  }
+
+  @Test
+  public void testConfigValuesAreComparedExactly() {
+    when( namedCluster.getHdfsHost() ).thenReturn( "Aa" );
+    List<Object> first = NamedClusterServiceLocatorImpl.configValues( namedCluster );
+    when( namedCluster.getHdfsHost() ).thenReturn( "BB" );
+    List<Object> second = NamedClusterServiceLocatorImpl.configValues( namedCluster );
+
+    // Same hash code, different hosts
+    assertEquals( first.hashCode(), second.hashCode() );
+    assertNotEquals( first, second );
+  }
+
+  @Test
+  public void testIdleServicesAreCreatedAgain() throws Exception {
+    stubIntegerFactory();
+    System.setProperty( NamedClusterServiceLocatorImpl.SERVICE_IDLE_TIMEOUT_PROPERTY, "1" );
+    NamedClusterServiceLocatorImpl idleLocator;
+    try {
+      idleLocator = new NamedClusterServiceLocatorImpl( SHIM_A, namedClusterManager );
+    } finally {
+      System.clearProperty( NamedClusterServiceLocatorImpl.SERVICE_IDLE_TIMEOUT_PROPERTY );
+    }
+    idleLocator.factoryAdded( integerFactory, ImmutableMap.of( "shim", "shimD" ) );
+
+    idleLocator.getService( namedCluster, Integer.class );
+    Thread.sleep( 20 );
+    idleLocator.evictIdleServices();
+    assertTrue( idleLocator.serviceCache.isEmpty() );
+    idleLocator.getService( namedCluster, Integer.class );
+    Thread.sleep( 20 );
+    idleLocator.getService( namedCluster, Integer.class );
+
+    verify( integerFactory, times( 3 ) ).create( namedCluster );
+  }
 }
@@ -90,6 +90,7 @@ public class GenericTransReduce<K extends WritableComparable<?>, V extends Itera
       // The transformation needs to be prepared and started...
       // Only ever initialize once!
       if ( !trans.isRunning() ) {
+        transCacheStatistics.report( reporter );
         shareVariableSpaceWithTrans( reporter );
         setTransLogLevel( reporter );
         prepareExecution( reporter );
@@ -234,6 +235,7 @@ public class GenericTransReduce<K extends WritableComparable<?>, V extends Itera
     StepInterface outputStep = trans.findRunThread( outputStepName );
     if ( outputStep != null ) {
       rowCollector = new OutputCollectorRowListener( output, outClassK, outClassV, reporter, log.isDebug() );
+      rowCollector.setReuseWritables( reuseOutputWritables );
       outputStep.addRowListener( rowCollector );
 
       injectorRowMeta = new RowMeta();
@@ -56,12 +56,55 @@ public class MRUtil {
    */
   public static final String PROPERTY_PENTAHO_KETTLE_HOME = "pentaho.kettle.home";
 
+  /**
+   * Maximum number of parsed transformations kept per JVM, see {@link TransMetaCache}. The first task of a JVM sets
+   * the size, {@code 0} keeps the tasks of a job from using the cache.
+   */
+  public static final String PROPERTY_PENTAHO_TRANS_CACHE_SIZE = "pentaho.kettle.trans.cache.size";
+
   public static Trans getTrans( final Configuration conf, final String transXml, boolean singleThreaded )
     throws KettleException {
+    return getTrans( conf, transXml, singleThreaded, null );
+  }
+
+  /**
+   * Create a transformation from its XML, re-using the parsed transformation of an earlier task in this JVM if there
+   * is one. Every transformation gets its own copy of the cached meta data, which it is free to change.
+   *
+   * @param statistics Records the cache lookup, may be {@code null}
+   */
+  public static Trans getTrans( final Configuration conf, final String transXml, boolean singleThreaded,
+                                TransMetaCache.Statistics statistics ) throws KettleException {
     initKettleEnvironment( conf );
 
-    TransConfiguration transConfiguration = TransConfiguration.fromXML( transXml );
-    TransMeta transMeta = transConfiguration.getTransMeta();
+    int cacheSize = conf.getInt( PROPERTY_PENTAHO_TRANS_CACHE_SIZE, TransMetaCache.DEFAULT_MAX_SIZE );
+    TransMetaCache cache = TransMetaCache.getInstance();
+    cache.configure( cacheSize );
+    String cacheKey = null;
+    TransConfiguration transConfiguration = null;
+    if ( cacheSize > 0 && cache.getMaxSize() > 0 ) {
+      cacheKey = TransMetaCache.getKey( transXml, conf.get( "variableSpace" ), singleThreaded );
+      transConfiguration = cache.get( cacheKey );
+    }
+    boolean cached = transConfiguration != null;
+    if ( cached ) {
+      if ( statistics != null ) {
+        statistics.hit();
+      }
+    } else {
+      long start = System.currentTimeMillis();
+      transConfiguration = TransConfiguration.fromXML( transXml );
+      if ( statistics != null ) {
+        statistics.miss( System.currentTimeMillis() - start );
+      }
+      if ( cacheKey != null ) {
+        cached = cache.put( cacheKey, transConfiguration );
+      }
+    }
+
+    // The transformation is changed below and by running it, which must not show in the cached one
+    TransMeta transMeta = cached ? (TransMeta) transConfiguration.getTransMeta().clone()
+      : transConfiguration.getTransMeta();
     String carteObjectId = UUID.randomUUID().toString();
     SimpleLoggingObject servletLoggingObject =
       new SimpleLoggingObject( "HADOOP_MAPPER", LoggingObjectType.CARTE, null ); //$NON-NLS-1$
@@ -18,6 +18,7 @@ import org.apache.hadoop.mapred.Reporter;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.step.RowAdapter;
 import org.pentaho.hadoop.mapreduce.PentahoMapRunnable.Counter;
 import org.pentaho.hadoop.mapreduce.converter.TypeConverterFactory;
@@ -31,6 +32,13 @@ import org.pentaho.di.core.logging.LogChannelInterface;
  */
 public class OutputCollectorRowListener<K, V> extends RowAdapter {
 
+  /**
+   * When {@code true} the output key and value converters re-use one Writable instance each instead of creating one
+   * per row. Only safe with output collectors that serialize the key and value as soon as they are collected, which
+   * is what Hadoop's map output buffer and record writers do.
+   */
+  public static final String STRING_REUSE_OUTPUT_WRITABLES = "transformation-reuse-output-writables";
+
   private static LogChannelInterface log = new LogChannel( OutputCollectorRowListener.class.getName() );
 
   private boolean debug;
@@ -49,15 +57,36 @@ public class OutputCollectorRowListener<K, V> extends RowAdapter {
 
   private TypeConverterFactory typeConverterFactory;
 
+  private RowMetaInterface boundRowMeta;
+
+  private Class<?> boundKeyClass;
+
+  private Class<?> boundValueClass;
+
+  private ITypeConverter keyConverter;
+
+  private ITypeConverter valueConverter;
+
+  private ValueMetaInterface keyMeta;
+
+  private ValueMetaInterface valueMeta;
+
+  private boolean reuseWritables;
+
   public OutputCollectorRowListener( OutputCollector<K, V> output, Class<K> outClassK, Class<V> outClassV,
                                      Reporter reporter, boolean debug ) {
+    this( output, outClassK, outClassV, reporter, debug, new TypeConverterFactory() );
+  }
+
+  OutputCollectorRowListener( OutputCollector<K, V> output, Class<K> outClassK, Class<V> outClassV,
+                              Reporter reporter, boolean debug, TypeConverterFactory typeConverterFactory ) {
     this.output = output;
     this.outClassK = outClassK;
     this.outClassV = outClassV;
     this.reporter = reporter;
     this.debug = debug;
 
-    this.typeConverterFactory = new TypeConverterFactory();
+    this.typeConverterFactory = typeConverterFactory;
 
     outOrdinals = null;
   }
@@ -80,57 +109,32 @@ public class OutputCollectorRowListener<K, V> extends RowAdapter {
           }
         }
 
-        // TODO Implement type safe converters
-
-        if ( log.isDebug() ) {
-          setDebugStatus( reporter,
-            "Begin conversion of output key [from:" + ( row[ outOrdinals.getKeyOrdinal() ] == null ? null
-              : row[ outOrdinals.getKeyOrdinal() ].getClass() ) + "] [to:" + outClassK
-              + "]" ); //$NON-NLS-1$ //$NON-NLS-2$
-        }
-        if ( log.isDebug() ) {
-          setDebugStatus( reporter, "getConverter: " + ( row[ outOrdinals.getKeyOrdinal() ] == null ? null
-            : row[ outOrdinals.getKeyOrdinal() ].getClass() ) );
-          setDebugStatus( reporter, "out class: " + outClassK );
+        boolean isDebug = log.isDebug();
+        int keyOrdinal = outOrdinals.getKeyOrdinal();
+        int valueOrdinal = outOrdinals.getValueOrdinal();
+        Object keyObject = row[ keyOrdinal ];
+        Object valueObject = row[ valueOrdinal ];
+        Class<?> keyClass = keyObject == null ? null : keyObject.getClass();
+        Class<?> valueClass = valueObject == null ? null : valueObject.getClass();
+
+        // Converters are bound to the row meta and the runtime classes of the first row. They are only looked up
+        // again if one of them changes, e.g. for a null key or a step that emits mixed types.
+        if ( rowMeta != boundRowMeta || keyClass != boundKeyClass || valueClass != boundValueClass ) {
+          bindConverters( rowMeta, keyOrdinal, keyClass, valueOrdinal, valueClass, isDebug );
         }
 
-        ITypeConverter converter = typeConverterFactory
-          .getConverter(
-            row[ outOrdinals.getKeyOrdinal() ] == null ? null : row[ outOrdinals.getKeyOrdinal() ].getClass(),
-            outClassK );
-        if ( log.isDebug() ) {
-          setDebugStatus( reporter, "ordinals key: " + outOrdinals.getKeyOrdinal() );
-          setDebugStatus( reporter, "rowMeta: " + rowMeta );
-          setDebugStatus( reporter, "rowMeta: " + rowMeta.getMetaXML() );
-          setDebugStatus( reporter, "meta: " + rowMeta.getValueMeta( outOrdinals.getKeyOrdinal() ) );
-          setDebugStatus( reporter, "key: " + row[ outOrdinals.getKeyOrdinal() ] );
+        if ( isDebug ) {
+          setDebugStatus( reporter, "key: " + keyObject );
         }
+        Object outKey = keyConverter.convert( keyMeta, keyObject );
 
-        Object outKey =
-          converter.convert( rowMeta.getValueMeta( outOrdinals.getKeyOrdinal() ), row[ outOrdinals.getKeyOrdinal() ] );
-
-        if ( log.isDebug() ) {
-          setDebugStatus( reporter,
-            "Begin conversion of output value [from:" + ( row[ outOrdinals.getValueOrdinal() ] == null ? null
-              //$NON-NLS-1$
-              : row[ outOrdinals.getValueOrdinal() ].getClass() ) + "] [to:" + outClassV
-              + "]" ); //$NON-NLS-1$ //$NON-NLS-2$
+        if ( isDebug ) {
+          setDebugStatus( reporter, "value: " + valueObject );
         }
-        ITypeConverter valueConverter = typeConverterFactory.getConverter(
-          row[ outOrdinals.getValueOrdinal() ] == null ? null : row[ outOrdinals.getValueOrdinal() ].getClass(),
-          outClassV );
-        if ( log.isDebug() ) {
-          setDebugStatus( reporter, "ordinals value: " + outOrdinals.getValueOrdinal() );
-          setDebugStatus( reporter, "rowMeta: " + rowMeta );
-          setDebugStatus( reporter, "rowMeta: " + rowMeta.getMetaXML() );
-          setDebugStatus( reporter, "meta: " + rowMeta.getValueMeta( outOrdinals.getValueOrdinal() ) );
-          setDebugStatus( reporter, "value: " + row[ outOrdinals.getValueOrdinal() ] );
-        }
-        Object outVal = valueConverter
-          .convert( rowMeta.getValueMeta( outOrdinals.getValueOrdinal() ), row[ outOrdinals.getValueOrdinal() ] );
+        Object outVal = valueConverter.convert( valueMeta, valueObject );
 
         if ( outKey != null && outVal != null ) {
-          if ( log.isDebug() ) {
+          if ( isDebug ) {
             setDebugStatus( reporter,
               "Collecting output record [" + outKey + "] - [" + outVal
                 + "]" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -144,13 +148,13 @@ public class OutputCollectorRowListener<K, V> extends RowAdapter {
           output.collect( k, v );
         } else {
           if ( outKey == null ) {
-            if ( log.isDebug() ) {
+            if ( isDebug ) {
               setDebugStatus( reporter, "Transformation returned a null key" ); //$NON-NLS-1$
             }
             reporter.incrCounter( Counter.OUT_RECORD_WITH_NULL_KEY, 1 );
           }
           if ( outVal == null ) {
-            if ( log.isDebug() ) {
+            if ( isDebug ) {
               setDebugStatus( reporter, "Transformation returned a null value" ); //$NON-NLS-1$
             }
             reporter.incrCounter( Counter.OUT_RECORD_WITH_NULL_VALUE, 1 );
@@ -185,6 +189,49 @@ public class OutputCollectorRowListener<K, V> extends RowAdapter {
     }
   }
 
+  /**
+   * Resolve the key and value converters for rows of {@code rowMeta} whose key and value are of the given classes.
+   */
+  private void bindConverters( RowMetaInterface rowMeta, int keyOrdinal, Class<?> keyClass, int valueOrdinal,
+                               Class<?> valueClass, boolean isDebug ) throws Exception {
+    if ( isDebug ) {
+      setDebugStatus( reporter,
+        "Binding output key converter [from:" + keyClass + "] [to:" + outClassK + "]" ); //$NON-NLS-1$ //$NON-NLS-2$
+      setDebugStatus( reporter,
+        "Binding output value converter [from:" + valueClass + "] [to:" + outClassV + "]" ); //$NON-NLS-1$
+      setDebugStatus( reporter, "ordinals key: " + keyOrdinal + " value: " + valueOrdinal );
+      setDebugStatus( reporter, "rowMeta: " + rowMeta );
+      setDebugStatus( reporter, "rowMeta: " + rowMeta.getMetaXML() );
+    }
+    ITypeConverter newKeyConverter = typeConverterFactory.getConverter( keyClass, outClassK );
+    ITypeConverter newValueConverter = typeConverterFactory.getConverter( valueClass, outClassV );
+    if ( reuseWritables ) {
+      newKeyConverter = newKeyConverter.newReusingInstance();
+      newValueConverter = newValueConverter.newReusingInstance();
+    }
+
+    keyConverter = newKeyConverter;
+    valueConverter = newValueConverter;
+    keyMeta = rowMeta.getValueMeta( keyOrdinal );
+    valueMeta = rowMeta.getValueMeta( valueOrdinal );
+    boundRowMeta = rowMeta;
+    boundKeyClass = keyClass;
+    boundValueClass = valueClass;
+  }
+
+  public boolean isReuseWritables() {
+    return reuseWritables;
+  }
+
+  /**
+   * @param reuseWritables {@code true} to collect the same key and value instances, updated for every row
+   * @see #STRING_REUSE_OUTPUT_WRITABLES
+   */
+  public void setReuseWritables( boolean reuseWritables ) {
+    this.reuseWritables = reuseWritables;
+    boundRowMeta = null;
+  }
+
   /**
    * Set the reporter status if {@code debug == true}.
    */
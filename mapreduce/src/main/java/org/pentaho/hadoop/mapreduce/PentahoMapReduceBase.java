@@ -89,6 +89,8 @@ public class PentahoMapReduceBase<K, V> extends MapReduceBase {
   protected OutputCollectorRowListener<K, V> rowCollector;
   protected boolean combineSingleThreaded;
   protected boolean reduceSingleThreaded;
+  protected boolean reuseOutputWritables;
+  protected TransMetaCache.Statistics transCacheStatistics = new TransMetaCache.Statistics();
 
   public PentahoMapReduceBase() throws KettleException {
   }
@@ -111,6 +113,7 @@ public class PentahoMapReduceBase<K, V> extends MapReduceBase {
     reduceInputStepName = job.get( "transformation-reduce-input-stepname" );
     reduceOutputStepName = job.get( "transformation-reduce-output-stepname" );
     reduceSingleThreaded = isReducerSingleThreaded( job );
+    reuseOutputWritables = job.getBoolean( OutputCollectorRowListener.STRING_REUSE_OUTPUT_WRITABLES, false );
     String xmlVariableSpace = job.get( "variableSpace" );
 
     if ( !Const.isEmpty( xmlVariableSpace ) ) {
@@ -229,13 +232,13 @@ public class PentahoMapReduceBase<K, V> extends MapReduceBase {
     try {
       if ( mrOperation.equals( MROperations.Map ) ) {
         setDebugStatus( "Creating a transformation for a map." );
-        trans = MRUtil.getTrans( conf, transMapXml, false );
+        trans = MRUtil.getTrans( conf, transMapXml, false, transCacheStatistics );
       } else if ( mrOperation.equals( MROperations.Combine ) ) {
         setDebugStatus( "Creating a transformation for a combiner." );
-        trans = MRUtil.getTrans( conf, transCombinerXml, isCombinerSingleThreaded( conf ) );
+        trans = MRUtil.getTrans( conf, transCombinerXml, isCombinerSingleThreaded( conf ), transCacheStatistics );
       } else if ( mrOperation.equals( MROperations.Reduce ) ) {
         setDebugStatus( "Creating a transformation for a reduce." );
-        trans = MRUtil.getTrans( conf, transReduceXml, isReducerSingleThreaded( conf ) );
+        trans = MRUtil.getTrans( conf, transReduceXml, isReducerSingleThreaded( conf ), transCacheStatistics );
       }
     } catch ( KettleException ke ) {
       throw new RuntimeException( "Error loading transformation for " + mrOperation, ke ); //$NON-NLS-1$
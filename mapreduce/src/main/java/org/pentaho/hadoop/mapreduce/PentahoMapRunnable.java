@@ -46,8 +46,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -62,8 +64,16 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
 
   private long pluginWaitTimeout;
 
+  /**
+   * Time spent in {@link #configure(JobConf)} and waiting for plugins in it, reported once the task runs
+   */
+  private long startupMillis;
+
+  private long pluginWaitMillis;
+
   protected static enum Counter {
-    INPUT_RECORDS, OUTPUT_RECORDS, OUT_RECORD_WITH_NULL_KEY, OUT_RECORD_WITH_NULL_VALUE
+    INPUT_RECORDS, OUTPUT_RECORDS, OUT_RECORD_WITH_NULL_KEY, OUT_RECORD_WITH_NULL_VALUE,
+    INJECTION_BACKPRESSURE_WAITS, TASK_STARTUP_MILLIS, PLUGIN_WAIT_MILLIS
   }
 
   protected String transMapXml;
@@ -93,6 +103,10 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
 
   protected OutputCollectorRowListener<K2, V2> rowCollector;
 
+  protected boolean reuseOutputWritables;
+
+  protected TransMetaCache.Statistics transCacheStatistics = new TransMetaCache.Statistics();
+
   private final String ENVIRONMENT_VARIABLE_PREFIX = "java.system.";
   private final String KETTLE_VARIABLE_PREFIX = "KETTLE_";
 
@@ -100,7 +114,9 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
   }
 
   public void configure( JobConf job ) {
+    long configureStart = System.currentTimeMillis();
     pluginWaitTimeout = TimeUnit.MINUTES.toMillis( 5 );
+    pluginWaitMillis = 0;
 
     //debug = "true".equalsIgnoreCase( job.get( "debug" ) ); //$NON-NLS-1$
 
@@ -110,6 +126,7 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
     mapOutputStepName = job.get( "transformation-map-output-stepname" );
     reduceInputStepName = job.get( "transformation-reduce-input-stepname" );
     reduceOutputStepName = job.get( "transformation-reduce-output-stepname" );
+    reuseOutputWritables = job.getBoolean( OutputCollectorRowListener.STRING_REUSE_OUTPUT_WRITABLES, false );
     String xmlVariableSpace = job.get( "variableSpace" );
 
     outClassK = (Class<K2>) job.getMapOutputKeyClass();
@@ -169,51 +186,68 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
       log.logBasic( "Could not retrieve the log level from the job configuration.  logLevel will not be set." );
     }
 
-    long deadline = 0;
-    boolean first = true;
-    while ( true ) {
-      createTrans( job );
+    createTrans( job );
 
-      if ( first ) {
-        deadline = pluginWaitTimeout + System.currentTimeMillis();
-        log.logBasic( PentahoMapRunnable.class + ": Trans creation checking starting now " + new Date().toString() );
-        first = false;
-      }
+    List<MissingTrans> missingTranses = getMissingTranses();
+    if ( !missingTranses.isEmpty() ) {
+      long waitStart = System.currentTimeMillis();
+      log.logBasic( PentahoMapRunnable.class + ": Trans creation checking starting now " + new Date().toString() );
 
-      List<MissingTrans> missingTranses = new ArrayList<MissingTrans>();
-      for ( StepMeta stepMeta : trans.getTransMeta().getSteps() ) {
-        StepMetaInterface stepMetaInterface = stepMeta.getStepMetaInterface();
-        if ( stepMetaInterface instanceof MissingTrans ) {
-          MissingTrans missingTrans = (MissingTrans) stepMetaInterface;
-          log.logBasic(
-            MissingTrans.class + "{stepName: " + missingTrans.getStepName() + ", missingPluginId: " + missingTrans
-              .getMissingPluginId() + "}" );
-          missingTranses.add( missingTrans );
-        }
+      Set<String> missingPluginIds = new LinkedHashSet<>();
+      for ( MissingTrans missingTrans : missingTranses ) {
+        missingPluginIds.add( missingTrans.getMissingPluginId() );
       }
+      List<String> stillMissing = awaitPlugins( missingPluginIds, waitStart + pluginWaitTimeout );
 
-      if ( missingTranses.size() == 0 ) {
-        log.logBasic( PentahoMapRunnable.class + ": Done waiting on plugins now " + new Date().toString() );
-        break;
+      if ( stillMissing.isEmpty() ) {
+        // All plugins are registered now, so the transformation can be parsed for real
+        createTrans( job );
+        missingTranses = getMissingTranses();
       } else {
-        if ( System.currentTimeMillis() > deadline ) {
-          StringBuilder stringBuilder = new StringBuilder( "Failed to initialize plugins: " );
-          for ( MissingTrans missingTrans : missingTranses ) {
-            stringBuilder.append( missingTrans.getMissingPluginId() );
-            stringBuilder.append( " on step " ).append( missingTrans.getStepName() );
-            stringBuilder.append( ", " );
-          }
-          stringBuilder.setLength( stringBuilder.length() - 2 );
-          throw new RuntimeException( stringBuilder.toString() );
-        } else {
-          try {
-            Thread.sleep( Math.min( 100, deadline - System.currentTimeMillis() ) );
-          } catch ( InterruptedException e ) {
-            throw new RuntimeException( e );
-          }
+        missingTranses.removeIf( missingTrans -> !stillMissing.contains( missingTrans.getMissingPluginId() ) );
+      }
+
+      if ( !missingTranses.isEmpty() ) {
+        StringBuilder stringBuilder = new StringBuilder( "Failed to initialize plugins: " );
+        for ( MissingTrans missingTrans : missingTranses ) {
+          stringBuilder.append( missingTrans.getMissingPluginId() );
+          stringBuilder.append( " on step " ).append( missingTrans.getStepName() );
+          stringBuilder.append( ", " );
         }
+        stringBuilder.setLength( stringBuilder.length() - 2 );
+        throw new RuntimeException( stringBuilder.toString() );
       }
+      pluginWaitMillis = System.currentTimeMillis() - waitStart;
+      log.logBasic( PentahoMapRunnable.class + ": Done waiting on plugins now " + new Date().toString() );
     }
+    startupMillis = System.currentTimeMillis() - configureStart;
+  }
+
+  private static List<String> awaitPlugins( Set<String> pluginIds, long deadline ) {
+    try {
+      return StepPluginWaiter.awaitPlugins( pluginIds, deadline );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( e );
+    }
+  }
+
+  /**
+   * @return the steps of the current transformation whose plugin could not be found
+   */
+  private List<MissingTrans> getMissingTranses() {
+    List<MissingTrans> missingTranses = new ArrayList<MissingTrans>();
+    for ( StepMeta stepMeta : trans.getTransMeta().getSteps() ) {
+      StepMetaInterface stepMetaInterface = stepMeta.getStepMetaInterface();
+      if ( stepMetaInterface instanceof MissingTrans ) {
+        MissingTrans missingTrans = (MissingTrans) stepMetaInterface;
+        log.logBasic(
+          MissingTrans.class + "{stepName: " + missingTrans.getStepName() + ", missingPluginId: " + missingTrans
+            .getMissingPluginId() + "}" );
+        missingTranses.add( missingTrans );
+      }
+    }
+    return missingTranses;
   }
 
   public void injectValue( Object key, ITypeConverter inConverterK, Object value, ITypeConverter inConverterV,
@@ -237,14 +271,20 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
       setDebugStatus( reporter, "Injecting input record [" + row[ keyOrdinal ] + "] - [" + row[ valueOrdinal ] + "]" );
     }
 
-    rowProducer.putRow( injectorRowMeta, row );
+    if ( !rowProducer.putRow( injectorRowMeta, row, false ) ) {
+      // The input step's row set stayed full for its put timeout, count it and block until the row is taken
+      if ( reporter != null ) {
+        reporter.incrCounter( Counter.INJECTION_BACKPRESSURE_WAITS, 1 );
+      }
+      rowProducer.putRow( injectorRowMeta, row );
+    }
   }
 
   protected void createTrans( final Configuration conf ) {
 
     try {
       setDebugStatus( "Creating a transformation for a map." );
-      trans = MRUtil.getTrans( conf, transMapXml, false );
+      trans = MRUtil.getTrans( conf, transMapXml, false, transCacheStatistics );
     } catch ( KettleException ke ) {
       throw new RuntimeException( "Error loading transformation", ke ); //$NON-NLS-1$
     }
@@ -361,6 +401,13 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
       // ConcurrentModificationException
       // when this mapper is reused "quickly"
       trans = MRUtil.recreateTrans( trans );
+      transCacheStatistics.report( reporter );
+      if ( startupMillis > 0 ) {
+        reporter.incrCounter( Counter.TASK_STARTUP_MILLIS, startupMillis );
+        reporter.incrCounter( Counter.PLUGIN_WAIT_MILLIS, pluginWaitMillis );
+        startupMillis = 0;
+        pluginWaitMillis = 0;
+      }
 
       String logLinePrefix = getClass().getName() + ".run: ";
       setDebugStatus( logLinePrefix + " The transformation was just recreated." );
@@ -409,6 +456,7 @@ public class PentahoMapRunnable<K1, V1, K2, V2> implements MapRunnable<K1, V1, K
         StepInterface outputStep = trans.findRunThread( mapOutputStepName );
         if ( outputStep != null ) {
           rowCollector = new OutputCollectorRowListener( output, outClassK, outClassV, reporter, log.isDebug() );
+          rowCollector.setReuseWritables( reuseOutputWritables );
           //          rowCollector = OutputCollectorRowListener.build(output, outputRowMeta, outClassK, outClassV,
           // reporter, debug);
           outputStep.addRowListener( rowCollector );
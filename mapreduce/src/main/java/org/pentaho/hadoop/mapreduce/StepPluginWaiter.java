@@ -0,0 +1,124 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.hadoop.mapreduce;
+
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.PluginTypeListener;
+import org.pentaho.di.core.plugins.StepPluginType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Waits for step plugins to be registered with the {@link PluginRegistry}.
+ * <p>
+ * Waiting threads are woken up by a {@link PluginTypeListener} as soon as any step plugin is added or changed. In case
+ * a registration is missed they also check the registry again with an exponential backoff.
+ */
+public class StepPluginWaiter {
+
+  static final long MIN_BACKOFF_MILLIS = 10;
+
+  static final long MAX_BACKOFF_MILLIS = 1000;
+
+  private static final Object MONITOR = new Object();
+
+  /**
+   * Incremented for every step plugin event, guarded by {@link #MONITOR}
+   */
+  private static long generation;
+
+  private static volatile boolean listening;
+
+  private StepPluginWaiter() {
+  }
+
+  /**
+   * Block until every plugin of {@code pluginIds} is registered as a step plugin or {@code deadline} has passed.
+   *
+   * @param pluginIds Step plugin ids to wait for
+   * @param deadline  Time in milliseconds, as returned by {@link System#currentTimeMillis()}, to stop waiting at
+   * @return the plugin ids that are still not registered, empty if all of them are
+   * @throws InterruptedException the waiting thread was interrupted
+   */
+  public static List<String> awaitPlugins( Collection<String> pluginIds, long deadline ) throws InterruptedException {
+    ensureListening();
+    long backoff = MIN_BACKOFF_MILLIS;
+    while ( true ) {
+      long seen;
+      synchronized ( MONITOR ) {
+        seen = generation;
+      }
+      List<String> missing = getMissingPlugins( pluginIds );
+      long remaining = deadline - System.currentTimeMillis();
+      if ( missing.isEmpty() || remaining <= 0 ) {
+        return missing;
+      }
+      synchronized ( MONITOR ) {
+        if ( generation == seen ) {
+          MONITOR.wait( Math.min( backoff, remaining ) );
+        }
+      }
+      backoff = Math.min( backoff * 2, MAX_BACKOFF_MILLIS );
+    }
+  }
+
+  /**
+   * @return the plugin ids of {@code pluginIds} that are not registered as step plugins
+   */
+  public static List<String> getMissingPlugins( Collection<String> pluginIds ) {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    List<String> missing = new ArrayList<>();
+    for ( String pluginId : pluginIds ) {
+      if ( registry.findPluginWithId( StepPluginType.class, pluginId ) == null ) {
+        missing.add( pluginId );
+      }
+    }
+    return missing;
+  }
+
+  private static void ensureListening() {
+    if ( !listening ) {
+      synchronized ( StepPluginWaiter.class ) {
+        if ( !listening ) {
+          // The registry offers no way to remove a listener, so a single one is shared by all waiting threads
+          PluginRegistry.getInstance().addPluginListener( StepPluginType.class, new PluginTypeListener() {
+            @Override
+            public void pluginAdded( Object serviceObject ) {
+              signal();
+            }
+
+            @Override
+            public void pluginRemoved( Object serviceObject ) {
+            }
+
+            @Override
+            public void pluginChanged( Object serviceObject ) {
+              signal();
+            }
+          } );
+          listening = true;
+        }
+      }
+    }
+  }
+
+  private static void signal() {
+    synchronized ( MONITOR ) {
+      generation++;
+      MONITOR.notifyAll();
+    }
+  }
+}
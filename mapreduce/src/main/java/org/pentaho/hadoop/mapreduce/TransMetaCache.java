@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.hadoop.mapreduce;
+
+import org.apache.hadoop.mapred.Reporter;
+import org.pentaho.di.trans.TransConfiguration;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.missing.MissingTrans;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-JVM cache of parsed transformations. With JVM reuse or uber tasks many short tasks of the same job run in one
+ * JVM; each of them would otherwise parse the same transformation XML again.
+ * <p>
+ * Entries are keyed by a digest of the transformation XML, the serialized variable space of the job and the threading
+ * mode the transformation is prepared for. Only transformations whose step plugins were all found are cached, so a
+ * transformation parsed while plugins were still loading is never handed out again. The cached transformations are
+ * shared by every task of the JVM, callers run a clone of them.
+ */
+public class TransMetaCache {
+
+  public static enum Counter {
+    TRANS_CACHE_HITS, TRANS_CACHE_MISSES, TRANS_PARSE_MILLIS
+  }
+
+  public static final int DEFAULT_MAX_SIZE = 16;
+
+  private static final TransMetaCache INSTANCE = new TransMetaCache( DEFAULT_MAX_SIZE );
+
+  private final Map<String, TransConfiguration> cache;
+
+  private volatile int maxSize;
+
+  private final AtomicBoolean configured = new AtomicBoolean();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  public static TransMetaCache getInstance() {
+    return INSTANCE;
+  }
+
+  TransMetaCache( int maxSize ) {
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<String, TransConfiguration>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, TransConfiguration> eldest ) {
+        return size() > TransMetaCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Build the cache key for a transformation.
+   *
+   * @param transXml         Transformation XML as sent with the job
+   * @param variableSpaceXml Serialized variable space of the job, may be {@code null}
+   * @param singleThreaded   Whether the transformation will be run by the single threaded engine
+   * @return the key to look the parsed transformation up with
+   */
+  public static String getKey( String transXml, String variableSpaceXml, boolean singleThreaded ) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+      digest.update( String.valueOf( transXml ).getBytes( StandardCharsets.UTF_8 ) );
+      digest.update( (byte) 0 );
+      digest.update( String.valueOf( variableSpaceXml ).getBytes( StandardCharsets.UTF_8 ) );
+      digest.update( (byte) ( singleThreaded ? 1 : 0 ) );
+      StringBuilder key = new StringBuilder();
+      for ( byte b : digest.digest() ) {
+        key.append( String.format( "%02x", b ) );
+      }
+      return key.toString();
+    } catch ( NoSuchAlgorithmException e ) {
+      // Every JVM is required to provide SHA-256
+      throw new IllegalStateException( e );
+    }
+  }
+
+  /**
+   * @return the cached transformation for {@code key}, {@code null} if there is none
+   */
+  public TransConfiguration get( String key ) {
+    TransConfiguration transConfiguration;
+    synchronized ( cache ) {
+      transConfiguration = cache.get( key );
+    }
+    if ( transConfiguration == null ) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return transConfiguration;
+  }
+
+  /**
+   * Cache {@code transConfiguration} unless one of its steps is still missing its plugin.
+   *
+   * @return {@code true} if the transformation was cached
+   */
+  public boolean put( String key, TransConfiguration transConfiguration ) {
+    if ( maxSize <= 0 || hasMissingPlugins( transConfiguration.getTransMeta() ) ) {
+      return false;
+    }
+    synchronized ( cache ) {
+      cache.put( key, transConfiguration );
+    }
+    return true;
+  }
+
+  /**
+   * Set the maximum size requested by the first task using the cache, tasks of other jobs later run in the same JVM
+   * share it. A size of {@code 0} is not applied, a job asking for it just doesn't use the cache.
+   *
+   * @return {@code true} if the size was applied
+   */
+  public boolean configure( int maxSize ) {
+    if ( maxSize <= 0 || !configured.compareAndSet( false, true ) ) {
+      return false;
+    }
+    setMaxSize( maxSize );
+    return true;
+  }
+
+  public void setMaxSize( int maxSize ) {
+    this.maxSize = maxSize;
+    if ( maxSize <= 0 ) {
+      clear();
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int size() {
+    synchronized ( cache ) {
+      return cache.size();
+    }
+  }
+
+  public void clear() {
+    synchronized ( cache ) {
+      cache.clear();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  static boolean hasMissingPlugins( TransMeta transMeta ) {
+    for ( StepMeta stepMeta : transMeta.getSteps() ) {
+      if ( stepMeta.getStepMetaInterface() instanceof MissingTrans ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Cache lookups made for a single task. A task loads its transformation before a {@link Reporter} is available, so
+   * they are collected here and reported once the task runs.
+   */
+  public static class Statistics {
+    private long hits;
+    private long misses;
+    private long parseMillis;
+
+    public synchronized void hit() {
+      hits++;
+    }
+
+    public synchronized void miss( long parseMillis ) {
+      misses++;
+      this.parseMillis += parseMillis;
+    }
+
+    public synchronized long getHits() {
+      return hits;
+    }
+
+    public synchronized long getMisses() {
+      return misses;
+    }
+
+    public synchronized long getParseMillis() {
+      return parseMillis;
+    }
+
+    /**
+     * Increment the task counters by the lookups recorded so far and reset them.
+     */
+    public synchronized void report( Reporter reporter ) {
+      if ( hits > 0 ) {
+        reporter.incrCounter( Counter.TRANS_CACHE_HITS, hits );
+      }
+      if ( misses > 0 ) {
+        reporter.incrCounter( Counter.TRANS_CACHE_MISSES, misses );
+        reporter.incrCounter( Counter.TRANS_PARSE_MILLIS, parseMillis );
+      }
+      hits = 0;
+      misses = 0;
+      parseMillis = 0;
+    }
+  }
+}
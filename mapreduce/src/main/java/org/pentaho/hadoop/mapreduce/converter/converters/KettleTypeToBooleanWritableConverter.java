@@ -24,6 +24,19 @@ import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
  * Converts any Kettle object to an {@link BooleanWritable} object
  */
 public class KettleTypeToBooleanWritableConverter implements ITypeConverter<Object, BooleanWritable> {
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final BooleanWritable reusable;
+
+  public KettleTypeToBooleanWritableConverter() {
+    this( null );
+  }
+
+  private KettleTypeToBooleanWritableConverter( BooleanWritable reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && BooleanWritable.class.equals( to );
@@ -32,7 +45,7 @@ public class KettleTypeToBooleanWritableConverter implements ITypeConverter<Obje
   @Override
   public BooleanWritable convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      BooleanWritable result = new BooleanWritable();
+      BooleanWritable result = reusable != null ? reusable : new BooleanWritable();
       result.set( meta.getBoolean( obj ) );
       return result;
     } catch ( Exception ex ) {
@@ -40,4 +53,9 @@ public class KettleTypeToBooleanWritableConverter implements ITypeConverter<Obje
         .getString( TypeConverterFactory.class, "ErrorConverting", BooleanWritable.class.getSimpleName(), obj ), ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, BooleanWritable> newReusingInstance() {
+    return new KettleTypeToBooleanWritableConverter( new BooleanWritable() );
+  }
 }
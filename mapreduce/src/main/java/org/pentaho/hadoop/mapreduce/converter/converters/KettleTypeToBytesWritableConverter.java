@@ -24,6 +24,19 @@ import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
  * Converts any Kettle object to an {@link BytesWritable} object
  */
 public class KettleTypeToBytesWritableConverter implements ITypeConverter<Object, BytesWritable> {
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final BytesWritable reusable;
+
+  public KettleTypeToBytesWritableConverter() {
+    this( null );
+  }
+
+  private KettleTypeToBytesWritableConverter( BytesWritable reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && BytesWritable.class.equals( to );
@@ -32,7 +45,7 @@ public class KettleTypeToBytesWritableConverter implements ITypeConverter<Object
   @Override
   public BytesWritable convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      BytesWritable result = new BytesWritable();
+      BytesWritable result = reusable != null ? reusable : new BytesWritable();
       byte[] binary = meta.getBinary( obj );
       result.set( binary, 0, binary.length );
       return result;
@@ -41,4 +54,9 @@ public class KettleTypeToBytesWritableConverter implements ITypeConverter<Object
         .getString( TypeConverterFactory.class, "ErrorConverting", BytesWritable.class.getSimpleName(), obj ), ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, BytesWritable> newReusingInstance() {
+    return new KettleTypeToBytesWritableConverter( new BytesWritable() );
+  }
 }
@@ -25,6 +25,19 @@ import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
  * Converts any Kettle object to an {@link DoubleWritable} object
  */
 public class KettleTypeToDoubleWritableConverter implements ITypeConverter<Object, DoubleWritable> {
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final DoubleWritable reusable;
+
+  public KettleTypeToDoubleWritableConverter() {
+    this( null );
+  }
+
+  private KettleTypeToDoubleWritableConverter( DoubleWritable reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && DoubleWritable.class.equals( to );
@@ -33,7 +46,7 @@ public class KettleTypeToDoubleWritableConverter implements ITypeConverter<Objec
   @Override
   public DoubleWritable convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      DoubleWritable result = new DoubleWritable();
+      DoubleWritable result = reusable != null ? reusable : new DoubleWritable();
       result.set( meta.getNumber( obj ) );
       return result;
     } catch ( KettleValueException ex ) {
@@ -41,4 +54,9 @@ public class KettleTypeToDoubleWritableConverter implements ITypeConverter<Objec
         .getString( TypeConverterFactory.class, "ErrorConverting", DoubleWritable.class.getSimpleName(), obj ), ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, DoubleWritable> newReusingInstance() {
+    return new KettleTypeToDoubleWritableConverter( new DoubleWritable() );
+  }
 }
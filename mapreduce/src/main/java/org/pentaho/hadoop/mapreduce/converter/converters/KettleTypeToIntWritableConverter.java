@@ -25,6 +25,19 @@ import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
  * Converts any Kettle object to an {@link IntWritable} object
  */
 public class KettleTypeToIntWritableConverter implements ITypeConverter<Object, IntWritable> {
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final IntWritable reusable;
+
+  public KettleTypeToIntWritableConverter() {
+    this( null );
+  }
+
+  private KettleTypeToIntWritableConverter( IntWritable reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && IntWritable.class.equals( to );
@@ -33,7 +46,7 @@ public class KettleTypeToIntWritableConverter implements ITypeConverter<Object,
   @Override
   public IntWritable convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      IntWritable result = new IntWritable();
+      IntWritable result = reusable != null ? reusable : new IntWritable();
       result.set( meta.getInteger( obj ).intValue() );
       return result;
     } catch ( KettleValueException ex ) {
@@ -42,4 +55,9 @@ public class KettleTypeToIntWritableConverter implements ITypeConverter<Object,
         ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, IntWritable> newReusingInstance() {
+    return new KettleTypeToIntWritableConverter( new IntWritable() );
+  }
 }
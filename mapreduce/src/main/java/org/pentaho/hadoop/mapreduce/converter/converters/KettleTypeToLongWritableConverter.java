@@ -25,6 +25,19 @@ import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
  * Converts any Kettle object to a {@link LongWritable} object
  */
 public class KettleTypeToLongWritableConverter implements ITypeConverter<Object, LongWritable> {
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final LongWritable reusable;
+
+  public KettleTypeToLongWritableConverter() {
+    this( null );
+  }
+
+  private KettleTypeToLongWritableConverter( LongWritable reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && LongWritable.class.equals( to );
@@ -33,7 +46,7 @@ public class KettleTypeToLongWritableConverter implements ITypeConverter<Object,
   @Override
   public LongWritable convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      LongWritable result = new LongWritable();
+      LongWritable result = reusable != null ? reusable : new LongWritable();
       result.set( meta.getInteger( obj ) );
       return result;
     } catch ( KettleValueException ex ) {
@@ -41,4 +54,9 @@ public class KettleTypeToLongWritableConverter implements ITypeConverter<Object,
         .getString( TypeConverterFactory.class, "ErrorConverting", LongWritable.class.getSimpleName(), obj ), ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, LongWritable> newReusingInstance() {
+    return new KettleTypeToLongWritableConverter( new LongWritable() );
+  }
 }
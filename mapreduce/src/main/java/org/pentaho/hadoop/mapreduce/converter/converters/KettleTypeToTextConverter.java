@@ -14,6 +14,7 @@
 package org.pentaho.hadoop.mapreduce.converter.converters;
 
 import org.apache.hadoop.io.Text;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.i18n.BaseMessages;
@@ -21,10 +22,35 @@ import org.pentaho.hadoop.mapreduce.converter.TypeConversionException;
 import org.pentaho.hadoop.mapreduce.converter.TypeConverterFactory;
 import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Converts any Kettle object to a {@link Text} object
  */
 public class KettleTypeToTextConverter implements ITypeConverter<Object, Text> {
+  private static final boolean DEFAULT_CHARSET_IS_UTF8 = StandardCharsets.UTF_8.equals( Charset.defaultCharset() );
+
+  /**
+   * Whether an encoding name resolves to UTF-8, so that the charset is looked up once per name instead of per value
+   */
+  private static final Map<String, Boolean> UTF8_ENCODINGS = new ConcurrentHashMap<>();
+
+  /**
+   * Instance returned from every conversion, {@code null} if a new one is created per conversion
+   */
+  private final Text reusable;
+
+  public KettleTypeToTextConverter() {
+    this( null );
+  }
+
+  private KettleTypeToTextConverter( Text reusable ) {
+    this.reusable = reusable;
+  }
+
   @Override
   public boolean canConvert( Class from, Class to ) {
     return TypeConverterFactory.isKettleType( from ) && Text.class.equals( to );
@@ -33,12 +59,54 @@ public class KettleTypeToTextConverter implements ITypeConverter<Object, Text> {
   @Override
   public Text convert( ValueMetaInterface meta, Object obj ) throws TypeConversionException {
     try {
-      Text text = new Text();
-      text.set( meta.getString( obj ) );
+      Text text = reusable != null ? reusable : new Text();
+      if ( obj instanceof byte[] && ( (byte[]) obj ).length > 0 && isUtf8BinaryString( meta ) ) {
+        // The binary string already is the UTF-8 encoding of the value, skip decoding and re-encoding it
+        text.set( (byte[]) obj );
+      } else {
+        text.set( meta.getString( obj ) );
+      }
       return text;
     } catch ( KettleValueException ex ) {
       throw new TypeConversionException(
         BaseMessages.getString( TypeConverterFactory.class, "ErrorConverting", Text.class.getSimpleName(), obj ), ex );
     }
   }
+
+  @Override
+  public ITypeConverter<Object, Text> newReusingInstance() {
+    return new KettleTypeToTextConverter( new Text() );
+  }
+
+  /**
+   * Determines if a value of {@code meta} is stored as UTF-8 encoded bytes that {@link ValueMetaInterface#getString}
+   * would return unchanged. Values with a null if or if null replacement go through {@code getString}, which applies
+   * them.
+   */
+  static boolean isUtf8BinaryString( ValueMetaInterface meta ) {
+    if ( meta.getType() != ValueMetaInterface.TYPE_STRING || !meta.isStorageBinaryString()
+      || meta.getTrimType() != ValueMetaInterface.TRIM_TYPE_NONE ) {
+      return false;
+    }
+    if ( !Const.isEmpty( meta.getNullIf() ) || !Const.isEmpty( meta.getIfNull() ) ) {
+      return false;
+    }
+    ValueMetaInterface storageMeta = meta.getStorageMetadata();
+    if ( storageMeta == null || storageMeta.getTrimType() != ValueMetaInterface.TRIM_TYPE_NONE ) {
+      return false;
+    }
+    String encoding = storageMeta.getStringEncoding();
+    if ( Const.isEmpty( encoding ) ) {
+      return DEFAULT_CHARSET_IS_UTF8;
+    }
+    return UTF8_ENCODINGS.computeIfAbsent( encoding, KettleTypeToTextConverter::isUtf8 );
+  }
+
+  private static boolean isUtf8( String encoding ) {
+    try {
+      return StandardCharsets.UTF_8.equals( Charset.forName( encoding ) );
+    } catch ( IllegalArgumentException ex ) {
+      return false;
+    }
+  }
 }
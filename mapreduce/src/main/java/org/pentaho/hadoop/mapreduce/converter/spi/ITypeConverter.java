@@ -42,4 +42,16 @@ public interface ITypeConverter<F, T> {
    *                                                                        obj} to type {@code T}
    */
   public T convert( ValueMetaInterface meta, F obj ) throws TypeConversionException;
+
+  /**
+   * Obtain a converter for the exclusive use of a single caller that may return the same, mutated, instance of
+   * {@code T} from every call to {@link #convert(ValueMetaInterface, Object) convert}. Only use it when each converted
+   * object is consumed before the next conversion, e.g. when it is serialized right away by an {@code
+   * OutputCollector}.
+   *
+   * @return A converter that re-uses the objects it returns, or this converter if it can't re-use them
+   */
+  public default ITypeConverter<F, T> newReusingInstance() {
+    return this;
+  }
 }
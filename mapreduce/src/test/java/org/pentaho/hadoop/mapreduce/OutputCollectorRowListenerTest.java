@@ -0,0 +1,122 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.mapreduce;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.mapreduce.converter.TypeConverterFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings( "unchecked" )
+public class OutputCollectorRowListenerTest {
+
+  private MockOutputCollector output;
+  private Reporter reporter;
+  private TypeConverterFactory typeConverterFactory;
+
+  @Before
+  public void setUp() {
+    output = new MockOutputCollector();
+    reporter = mock( Reporter.class );
+    typeConverterFactory = spy( new TypeConverterFactory() );
+  }
+
+  @Test
+  public void testConvertersAreResolvedOnce() throws Exception {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "outKey" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "outValue" ) );
+    OutputCollectorRowListener listener =
+      new OutputCollectorRowListener( output, Text.class, LongWritable.class, reporter, false, typeConverterFactory );
+
+    for ( long i = 0; i < 100; i++ ) {
+      listener.rowWrittenEvent( rowMeta, new Object[] { "key" + i, i } );
+    }
+
+    assertEquals( 100, output.getCollection().size() );
+    assertEquals( Arrays.asList( new LongWritable( 42 ) ), output.getCollection().get( new Text( "key42" ) ) );
+    verify( typeConverterFactory, times( 2 ) ).getConverter( nullable( Class.class ), any( Class.class ) );
+  }
+
+  @Test
+  public void testConvertersAreRebound() throws Exception {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "outKey" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "outValue" ) );
+    OutputCollectorRowListener listener =
+      new OutputCollectorRowListener( output, Text.class, DoubleWritable.class, reporter, false,
+        typeConverterFactory );
+
+    listener.rowWrittenEvent( rowMeta, new Object[] { "a", 1.5d } );
+    listener.rowWrittenEvent( rowMeta, new Object[] { "b", 2.5d } );
+    // A null value requires another converter
+    listener.rowWrittenEvent( rowMeta, new Object[] { "c", null } );
+    // So does a new row meta instance
+    RowMeta otherRowMeta = (RowMeta) rowMeta.clone();
+    listener.rowWrittenEvent( otherRowMeta, new Object[] { "d", 4.5d } );
+
+    assertEquals( Arrays.asList( new DoubleWritable( 1.5d ) ), output.getCollection().get( new Text( "a" ) ) );
+    assertEquals( Arrays.asList( new DoubleWritable( 2.5d ) ), output.getCollection().get( new Text( "b" ) ) );
+    assertFalse( output.getCollection().containsKey( new Text( "c" ) ) );
+    verify( reporter ).incrCounter( PentahoMapRunnable.Counter.OUT_RECORD_WITH_NULL_VALUE, 1 );
+    assertEquals( Arrays.asList( new DoubleWritable( 4.5d ) ), output.getCollection().get( new Text( "d" ) ) );
+    verify( typeConverterFactory, times( 6 ) ).getConverter( nullable( Class.class ), any( Class.class ) );
+  }
+
+  @Test
+  public void testReuseWritables() throws Exception {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "outKey" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "outValue" ) );
+    List<Object> collected = new ArrayList<>();
+    OutputCollector<Text, LongWritable> collector = ( k, v ) -> {
+      collected.add( k );
+      collected.add( v );
+    };
+    OutputCollectorRowListener listener =
+      new OutputCollectorRowListener( collector, Text.class, LongWritable.class, reporter, false );
+    listener.setReuseWritables( true );
+
+    listener.rowWrittenEvent( rowMeta, new Object[] { "a", 1L } );
+    assertEquals( new Text( "a" ), collected.get( 0 ) );
+    assertEquals( new LongWritable( 1L ), collected.get( 1 ) );
+    listener.rowWrittenEvent( rowMeta, new Object[] { "b", 2L } );
+
+    assertSame( collected.get( 0 ), collected.get( 2 ) );
+    assertSame( collected.get( 1 ), collected.get( 3 ) );
+    assertEquals( new Text( "b" ), collected.get( 2 ) );
+    assertEquals( new LongWritable( 2L ), collected.get( 3 ) );
+  }
+}
@@ -24,6 +24,10 @@ import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LoggingRegistry;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.RowProducer;
 import org.pentaho.di.trans.TransConfiguration;
 import org.pentaho.di.trans.TransMeta;
 
@@ -35,7 +39,14 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Tatsiana_Kasiankova
@@ -210,4 +221,39 @@ public class PentahoMapRunnableTest {
     }
     assertEquals( logChannels + EXPECTED_CHANNELS_PER_RUN, LoggingRegistry.getInstance().getMap().size() );
   }
+
+  @Test
+  public void testInjectValueCountsBackPressure() throws Exception {
+    RowMeta injectorRowMeta = new RowMeta();
+    injectorRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    injectorRowMeta.addValueMeta( new ValueMetaString( "value" ) );
+    RowProducer rowProducer = mock( RowProducer.class );
+    when( rowProducer.putRow( any( RowMetaInterface.class ), any( Object[].class ), anyBoolean() ) )
+      .thenReturn( false );
+    Reporter reporter = mock( Reporter.class );
+
+    mapRunnable.injectValue( "k", null, "v", null, injectorRowMeta, rowProducer, reporter );
+
+    Object[] row = new Object[] { "k", "v" };
+    verify( rowProducer ).putRow( eq( injectorRowMeta ), eq( row ), eq( false ) );
+    verify( rowProducer ).putRow( eq( injectorRowMeta ), eq( row ) );
+    verify( reporter ).incrCounter( PentahoMapRunnable.Counter.INJECTION_BACKPRESSURE_WAITS, 1 );
+  }
+
+  @Test
+  public void testInjectValueAcceptedWithoutBackPressure() throws Exception {
+    RowMeta injectorRowMeta = new RowMeta();
+    injectorRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    injectorRowMeta.addValueMeta( new ValueMetaString( "value" ) );
+    RowProducer rowProducer = mock( RowProducer.class );
+    when( rowProducer.putRow( any( RowMetaInterface.class ), any( Object[].class ), anyBoolean() ) )
+      .thenReturn( true );
+    Reporter reporter = mock( Reporter.class );
+
+    mapRunnable.injectValue( "k", null, "v", null, injectorRowMeta, rowProducer, reporter );
+
+    verify( rowProducer, times( 1 ) ).putRow( eq( injectorRowMeta ), eq( new Object[] { "k", "v" } ), eq( false ) );
+    verify( rowProducer, never() ).putRow( any( RowMetaInterface.class ), any( Object[].class ) );
+    verify( reporter, never() ).incrCounter( PentahoMapRunnable.Counter.INJECTION_BACKPRESSURE_WAITS, 1 );
+  }
 }
@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.mapreduce;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.plugins.PluginInterface;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StepPluginWaiterTest {
+
+  private static final String PLUGIN_ID = "StepPluginWaiterTestStep";
+
+  private PluginInterface plugin;
+
+  @BeforeClass
+  public static void before() throws KettleException {
+    KettleEnvironment.init();
+  }
+
+  @After
+  public void tearDown() {
+    if ( plugin != null ) {
+      PluginRegistry.getInstance().removePlugin( StepPluginType.class, plugin );
+    }
+  }
+
+  @Test
+  public void testTimesOutOnMissingPlugin() throws Exception {
+    long start = System.currentTimeMillis();
+    List<String> missing = StepPluginWaiter.awaitPlugins( Arrays.asList( PLUGIN_ID ), start + 100 );
+
+    assertEquals( Collections.singletonList( PLUGIN_ID ), missing );
+    assertTrue( System.currentTimeMillis() - start >= 100 );
+  }
+
+  @Test
+  public void testWakesUpWhenPluginIsRegistered() throws Exception {
+    plugin = mock( PluginInterface.class );
+    when( plugin.getIds() ).thenReturn( new String[] { PLUGIN_ID } );
+    when( plugin.getName() ).thenReturn( PLUGIN_ID );
+    when( plugin.getPluginType() ).thenAnswer( invocation -> StepPluginType.class );
+
+    Thread registrar = new Thread( () -> {
+      try {
+        Thread.sleep( 200 );
+        PluginRegistry.getInstance().registerPlugin( StepPluginType.class, plugin );
+      } catch ( Exception e ) {
+        throw new RuntimeException( e );
+      }
+    } );
+    registrar.start();
+
+    long start = System.currentTimeMillis();
+    List<String> missing = StepPluginWaiter.awaitPlugins( Arrays.asList( PLUGIN_ID ), start + 60000 );
+    registrar.join();
+
+    assertTrue( missing.isEmpty() );
+    assertTrue( System.currentTimeMillis() - start < 60000 );
+  }
+
+  @Test
+  public void testRegisteredPluginsAreNotMissing() throws Exception {
+    assertTrue( StepPluginWaiter.getMissingPlugins( Arrays.asList( "Dummy" ) ).isEmpty() );
+    assertTrue( StepPluginWaiter.awaitPlugins( Arrays.asList( "Dummy" ), 0 ).isEmpty() );
+  }
+}
@@ -0,0 +1,34 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.mapreduce;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransMetaCacheTest {
+
+  @Test
+  public void testMaxSizeIsConfiguredOnce() {
+    TransMetaCache cache = new TransMetaCache( TransMetaCache.DEFAULT_MAX_SIZE );
+
+    assertFalse( cache.configure( 0 ) );
+    assertEquals( TransMetaCache.DEFAULT_MAX_SIZE, cache.getMaxSize() );
+    assertTrue( cache.configure( 4 ) );
+    assertFalse( cache.configure( 8 ) );
+    assertFalse( cache.configure( 0 ) );
+    assertEquals( 4, cache.getMaxSize() );
+  }
+}
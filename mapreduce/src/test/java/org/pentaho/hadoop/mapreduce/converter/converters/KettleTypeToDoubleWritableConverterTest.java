@@ -18,6 +18,7 @@ import org.junit.Test;
 import org.pentaho.di.core.row.ValueMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.hadoop.mapreduce.converter.TypeConversionException;
+import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
 
 import static org.junit.Assert.*;
 
@@ -75,4 +76,16 @@ public class KettleTypeToDoubleWritableConverterTest {
       assertTrue( ex.getMessage().contains( "!ErrorConverting!" ) );
     }
   }
+
+  @Test
+  public void reusingInstance() throws Exception {
+    ITypeConverter<Object, DoubleWritable> c = new KettleTypeToDoubleWritableConverter().newReusingInstance();
+    ValueMeta meta = new ValueMeta( "test", ValueMetaInterface.TYPE_NUMBER, ValueMetaInterface.STORAGE_TYPE_NORMAL );
+
+    DoubleWritable first = c.convert( meta, Double.valueOf( 1.5 ) );
+    assertEquals( new DoubleWritable( 1.5 ), first );
+    DoubleWritable second = c.convert( meta, Double.valueOf( 2.5 ) );
+    assertSame( first, second );
+    assertEquals( new DoubleWritable( 2.5 ), second );
+  }
 }
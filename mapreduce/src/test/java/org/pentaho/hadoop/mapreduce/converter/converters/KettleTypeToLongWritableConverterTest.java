@@ -19,6 +19,7 @@ import org.junit.Test;
 import org.pentaho.di.core.row.ValueMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.hadoop.mapreduce.converter.TypeConversionException;
+import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
 
 import static org.junit.Assert.*;
 
@@ -76,4 +77,16 @@ public class KettleTypeToLongWritableConverterTest {
     }
 
   }
+
+  @Test
+  public void reusingInstance() throws Exception {
+    ITypeConverter<Object, LongWritable> c = new KettleTypeToLongWritableConverter().newReusingInstance();
+    ValueMeta meta = new ValueMeta( "test", ValueMetaInterface.TYPE_INTEGER, ValueMetaInterface.STORAGE_TYPE_NORMAL );
+
+    LongWritable first = c.convert( meta, Long.valueOf( 1 ) );
+    assertEquals( new LongWritable( 1 ), first );
+    LongWritable second = c.convert( meta, Long.valueOf( 2 ) );
+    assertSame( first, second );
+    assertEquals( new LongWritable( 2 ), second );
+  }
 }
@@ -19,6 +19,9 @@ import org.junit.Test;
 import org.pentaho.di.core.row.ValueMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.hadoop.mapreduce.converter.TypeConversionException;
+import org.pentaho.hadoop.mapreduce.converter.spi.ITypeConverter;
+
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.*;
 
@@ -76,4 +79,57 @@ public class KettleTypeToTextConverterTest {
     }
 
   }
+
+  @Test
+  public void reusingInstance() throws Exception {
+    KettleTypeToTextConverter c = new KettleTypeToTextConverter();
+    ITypeConverter<Object, Text> reusing = c.newReusingInstance();
+    ValueMeta normalMeta =
+      new ValueMeta( "test", ValueMetaInterface.TYPE_STRING, ValueMetaInterface.STORAGE_TYPE_NORMAL );
+
+    assertNotSame( c.convert( normalMeta, "a" ), c.convert( normalMeta, "a" ) );
+    Text first = reusing.convert( normalMeta, "first" );
+    assertEquals( new Text( "first" ), first );
+    Text second = reusing.convert( normalMeta, "second value" );
+    assertSame( first, second );
+    assertEquals( new Text( "second value" ), second );
+    assertNotSame( second, c.newReusingInstance().convert( normalMeta, "other" ) );
+  }
+
+  @Test
+  public void isUtf8BinaryString() throws Exception {
+    ValueMeta binaryMeta =
+      new ValueMeta( "test", ValueMetaInterface.TYPE_STRING, ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    ValueMeta storageMeta =
+      new ValueMeta( "test", ValueMetaInterface.TYPE_STRING, ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    storageMeta.setStringEncoding( "UTF-8" );
+    binaryMeta.setStorageMetadata( storageMeta );
+    assertTrue( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+
+    String value = "\u00e9t\u00e9";
+    assertEquals( new Text( value ),
+      new KettleTypeToTextConverter().convert( binaryMeta, value.getBytes( StandardCharsets.UTF_8 ) ) );
+
+    storageMeta.setStringEncoding( "ISO-8859-1" );
+    assertFalse( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+    assertEquals( new Text( value ),
+      new KettleTypeToTextConverter().convert( binaryMeta, value.getBytes( StandardCharsets.ISO_8859_1 ) ) );
+
+    storageMeta.setStringEncoding( "UTF-8" );
+    binaryMeta.setTrimType( ValueMetaInterface.TRIM_TYPE_BOTH );
+    assertFalse( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+
+    binaryMeta.setTrimType( ValueMetaInterface.TRIM_TYPE_NONE );
+    binaryMeta.setNullIf( "n/a" );
+    assertFalse( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+    binaryMeta.setNullIf( null );
+    binaryMeta.setIfNull( "none" );
+    assertFalse( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+    binaryMeta.setIfNull( null );
+    assertTrue( KettleTypeToTextConverter.isUtf8BinaryString( binaryMeta ) );
+
+    ValueMeta normalMeta =
+      new ValueMeta( "test", ValueMetaInterface.TYPE_STRING, ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    assertFalse( KettleTypeToTextConverter.isUtf8BinaryString( normalMeta ) );
+  }
 }
@@ -14,6 +14,7 @@
 package org.pentaho.hadoop.mapreduce.test;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.Reporter;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -28,8 +29,11 @@ import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.hadoop.mapreduce.MRUtil;
+import org.pentaho.hadoop.mapreduce.TransMetaCache;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link MRUtil}.
@@ -117,6 +121,59 @@ public class MRUtilTest {
     assertEquals( TransMeta.TransformationType.SingleThreaded, trans.getTransMeta().getTransformationType() );
   }
 
+  @Test
+  public void createTrans_cached() throws Exception {
+    TransMetaCache.getInstance().clear();
+    TransMetaCache.Statistics statistics = new TransMetaCache.Statistics();
+
+    Trans first = MRUtil.getTrans( c, transExecConfig.getXML(), false, statistics );
+    Trans second = MRUtil.getTrans( c, transExecConfig.getXML(), false, statistics );
+    assertNotSame( first, second );
+    assertNotSame( first.getTransMeta(), second.getTransMeta() );
+    assertEquals( transMeta.getName(), second.getTransMeta().getName() );
+    assertEquals( 1, statistics.getHits() );
+    assertEquals( 1, statistics.getMisses() );
+
+    // Every task gets its own copy, changes of one task don't show in the next
+    second.getTransMeta().setName( "changed" );
+    second.getTransMeta().setTransformationType( TransformationType.SingleThreaded );
+    Trans third = MRUtil.getTrans( c, transExecConfig.getXML(), false );
+    assertEquals( transMeta.getName(), third.getTransMeta().getName() );
+    assertEquals( TransMeta.TransformationType.Normal, third.getTransMeta().getTransformationType() );
+
+    // The threading mode and variable space are part of the key
+    Trans singleThreaded = MRUtil.getTrans( c, transExecConfig.getXML(), true, statistics );
+    assertNotSame( first.getTransMeta(), singleThreaded.getTransMeta() );
+    assertEquals( TransMeta.TransformationType.SingleThreaded, singleThreaded.getTransMeta().getTransformationType() );
+    assertEquals( TransMeta.TransformationType.Normal, first.getTransMeta().getTransformationType() );
+    c.set( "variableSpace", "<variables/>" );
+    assertNotSame( first.getTransMeta(), MRUtil.getTrans( c, transExecConfig.getXML(), false ).getTransMeta() );
+    assertEquals( 1, statistics.getHits() );
+    assertEquals( 2, statistics.getMisses() );
+
+    Reporter reporter = mock( Reporter.class );
+    statistics.report( reporter );
+    verify( reporter ).incrCounter( TransMetaCache.Counter.TRANS_CACHE_HITS, 1 );
+    verify( reporter ).incrCounter( TransMetaCache.Counter.TRANS_CACHE_MISSES, 2 );
+    assertEquals( 0, statistics.getMisses() );
+  }
+
+  @Test
+  public void createTrans_cacheDisabled() throws Exception {
+    TransMetaCache.getInstance().clear();
+    c.setInt( MRUtil.PROPERTY_PENTAHO_TRANS_CACHE_SIZE, 0 );
+    try {
+      Trans first = MRUtil.getTrans( c, transExecConfig.getXML(), false );
+      Trans second = MRUtil.getTrans( c, transExecConfig.getXML(), false );
+      assertNotSame( first.getTransMeta(), second.getTransMeta() );
+      assertEquals( 0, TransMetaCache.getInstance().size() );
+      // Other jobs of the JVM keep using the cache
+      assertTrue( TransMetaCache.getInstance().getMaxSize() > 0 );
+    } finally {
+      TransMetaCache.getInstance().setMaxSize( TransMetaCache.DEFAULT_MAX_SIZE );
+    }
+  }
+
   private static TransMeta getTestTransMeta() {
     TransMeta transMeta = new TransMeta();
     transMeta.setName( "Test transformation" );
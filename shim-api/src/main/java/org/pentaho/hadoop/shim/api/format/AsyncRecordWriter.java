@@ -0,0 +1,215 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+/**
+ * Record writer which hands the rows to a dedicated thread through a bounded queue, so that encoding, compression and
+ * file system I/O of the wrapped writer overlap with the production of the rows.
+ * <p>
+ * {@link #write} blocks while the queue is full. Once the wrapped writer fails, the next {@link #write} or
+ * {@link #close} throws its error; the remaining queued rows are discarded. Rows are written after {@link #write}
+ * returns, so they must not be modified by the caller afterwards.
+ */
+public class AsyncRecordWriter implements IPentahoRecordWriter {
+  public static final int DEFAULT_QUEUE_DEPTH = 10000;
+
+  private static final int MAX_BATCH_SIZE = 1024;
+  private static final long POLL_MILLIS = 100;
+  private static final RowMetaAndData END_OF_ROWS = new RowMetaAndData();
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  private final IPentahoRecordWriter delegate;
+  private final int queueDepth;
+  private final BlockingQueue<RowMetaAndData> queue;
+  private final Thread writerThread;
+
+  private volatile Throwable failure;
+  private volatile int peakQueueSize;
+  private volatile long blockedNanos;
+  private volatile long closeNanos;
+  private final AtomicLong writeNanos = new AtomicLong();
+  private boolean closed;
+
+  public AsyncRecordWriter( IPentahoRecordWriter delegate ) {
+    this( delegate, DEFAULT_QUEUE_DEPTH );
+  }
+
+  public AsyncRecordWriter( IPentahoRecordWriter delegate, int queueDepth ) {
+    if ( queueDepth <= 0 ) {
+      throw new IllegalArgumentException( "Queue depth must be positive: " + queueDepth );
+    }
+    this.delegate = delegate;
+    this.queueDepth = queueDepth;
+    queue = new ArrayBlockingQueue<>( queueDepth );
+    writerThread = new Thread( this::drain, "pentaho-async-record-writer-" + THREAD_COUNT.incrementAndGet() );
+    writerThread.setDaemon( true );
+    writerThread.setContextClassLoader( Thread.currentThread().getContextClassLoader() );
+    writerThread.start();
+  }
+
+  @Override
+  public void write( RowMetaAndData row ) throws Exception {
+    if ( closed ) {
+      throw new IllegalStateException( "Record writer is closed" );
+    }
+    checkFailure();
+    if ( !queue.offer( row ) ) {
+      long start = System.nanoTime();
+      try {
+        while ( !queue.offer( row, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+          checkFailure();
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException( "Interrupted while waiting for the record writer" );
+      } finally {
+        blockedNanos += System.nanoTime() - start;
+      }
+    }
+    int size = queue.size();
+    if ( size > peakQueueSize ) {
+      peakQueueSize = size;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    try {
+      while ( writerThread.isAlive() && !queue.offer( END_OF_ROWS, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        // the writer thread keeps draining, even after a failure
+      }
+      writerThread.join();
+    } catch ( InterruptedException e ) {
+      writerThread.interrupt();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while waiting for the record writer" );
+    }
+
+    IOException closeFailure = null;
+    long start = System.nanoTime();
+    try {
+      delegate.close();
+    } catch ( IOException e ) {
+      closeFailure = e;
+    } finally {
+      closeNanos = System.nanoTime() - start;
+    }
+    if ( failure != null ) {
+      IOException e = new IOException( "Unable to write rows", failure );
+      if ( closeFailure != null ) {
+        e.addSuppressed( closeFailure );
+      }
+      throw e;
+    }
+    if ( closeFailure != null ) {
+      throw closeFailure;
+    }
+  }
+
+  /**
+   * Maximum number of rows waiting for the writer thread.
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * Number of rows currently waiting for the writer thread.
+   */
+  public int getQueueSize() {
+    int size = queue.size();
+    return queue.contains( END_OF_ROWS ) ? size - 1 : size;
+  }
+
+  /**
+   * Highest number of rows seen waiting for the writer thread.
+   */
+  public int getPeakQueueSize() {
+    return peakQueueSize;
+  }
+
+  /**
+   * Time the caller spent blocked in {@link #write} because the queue was full.
+   */
+  public long getBlockedNanos() {
+    return blockedNanos;
+  }
+
+  /**
+   * Time the writer thread spent in the wrapped writer, flushing rows.
+   */
+  public long getWriteNanos() {
+    return writeNanos.get();
+  }
+
+  /**
+   * Time spent closing the wrapped writer, including its final flush.
+   */
+  public long getCloseNanos() {
+    return closeNanos;
+  }
+
+  private void checkFailure() throws IOException {
+    if ( failure != null ) {
+      throw new IOException( "Unable to write rows", failure );
+    }
+  }
+
+  private void drain() {
+    List<RowMetaAndData> batch = new ArrayList<>( MAX_BATCH_SIZE );
+    boolean end = false;
+    while ( !end ) {
+      try {
+        batch.add( queue.take() );
+      } catch ( InterruptedException e ) {
+        failure = e;
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo( batch, MAX_BATCH_SIZE - 1 );
+      end = batch.get( batch.size() - 1 ) == END_OF_ROWS;
+      if ( end ) {
+        batch.remove( batch.size() - 1 );
+      }
+      if ( failure == null && !batch.isEmpty() ) {
+        long start = System.nanoTime();
+        try {
+          delegate.writeBatch( batch );
+        } catch ( Exception | Error e ) {
+          // keep draining so that the producer never waits on a dead writer
+          failure = e;
+        } finally {
+          writeNanos.addAndGet( System.nanoTime() - start );
+        }
+      }
+      batch.clear();
+    }
+  }
+}
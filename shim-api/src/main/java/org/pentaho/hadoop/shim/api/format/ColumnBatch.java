@@ -0,0 +1,132 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rows stored column by column in primitive arrays, as read by an {@link IPentahoColumnarRecordReader}.
+ * The arrays are allocated once for the capacity of the batch and reused for every batch of the reader; only the
+ * first {@link #size()} entries hold values.
+ */
+public class ColumnBatch {
+
+  /**
+   * How the values of a column are stored: whole numbers in {@link Column#getLongs()}, floating point numbers in
+   * {@link Column#getDoubles()}, booleans in {@link Column#getBooleans()} and anything else as bytes in
+   * {@link Column#getBinaries()}.
+   */
+  public enum ColumnType {
+    LONG, DOUBLE, BOOLEAN, BINARY
+  }
+
+  private final Column[] columns;
+  private final int capacity;
+  private int size;
+
+  public ColumnBatch( String[] names, ColumnType[] types, int capacity ) {
+    this.capacity = capacity;
+    columns = new Column[ names.length ];
+    for ( int i = 0; i < columns.length; i++ ) {
+      columns[ i ] = new Column( names[ i ], types[ i ], capacity );
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public Column getColumn( int index ) {
+    return columns[ index ];
+  }
+
+  /**
+   * Empty the batch for {@code size} new rows, which are all not null.
+   */
+  public void reset( int size ) {
+    if ( size > capacity ) {
+      throw new IllegalArgumentException( "Batch size " + size + " exceeds capacity " + capacity );
+    }
+    this.size = size;
+    for ( Column column : columns ) {
+      Arrays.fill( column.nulls, 0L );
+    }
+  }
+
+  public static class Column {
+    private final String name;
+    private final ColumnType type;
+    private final long[] longs;
+    private final double[] doubles;
+    private final boolean[] booleans;
+    private final byte[][] binaries;
+    private final long[] nulls;
+
+    Column( String name, ColumnType type, int capacity ) {
+      this.name = name;
+      this.type = type;
+      longs = type == ColumnType.LONG ? new long[ capacity ] : null;
+      doubles = type == ColumnType.DOUBLE ? new double[ capacity ] : null;
+      booleans = type == ColumnType.BOOLEAN ? new boolean[ capacity ] : null;
+      binaries = type == ColumnType.BINARY ? new byte[ capacity ][] : null;
+      nulls = new long[ ( capacity + 63 ) >>> 6 ];
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public ColumnType getType() {
+      return type;
+    }
+
+    public long[] getLongs() {
+      return longs;
+    }
+
+    public double[] getDoubles() {
+      return doubles;
+    }
+
+    public boolean[] getBooleans() {
+      return booleans;
+    }
+
+    public byte[][] getBinaries() {
+      return binaries;
+    }
+
+    /**
+     * Null bitmap, bit {@code row % 64} of word {@code row / 64} is set for null values.
+     */
+    public long[] getNulls() {
+      return nulls;
+    }
+
+    public boolean isNull( int row ) {
+      return ( nulls[ row >>> 6 ] & ( 1L << row ) ) != 0;
+    }
+
+    public void setNull( int row ) {
+      nulls[ row >>> 6 ] |= 1L << row;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.io.IOException;
+
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordReader;
+
+/**
+ * Record reader which decodes the values column by column into {@link ColumnBatch}es. Iterating over it still gives
+ * one row at a time, built from the batches; use either the batches or the rows of a reader, not both.
+ */
+public interface IPentahoColumnarRecordReader extends IPentahoRecordReader {
+  /**
+   * Read the next batch of rows.
+   *
+   * @return the batch, which is reused by the next call, or {@code null} once all rows have been read
+   */
+  ColumnBatch nextBatch() throws IOException;
+}
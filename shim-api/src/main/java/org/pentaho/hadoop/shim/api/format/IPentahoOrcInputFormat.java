@@ -30,4 +30,17 @@ public interface IPentahoOrcInputFormat extends IPentahoInputFormat {
    */
   void setInputFile( String file );
 
+  /**
+   * Set filter used to skip stripes and row groups whose statistics show they can not match. Only the columns of the
+   * schema set by {@link #setSchema(List)} are read in any case.
+   *
+   * @param filter predicate over ORC field names, {@code null} to read all rows
+   */
+  void setFilter( IPentahoPredicate filter );
+
+  /**
+   * Target size of the splits returned by {@link #getSplits()}, bytes. Files are only split on stripe boundaries.
+   */
+  void setSplitSize( long splitSize );
+
 }
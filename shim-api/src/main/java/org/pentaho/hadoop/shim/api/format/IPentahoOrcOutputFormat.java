@@ -13,6 +13,7 @@
 package org.pentaho.hadoop.shim.api.format;
 
 import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
 
 import java.util.List;
 
@@ -26,6 +27,12 @@ public interface IPentahoOrcOutputFormat extends IPentahoOutputFormat, IPvfsAlia
   String COMPRESS_SIZE_KEY = "orc.compress.size";
   String ROW_INDEX_STRIDE_KEY = "orc.row.index.stride";
   String CREATE_INDEX_KEY = "orc.create.index";
+  String BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
+  String BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
+  String ENCODING_STRATEGY_KEY = "orc.encoding.strategy";
+  String DICTIONARY_KEY_SIZE_THRESHOLD_KEY = "orc.dictionary.key.threshold";
+  String BLOCK_PADDING_KEY = "orc.block.padding";
+  String BLOCK_PADDING_TOLERANCE_KEY = "orc.block.padding.tolerance";
 
   void setFields( List<? extends IOrcOutputField> fields ) throws Exception;
 
@@ -39,4 +46,45 @@ public interface IPentahoOrcOutputFormat extends IPentahoOutputFormat, IPvfsAlia
 
   void setCompressSize( int kilobytes );
 
+  /**
+   * Write a bloom filter for every row group of these columns, so that readers with an equality or IN predicate can
+   * skip row groups and stripes which don't contain the value. Needs the row index, see
+   * {@link #setRowIndexStride(int)}.
+   *
+   * @param columns format field names, empty for none
+   */
+  void setBloomFilterColumns( List<String> columns );
+
+  /**
+   * @param fpp false positive probability of the bloom filters, between 0 and 1
+   * @throws IllegalArgumentException if {@code fpp} is not between 0 and 1
+   */
+  void setBloomFilterFpp( double fpp );
+
+  /**
+   * SPEED encodes integers with the older, cheaper run length encoding. COMPRESSION picks the encoding which makes
+   * them smallest.
+   */
+  void setEncodingStrategy( OrcFile.EncodingStrategy strategy );
+
+  /**
+   * Use dictionary encoding for a string column while its distinct values are at most this fraction of its values,
+   * 0 to never use it.
+   *
+   * @throws IllegalArgumentException if {@code threshold} is not between 0 and 1
+   */
+  void setDictionaryKeySizeThreshold( double threshold );
+
+  /**
+   * Pad stripes so that none of them crosses a file system block boundary.
+   */
+  void setBlockPadding( boolean blockPadding );
+
+  /**
+   * @param tolerance fraction of the stripe size which may be left as padding at the end of a block, the stripe is
+   *                  shrunk to fit the block otherwise
+   * @throws IllegalArgumentException if {@code tolerance} is not between 0 and 1
+   */
+  void setPaddingTolerance( double tolerance );
+
 }
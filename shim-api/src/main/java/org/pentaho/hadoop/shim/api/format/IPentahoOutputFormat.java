@@ -13,13 +13,31 @@
 package org.pentaho.hadoop.shim.api.format;
 
 import java.io.Closeable;
+import java.util.List;
 
 import org.pentaho.di.core.RowMetaAndData;
 
 public interface IPentahoOutputFormat {
   IPentahoRecordWriter createRecordWriter() throws Exception;
 
+  /**
+   * Create a record writer which encodes and writes the rows on a dedicated thread, buffering up to
+   * {@code queueDepth} rows. See {@link AsyncRecordWriter} for the back-pressure and error semantics.
+   */
+  default AsyncRecordWriter createAsyncRecordWriter( int queueDepth ) throws Exception {
+    return new AsyncRecordWriter( createRecordWriter(), queueDepth );
+  }
+
   public interface IPentahoRecordWriter extends Closeable {
     void write( RowMetaAndData row ) throws Exception;
+
+    /**
+     * Write several rows at once, in order.
+     */
+    default void writeBatch( List<RowMetaAndData> rows ) throws Exception {
+      for ( RowMetaAndData row : rows ) {
+        write( row );
+      }
+    }
   }
 }
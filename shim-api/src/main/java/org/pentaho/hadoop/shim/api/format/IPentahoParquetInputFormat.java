@@ -26,6 +26,15 @@ public interface IPentahoParquetInputFormat extends IPentahoInputFormat {
    */
   void setSchema( List<IParquetInputField> inputFields ) throws Exception;
 
+  /**
+   * Set filter used to skip row groups and pages whose statistics, dictionaries or column indexes show they can not
+   * match, and to drop the remaining rows which don't match.
+   *
+   * @param filter predicate over the format field names of the schema set by {@link #setSchema(List)}, {@code null}
+   *               to read all rows
+   */
+  void setFilter( IPentahoPredicate filter ) throws Exception;
+
   /**
    * Set input file.
    */
@@ -40,4 +49,17 @@ public interface IPentahoParquetInputFormat extends IPentahoInputFormat {
    * Split size, bytes.
    */
   void setSplitSize( long blockSize ) throws Exception;
+
+  /**
+   * Split files on row group boundaries into parts of about {@link #setSplitSize(long)} bytes, so that several
+   * readers can share one file. Files which are not safe to split are still read whole. Off by default.
+   */
+  void setSplitFiles( boolean splitFiles ) throws Exception;
+
+  /**
+   * Make {@link #createRecordReader(IPentahoInputSplit)} return {@link IPentahoColumnarRecordReader}s, which decode
+   * whole column batches instead of assembling one record at a time. Only flat and nested non-repeated primitive
+   * fields can be read this way, and rows are read the usual way while a filter is set. Off by default.
+   */
+  void setColumnarRead( boolean columnarRead ) throws Exception;
 }
@@ -49,4 +49,60 @@ public interface IPentahoParquetOutputFormat extends IPentahoOutputFormat, IPvfs
    * @param size size in bytes
    */
   void setDictionaryPageSize( int size ) throws Exception;
+
+  /**
+   * Use dictionary encoding for one column, whatever {@link #enableDictionary(boolean)} says. A column falls back to
+   * plain encoding once its dictionary outgrows the dictionary page size or doesn't make it smaller.
+   *
+   * @param column format field name
+   */
+  void setColumnDictionary( String column, boolean useDictionary ) throws Exception;
+
+  /**
+   * Write a bloom filter for a column, so that readers can skip row groups which can't contain a value.
+   *
+   * @param column                 format field name
+   * @param expectedDistinctValues number of distinct values the filter is sized for, 0 for Parquet's default size
+   */
+  void setBloomFilter( String column, long expectedDistinctValues ) throws Exception;
+
+  /**
+   * @param length maximum length of the min and max values stored in column indexes, bytes
+   */
+  void setColumnIndexTruncateLength( int length ) throws Exception;
+
+  /**
+   * @param length maximum length of the min and max values stored in row group statistics, bytes
+   */
+  void setStatisticsTruncateLength( int length ) throws Exception;
+
+  /**
+   * Limit the number of rows of a page, which bounds the rows a reader has to decode for a page it can't skip.
+   *
+   * @param rowCount maximum number of rows
+   */
+  void setPageRowCountLimit( int rowCount ) throws Exception;
+
+  /**
+   * Start a new part file once the current one holds {@code maxFileSize} bytes or {@code maxRowCount} rows, 0 meaning
+   * no limit. With a limit or a partition field the output file becomes a directory of part-NNNNN.parquet files and a
+   * _manifest listing them.
+   */
+  void setRollover( long maxFileSize, long maxRowCount ) throws Exception;
+
+  /**
+   * Write the rows of every value of the field into their own field=value sub directory. When {@code parallel} is
+   * set, every partition is encoded on its own thread and the written rows must not be modified afterwards.
+   *
+   * @param fieldName field to partition on, null to write a single sequence of parts
+   */
+  void setPartitionField( String fieldName, boolean parallel ) throws Exception;
+
+  /**
+   * Limit the number of partitions with an open part file. Writing to one more partition closes the part of the least
+   * recently written one, so that a field with many values doesn't hold a writer and its buffers for every value.
+   *
+   * @param maxOpenPartitions maximum number of open partitions, 0 meaning no limit
+   */
+  void setMaxOpenPartitions( int maxOpenPartitions ) throws Exception;
 }
@@ -0,0 +1,65 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.util.List;
+
+/**
+ * Format independent row filter which input formats push down to their readers, see {@link PentahoPredicate} for the
+ * factory methods.
+ * <p>
+ * Leaf predicates compare a field, referenced by its format field name, with literal values. Readers use the filter to
+ * skip data which can not match, so rows that do not match may still be returned.
+ */
+public interface IPentahoPredicate {
+
+  enum Operator {
+    EQUALS( true ),
+    LESS_THAN( true ),
+    LESS_THAN_EQUALS( true ),
+    GREATER_THAN( true ),
+    GREATER_THAN_EQUALS( true ),
+    IN( true ),
+    IS_NULL( true ),
+    NOT( false ),
+    AND( false ),
+    OR( false );
+
+    private final boolean leaf;
+
+    Operator( boolean leaf ) {
+      this.leaf = leaf;
+    }
+
+    public boolean isLeaf() {
+      return leaf;
+    }
+  }
+
+  Operator getOperator();
+
+  /**
+   * Format field name compared by a leaf predicate, {@code null} for NOT, AND and OR.
+   */
+  String getFieldName();
+
+  /**
+   * Literals compared by a leaf predicate, empty for IS_NULL, NOT, AND and OR.
+   */
+  List<Object> getValues();
+
+  /**
+   * Predicates combined by NOT, AND and OR, empty for leaf predicates.
+   */
+  List<IPentahoPredicate> getChildren();
+}
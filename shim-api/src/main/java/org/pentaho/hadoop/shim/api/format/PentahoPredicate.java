@@ -0,0 +1,132 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable {@link IPentahoPredicate}, e.g.
+ * <pre>
+ *   PentahoPredicate.and( PentahoPredicate.eq( "country", "US" ), PentahoPredicate.gt( "amount", 100L ) )
+ * </pre>
+ */
+public final class PentahoPredicate implements IPentahoPredicate {
+
+  private final Operator operator;
+  private final String fieldName;
+  private final List<Object> values;
+  private final List<IPentahoPredicate> children;
+
+  private PentahoPredicate( Operator operator, String fieldName, List<Object> values,
+                            List<IPentahoPredicate> children ) {
+    this.operator = operator;
+    this.fieldName = fieldName;
+    this.values = Collections.unmodifiableList( values );
+    this.children = Collections.unmodifiableList( children );
+  }
+
+  private static PentahoPredicate leaf( Operator operator, String fieldName, Object... values ) {
+    requireNonNull( fieldName, "fieldName must not be null" );
+    List<Object> literals = new ArrayList<>( values.length );
+    for ( Object value : values ) {
+      literals.add( requireNonNull( value, "literals must not be null, use isNull instead" ) );
+    }
+    return new PentahoPredicate( operator, fieldName, literals, Collections.emptyList() );
+  }
+
+  private static PentahoPredicate node( Operator operator, IPentahoPredicate... children ) {
+    if ( children.length == 0 ) {
+      throw new IllegalArgumentException( operator + " requires at least one predicate" );
+    }
+    for ( IPentahoPredicate child : children ) {
+      requireNonNull( child, "predicates must not be null" );
+    }
+    return new PentahoPredicate( operator, null, Collections.emptyList(), new ArrayList<>( Arrays.asList( children ) ) );
+  }
+
+  public static PentahoPredicate eq( String fieldName, Object value ) {
+    return leaf( Operator.EQUALS, fieldName, value );
+  }
+
+  public static PentahoPredicate lt( String fieldName, Object value ) {
+    return leaf( Operator.LESS_THAN, fieldName, value );
+  }
+
+  public static PentahoPredicate le( String fieldName, Object value ) {
+    return leaf( Operator.LESS_THAN_EQUALS, fieldName, value );
+  }
+
+  public static PentahoPredicate gt( String fieldName, Object value ) {
+    return leaf( Operator.GREATER_THAN, fieldName, value );
+  }
+
+  public static PentahoPredicate ge( String fieldName, Object value ) {
+    return leaf( Operator.GREATER_THAN_EQUALS, fieldName, value );
+  }
+
+  public static PentahoPredicate in( String fieldName, Object... values ) {
+    if ( values.length == 0 ) {
+      throw new IllegalArgumentException( "IN requires at least one value" );
+    }
+    return leaf( Operator.IN, fieldName, values );
+  }
+
+  public static PentahoPredicate isNull( String fieldName ) {
+    return leaf( Operator.IS_NULL, fieldName );
+  }
+
+  public static PentahoPredicate not( IPentahoPredicate predicate ) {
+    return node( Operator.NOT, predicate );
+  }
+
+  public static PentahoPredicate and( IPentahoPredicate... predicates ) {
+    return node( Operator.AND, predicates );
+  }
+
+  public static PentahoPredicate or( IPentahoPredicate... predicates ) {
+    return node( Operator.OR, predicates );
+  }
+
+  @Override
+  public Operator getOperator() {
+    return operator;
+  }
+
+  @Override
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  @Override
+  public List<Object> getValues() {
+    return values;
+  }
+
+  @Override
+  public List<IPentahoPredicate> getChildren() {
+    return children;
+  }
+
+  @Override
+  public String toString() {
+    if ( operator.isLeaf() ) {
+      return operator + "(" + fieldName + ( values.isEmpty() ? "" : ", " + values ) + ")";
+    }
+    return operator + children.toString();
+  }
+}
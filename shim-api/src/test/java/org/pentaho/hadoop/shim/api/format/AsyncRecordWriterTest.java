@@ -0,0 +1,136 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.hadoop.shim.api.format;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncRecordWriterTest {
+
+  @Test
+  public void writesAllRowsInOrder() throws Exception {
+    RecordingWriter delegate = new RecordingWriter();
+    List<RowMetaAndData> rows = new ArrayList<>();
+    try ( AsyncRecordWriter writer = new AsyncRecordWriter( delegate, 16 ) ) {
+      for ( int i = 0; i < 5000; i++ ) {
+        RowMetaAndData row = new RowMetaAndData();
+        rows.add( row );
+        writer.write( row );
+      }
+    }
+    assertEquals( rows.size(), delegate.rows.size() );
+    for ( int i = 0; i < rows.size(); i++ ) {
+      assertSame( rows.get( i ), delegate.rows.get( i ) );
+    }
+    assertTrue( delegate.closed );
+  }
+
+  @Test
+  public void blocksWhileQueueIsFull() throws Exception {
+    RecordingWriter delegate = new RecordingWriter();
+    delegate.release = new CountDownLatch( 1 );
+    AsyncRecordWriter writer = new AsyncRecordWriter( delegate, 2 );
+    Thread producer = new Thread( () -> {
+      try {
+        for ( int i = 0; i < 10; i++ ) {
+          writer.write( new RowMetaAndData() );
+        }
+      } catch ( Exception e ) {
+        throw new IllegalStateException( e );
+      }
+    } );
+    producer.start();
+    producer.join( 300 );
+    assertTrue( producer.isAlive() );
+    assertTrue( writer.getQueueSize() <= writer.getQueueDepth() );
+    assertEquals( 2, writer.getPeakQueueSize() );
+
+    delegate.release.countDown();
+    producer.join( TimeUnit.SECONDS.toMillis( 10 ) );
+    writer.close();
+    assertEquals( 10, delegate.rows.size() );
+    assertTrue( writer.getBlockedNanos() > 0 );
+  }
+
+  @Test
+  public void rethrowsWriterFailure() throws Exception {
+    IllegalArgumentException failure = new IllegalArgumentException( "broken" );
+    RecordingWriter delegate = new RecordingWriter();
+    delegate.failure = failure;
+    AsyncRecordWriter writer = new AsyncRecordWriter( delegate, 1 );
+    try {
+      // the producer must never hang on a failed writer
+      for ( int i = 0; i < 1000; i++ ) {
+        writer.write( new RowMetaAndData() );
+      }
+      writer.close();
+      fail( "Expected the writer failure" );
+    } catch ( IOException e ) {
+      assertSame( failure, e.getCause() );
+    }
+    writer.close();
+    assertTrue( delegate.closed );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void rejectsWritesAfterClose() throws Exception {
+    AsyncRecordWriter writer = new AsyncRecordWriter( new RecordingWriter(), 1 );
+    writer.close();
+    writer.write( new RowMetaAndData() );
+  }
+
+  @Test
+  public void createAsyncRecordWriterWrapsRecordWriter() throws Exception {
+    RecordingWriter delegate = new RecordingWriter();
+    IPentahoOutputFormat format = () -> delegate;
+    RowMetaAndData row = new RowMetaAndData();
+    try ( AsyncRecordWriter writer = format.createAsyncRecordWriter( 4 ) ) {
+      writer.writeBatch( Collections.singletonList( row ) );
+    }
+    assertEquals( Collections.singletonList( row ), delegate.rows );
+  }
+
+  private static class RecordingWriter implements IPentahoRecordWriter {
+    private final List<RowMetaAndData> rows = Collections.synchronizedList( new ArrayList<>() );
+    private CountDownLatch release;
+    private RuntimeException failure;
+    private volatile boolean closed;
+
+    @Override public void write( RowMetaAndData row ) throws Exception {
+      if ( release != null ) {
+        release.await();
+      }
+      if ( failure != null ) {
+        throw failure;
+      }
+      rows.add( row );
+    }
+
+    @Override public void close() {
+      closed = true;
+    }
+  }
+}
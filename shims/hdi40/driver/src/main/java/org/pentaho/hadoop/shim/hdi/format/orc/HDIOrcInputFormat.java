@@ -12,11 +12,15 @@
 
 package org.pentaho.hadoop.shim.hdi.format.orc;
 
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.pentaho.hadoop.shim.HadoopShim;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
 import org.pentaho.hadoop.shim.common.format.orc.PentahoOrcInputFormat;
+import org.pentaho.hadoop.shim.common.format.orc.PentahoOrcInputSplit;
 
+import java.io.IOException;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -35,7 +39,16 @@ public class HDIOrcInputFormat extends PentahoOrcInputFormat {
   public IPentahoRecordReader createRecordReader( IPentahoInputSplit split ) {
     requireNonNull( fileName, NOT_NULL_MSG );
     requireNonNull( inputFields, NOT_NULL_MSG );
-    return inClassloader( () -> new HDIOrcRecordReader( fileName, conf, inputFields, shim, pentahoConf ) );
+    if ( split instanceof PentahoOrcInputSplit ) {
+      return inClassloader( () -> new HDIOrcRecordReader( (PentahoOrcInputSplit) split, conf, inputFields, shim,
+        pentahoConf, filter ) );
+    }
+    return inClassloader( () -> new HDIOrcRecordReader( fileName, conf, inputFields, shim, pentahoConf, filter ) );
+  }
+
+  @Override
+  protected FileSystem getFileSystem( Path path ) throws IOException {
+    return (FileSystem) shim.getFileSystem( pentahoConf ).getDelegate();
   }
 
   @Override
@@ -21,6 +21,8 @@ import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.pentaho.hadoop.shim.HadoopShim;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
+import org.pentaho.hadoop.shim.api.format.IPentahoPredicate;
+import org.pentaho.hadoop.shim.common.format.orc.PentahoOrcInputSplit;
 import org.pentaho.hadoop.shim.common.format.orc.PentahoOrcRecordReader;
 
 import java.io.IOException;
@@ -31,8 +33,14 @@ public class HDIOrcRecordReader extends PentahoOrcRecordReader {
 
   HDIOrcRecordReader( String fileName, Configuration conf,
                       List<? extends IOrcInputField> dialogInputFields, HadoopShim shim,
-                      org.pentaho.hadoop.shim.api.internal.Configuration pentahoConf ) {
-    super( fileName, dialogInputFields, getReader( fileName, conf, shim, pentahoConf ) );
+                      org.pentaho.hadoop.shim.api.internal.Configuration pentahoConf, IPentahoPredicate filter ) {
+    super( fileName, dialogInputFields, getReader( fileName, conf, shim, pentahoConf ), filter );
+  }
+
+  HDIOrcRecordReader( PentahoOrcInputSplit split, Configuration conf,
+                      List<? extends IOrcInputField> dialogInputFields, HadoopShim shim,
+                      org.pentaho.hadoop.shim.api.internal.Configuration pentahoConf, IPentahoPredicate filter ) {
+    super( split, dialogInputFields, getReader( split.getFileName(), conf, shim, pentahoConf ), filter );
   }
 
   static Reader getReader( String fileName, Configuration conf, HadoopShim shim,
@@ -51,6 +59,7 @@ public class HDIOrcRecordReader extends PentahoOrcRecordReader {
           throw new NoSuchFileException( fileName );
         }
         filePath = fileStatuses[0].getPath();
+        warnIfNotAllFilesAreRead( fileName, fileStatuses, filePath );
       }
       return OrcFile.createReader( filePath,
               OrcFile.readerOptions( conf ).filesystem( fs ) );
@@ -16,8 +16,6 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.parquet.hadoop.Footer;
-import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.schema.MessageType;
 import org.pentaho.hadoop.shim.HadoopShim;
@@ -25,6 +23,7 @@ import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.format.IParquetInputField;
 import org.pentaho.hadoop.shim.common.format.ReadFileFilter;
 import org.pentaho.hadoop.shim.common.format.ReadFilesFilter;
+import org.pentaho.hadoop.shim.common.format.parquet.ParquetFooterCache;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.ParquetConverter;
 import org.pentaho.hadoop.shim.common.format.parquet.delegate.apache.PentahoApacheInputFormat;
 
@@ -107,7 +106,6 @@ public class HDIApacheInputFormat extends PentahoApacheInputFormat {
     } );
   }
 
-  @SuppressWarnings( "squid:S1874" )
   @Override
   public List<IParquetInputField> readSchema( String file ) throws Exception {
     return inClassloader( () -> {
@@ -117,14 +115,12 @@ public class HDIApacheInputFormat extends PentahoApacheInputFormat {
       filePath = new Path( fs.getUri().toString() + filePath.toUri().getPath() );
       filePath = fs.makeQualified( filePath );
       FileStatus fileStatus = fs.getFileStatus( filePath );
-      List<Footer> footers = ParquetFileReader.readFooters( conf, fileStatus, true );
-      if ( footers.isEmpty() ) {
+      ParquetMetadata meta = ParquetFooterCache.getInstance().getFirstFooter( conf, fileStatus );
+      if ( meta == null ) {
         return new ArrayList<>();
-      } else {
-        ParquetMetadata meta = footers.get( 0 ).getParquetMetadata();
-        MessageType schema = meta.getFileMetaData().getSchema();
-        return ParquetConverter.buildInputFields( schema );
       }
+      MessageType schema = meta.getFileMetaData().getSchema();
+      return ParquetConverter.buildInputFields( schema );
     } );
   }
 }